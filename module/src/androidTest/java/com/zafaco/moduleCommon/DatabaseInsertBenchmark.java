@@ -0,0 +1,123 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class DatabaseInsertBenchmark
+{
+    private static final String TAG = "DatabaseInsertBenchmark";
+
+    private static final String DATABASE_NAME = "benchmark_insert.db";
+    private static final int    ROWS          = 2000;
+    private static final int    ROUNDS        = 3;
+
+    private Context                             ctx;
+    private Database                            database;
+    private List<LinkedHashMap<String, String>> rows;
+
+    @Before
+    public void setUp()
+    {
+        ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ctx.deleteDatabase(DATABASE_NAME);
+
+        DatabaseSchema schema = new DatabaseSchema()
+                .put("timestamp", DatabaseSchema.Type.INTEGER)
+                .put("rtt", DatabaseSchema.Type.REAL)
+                .put("label", DatabaseSchema.Type.TEXT);
+
+        database = new Database(ctx, DATABASE_NAME, "samples", schema);
+        database.createDB(schema);
+
+        rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++)
+        {
+            LinkedHashMap<String, String> row = new LinkedHashMap<>();
+            row.put("timestamp", Long.toString(1700000000000L + i));
+            row.put("rtt", Double.toString(10 + (i % 50) / 10.0));
+            row.put("label", "sample " + i);
+            rows.add(row);
+        }
+    }
+
+    @After
+    public void tearDown()
+    {
+        database.close();
+        ctx.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void batchedAgainstPerRowInserts()
+    {
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            long begin = System.nanoTime();
+            for (LinkedHashMap<String, String> row : rows)
+            {
+                database.insert(row);
+            }
+            report("insert per row", System.nanoTime() - begin);
+            assertEquals(ROWS, database.delete(null, null));
+
+            begin = System.nanoTime();
+            assertEquals(ROWS, database.insertAll(rows));
+            report("insertAll", System.nanoTime() - begin);
+            assertEquals(ROWS, database.delete(null, null));
+
+            database.openPersistent();
+
+            begin = System.nanoTime();
+            for (LinkedHashMap<String, String> row : rows)
+            {
+                database.insert(row);
+            }
+            report("insert per row, persistent", System.nanoTime() - begin);
+            assertEquals(ROWS, database.delete(null, null));
+
+            begin = System.nanoTime();
+            assertEquals(ROWS, database.insertAll(rows));
+            report("insertAll, persistent", System.nanoTime() - begin);
+            assertEquals(ROWS, database.delete(null, null));
+
+            database.closePersistent();
+        }
+    }
+
+    private static void report(String name, long elapsedNs)
+    {
+        android.util.Log.i(TAG, String.format(Locale.ROOT, "%s: %d rows in %.1f ms, %.1f us/row",
+                name, ROWS, elapsedNs / 1e6, elapsedNs / 1e3 / ROWS));
+    }
+}
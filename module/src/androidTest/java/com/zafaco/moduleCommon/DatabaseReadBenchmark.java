@@ -0,0 +1,161 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.zafaco.moduleCommon.interfaces.DatabaseRowVisitor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class DatabaseReadBenchmark
+{
+    private static final String TAG = "DatabaseReadBenchmark";
+
+    private static final String DATABASE_NAME = "benchmark_read.db";
+    private static final int    ROWS          = 5000;
+    private static final int    THREADS       = 4;
+    private static final int    QUERIES       = 200;
+
+    private Context  ctx;
+    private Database database;
+
+    @Before
+    public void setUp()
+    {
+        ctx = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ctx.deleteDatabase(DATABASE_NAME);
+
+        DatabaseSchema schema = new DatabaseSchema()
+                .put("timestamp", DatabaseSchema.Type.INTEGER)
+                .put("rtt", DatabaseSchema.Type.REAL)
+                .put("label", DatabaseSchema.Type.TEXT);
+
+        database = new Database(ctx, DATABASE_NAME, "samples", schema);
+        database.createDB(schema);
+
+        List<LinkedHashMap<String, String>> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++)
+        {
+            LinkedHashMap<String, String> row = new LinkedHashMap<>();
+            row.put("timestamp", Long.toString(1700000000000L + i));
+            row.put("rtt", Double.toString(10 + (i % 50) / 10.0));
+            row.put("label", "sample " + i);
+            rows.add(row);
+        }
+        assertEquals(ROWS, database.insertAll(rows));
+    }
+
+    @After
+    public void tearDown()
+    {
+        database.close();
+        ctx.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void concurrentReads() throws InterruptedException
+    {
+        long[] baseline = measure();
+
+        database.setProfile(DatabaseProfile.measurement().setReadPoolSize(THREADS));
+        long[] pooled = measure();
+
+        database.openPersistent();
+        long[] persistent = measure();
+
+        report("no profile", baseline);
+        report("measurement profile + read pool", pooled);
+        report("measurement profile + read pool + persistent", persistent);
+        android.util.Log.i(TAG, "read pool " + database.getReadPoolMetrics());
+    }
+
+    private long[] measure() throws InterruptedException
+    {
+        final long[]         latencies = new long[THREADS * QUERIES];
+        final CountDownLatch start     = new CountDownLatch(1);
+        Thread[]             threads   = new Thread[THREADS];
+
+        for (int t = 0; t < THREADS; t++)
+        {
+            final int offset = t * QUERIES;
+            threads[t] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                    } catch (InterruptedException ex)
+                    {
+                        return;
+                    }
+
+                    final int[] seen = new int[1];
+                    for (int i = 0; i < QUERIES; i++)
+                    {
+                        long begin = System.nanoTime();
+                        database.forEachPage((i * 37L) % ROWS, 100, "rtt > ?", new String[]{"10.5"}, new DatabaseRowVisitor()
+                        {
+                            @Override
+                            public boolean onRow(DatabaseRow row)
+                            {
+                                seen[0] += row.getString("label").length();
+                                return true;
+                            }
+                        });
+                        latencies[offset + i] = System.nanoTime() - begin;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        start.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(String name, long[] sorted)
+    {
+        android.util.Log.i(TAG, String.format(Locale.ROOT, "%s: %d queries on %d threads, p50 %.2f ms, p95 %.2f ms, max %.2f ms",
+                name, sorted.length, THREADS,
+                sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.95)] / 1e6, sorted[sorted.length - 1] / 1e6));
+    }
+}
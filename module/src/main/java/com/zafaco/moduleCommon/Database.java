@@ -23,14 +23,22 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.database.sqlite.SQLiteStatement;
+import android.os.PowerManager;
+
+import com.zafaco.moduleCommon.interfaces.DatabaseCopyListener;
+import com.zafaco.moduleCommon.interfaces.DatabaseRowVisitor;
 
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 public class Database extends SQLiteOpenHelper
@@ -40,13 +48,25 @@ public class Database extends SQLiteOpenHelper
     private final Context ctx;
 
 
-    private final Tool           mTool;
-    private       SQLiteDatabase mDatabase;
+    private final    Tool           mTool;
+    private volatile SQLiteDatabase mDatabase;
+
+    private volatile boolean                mPersistent = false;
+    private volatile DatabaseStatementCache mStatementCache;
+    private volatile DatabaseWriteQueue     mWriteQueue;
+    private volatile DatabaseSchema         mSchema;
+    private volatile DatabaseProfile        mProfile;
+    private volatile DatabaseReadPool       mReadPool;
 
-    private boolean attachFlag = false;
+    private volatile boolean     mQueryPlanDiagnostics = false;
+    private final    Set<String> mDiagnosedQueries     = Collections.synchronizedSet(new HashSet<String>());
 
     private static final int DATABASE_VERSION = 1;
 
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 16;
+    private static final int DEFAULT_COPY_CHUNK_SIZE      = 1000;
+    private static final int MAX_BIND_ARGS                = 900;
+
     private String DATABASE_NAME = "";
     private String TABLE_NAME    = "";
 
@@ -54,6 +74,11 @@ public class Database extends SQLiteOpenHelper
 
 
     public Database(Context context, String database_name, String table_name)
+    {
+        this(context, database_name, table_name, null);
+    }
+
+    public Database(Context context, String database_name, String table_name, DatabaseSchema schema)
     {
         super(context, database_name, null, DATABASE_VERSION);
 
@@ -63,6 +88,7 @@ public class Database extends SQLiteOpenHelper
 
         DATABASE_NAME = database_name;
         TABLE_NAME    = table_name;
+        mSchema       = schema;
 
         LinkedHashMap<String, String> keys = new LinkedHashMap<>();
         keys.put("timestamp", "");
@@ -76,6 +102,19 @@ public class Database extends SQLiteOpenHelper
 
     }
 
+    @Override
+    public void onConfigure(SQLiteDatabase db)
+    {
+        DatabaseProfile profile = mProfile;
+        if (profile == null)
+            return;
+
+        if (profile.isWalEnabled())
+            db.enableWriteAheadLogging();
+
+        profile.apply(db, false);
+    }
+
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion)
     {
@@ -89,59 +128,168 @@ public class Database extends SQLiteOpenHelper
         }
     }
 
-    private void attachDB(String attDB, String attTable)
+    public void copyDB(String fromDB, String fromTable, String toDB, String toTable)
     {
+        boolean attached = false;
         try
         {
             mDatabase = getWritableDatabase();
-            mDatabase.execSQL("ATTACH DATABASE '" + ctx.getDatabasePath(attDB).toString() + "' AS " + attDB);
+            mDatabase.execSQL("ATTACH DATABASE '" + ctx.getDatabasePath(fromDB).toString() + "' AS " + fromDB);
+            attached = true;
 
-            Log.debug(TAG, "attachDB: ATTACH DATABASE '" + ctx.getDatabasePath(attDB).toString() + "' AS " + attDB);
+            mDatabase.execSQL("INSERT INTO " + toTable + " SELECT * FROM " + fromDB + "." + fromTable + ";");
         } catch (Exception ex)
         {
             HashMap<String, String> extras = new HashMap<>();
-            extras.put("attDB", attDB);
-            extras.put("attTable", attTable);
-            extras.put("TABLE_NAME", TABLE_NAME);
-            Log.warning(TAG, "attachDB: failed", extras, ex);
+            extras.put("fromDB", fromDB);
+            extras.put("fromTable", fromTable);
+            extras.put("toTable", toTable);
+            Log.warning(TAG, "copyDB: failed", extras, ex);
+        } finally
+        {
+            if (attached)
+            {
+                try
+                {
+                    mDatabase.execSQL("DETACH DATABASE " + fromDB);
+                } catch (Exception ex)
+                {
+                    Log.warning(TAG, "copyDB: detach failed", ex);
+                }
+            }
+
+            releaseDatabase();
         }
+    }
+
+    public long copyIncremental(String fromDB, String fromTable, String toTable, int chunkSize, boolean resume, DatabaseCopyListener listener)
+    {
+        try
+        {
+            mDatabase = getWritableDatabase();
 
-        TABLE_NAME = TABLE_NAME + "," + attDB + "." + attTable;
+            DatabaseCopyEngine engine = new DatabaseCopyEngine(mDatabase, ctx.getDatabasePath(fromDB).toString(), fromTable, toTable, chunkSize, listener);
+            long               copied = engine.run(resume);
 
-        attachFlag = true;
+            Log.debug(TAG, "copyIncremental: copied " + copied + " rows from " + fromDB + "." + fromTable + " to " + toTable);
+
+            releaseDatabase();
+            return copied;
+        } catch (Exception ex)
+        {
+            HashMap<String, String> extras = new HashMap<>();
+            extras.put("fromDB", fromDB);
+            extras.put("fromTable", fromTable);
+            extras.put("toTable", toTable);
+            Log.warning(TAG, "copyIncremental: failed", extras, ex);
+            return -1;
+        }
     }
 
-    private void detachDB(String attDB, String attTable)
+    public void resetCopyProgress(String fromDB, String fromTable, String toTable)
     {
+        try
+        {
+            mDatabase = getWritableDatabase();
 
-        if (!attachFlag)
-            return;
+            new DatabaseCopyEngine(mDatabase, ctx.getDatabasePath(fromDB).toString(), fromTable, toTable, DEFAULT_COPY_CHUNK_SIZE, null).resetProgress();
+
+            releaseDatabase();
+        } catch (Exception ex)
+        {
+            Log.warning(TAG, "resetCopyProgress: failed", ex);
+        }
+    }
+
+    public long enforceRetention(DatabaseRetentionPolicy policy)
+    {
+        if (policy == null)
+            return 0;
+
+        long available = Storage.getAvailableInternalStorageSize(ctx);
+        if (available > 0 && available < policy.getLowStorageBytes())
+        {
+            policy = policy.scaled(policy.getLowStorageFactor());
+            Log.debug(TAG, "enforceRetention: low storage, available = " + available, policy.toMap());
+        }
 
         try
         {
             mDatabase = getWritableDatabase();
-            mDatabase.execSQL("DETACH DATABASE " + attDB);
 
-            Log.debug(TAG, "detachDB: DETACH DATABASE " + attDB);
+            long deleted = new DatabaseRetention(mDatabase, TABLE_NAME).enforce(policy);
+
+            if (deleted > 0)
+                Log.debug(TAG, "enforceRetention: deleted " + deleted + " rows from " + TABLE_NAME);
+
+            releaseDatabase();
+            return deleted;
         } catch (Exception ex)
         {
-            HashMap<String, String> extras = new HashMap<>();
-            extras.put("attDB", attDB);
-            extras.put("attTable", attTable);
+            HashMap<String, String> extras = new HashMap<>(policy.toMap());
             extras.put("TABLE_NAME", TABLE_NAME);
-            Log.warning(TAG, "detachDB: failed", extras, ex);
+            Log.warning(TAG, "enforceRetention: failed", extras, ex);
+            return 0;
         }
+    }
+
+    public long runMaintenance(DatabaseRetentionPolicy policy)
+    {
+        long deleted = enforceRetention(policy);
+
+        vacuumIfIdle();
 
-        TABLE_NAME = attTable;
+        return deleted;
     }
 
-    public void copyDB(String fromDB, String fromTable, String toDB, String toTable)
+    public boolean isDeviceIdle()
+    {
+        PowerManager powerManager = (PowerManager) ctx.getSystemService(Context.POWER_SERVICE);
+
+        if (powerManager == null)
+            return false;
+
+        return powerManager.isDeviceIdleMode() || !powerManager.isInteractive();
+    }
+
+    public boolean vacuumIfIdle()
+    {
+        if (!isDeviceIdle())
+            return false;
+
+        return vacuum();
+    }
+
+    public boolean vacuum()
+    {
+        try
+        {
+            mDatabase = getWritableDatabase();
+
+            boolean vacuumed = new DatabaseRetention(mDatabase, TABLE_NAME).vacuum();
+
+            releaseDatabase();
+            return vacuumed;
+        } catch (Exception ex)
+        {
+            Log.warning(TAG, "vacuum: failed", ex);
+            return false;
+        }
+    }
+
+    public void enableIncrementalVacuum()
     {
-        attachDB(fromDB, fromTable);
+        try
+        {
+            mDatabase = getWritableDatabase();
 
-        mDatabase.execSQL("INSERT INTO " + toTable + " SELECT * FROM " + fromDB + "." + fromTable + ";");
+            new DatabaseRetention(mDatabase, TABLE_NAME).enableIncrementalVacuum();
 
-        detachDB(fromDB, fromTable);
+            releaseDatabase();
+        } catch (Exception ex)
+        {
+            Log.warning(TAG, "enableIncrementalVacuum: failed", ex);
+        }
     }
 
     public boolean validateIfTableHasData()
@@ -154,7 +302,7 @@ public class Database extends SQLiteOpenHelper
             boolean hasData = c.moveToFirst();
 
             c.close();
-            mDatabase.close();
+            releaseDatabase();
             return hasData;
         } catch (SQLiteException ex)
         {
@@ -180,7 +328,7 @@ public class Database extends SQLiteOpenHelper
 
             for (Map.Entry<String, String> entry : keys.entrySet())
             {
-                createTable += entry.getKey() + " TEXT,";
+                createTable += entry.getKey() + " " + columnType(entry.getKey()) + ",";
             }
 
             createTable = createTable.substring(0, createTable.length() - 1);
@@ -193,7 +341,7 @@ public class Database extends SQLiteOpenHelper
             mDatabase.execSQL(createTable);
             checkColumns(keys);
 
-            mDatabase.close();
+            releaseDatabase();
         } catch (Exception ex)
         {
             Log.warning(TAG, "createDB: failed", keys, ex);
@@ -214,7 +362,8 @@ public class Database extends SQLiteOpenHelper
 
             for (Iterator<String> iter = keys.keys(); iter.hasNext(); )
             {
-                createTable += iter.next() + " TEXT,";
+                String key = iter.next();
+                createTable += key + " " + columnType(key) + ",";
             }
 
             createTable = createTable.substring(0, createTable.length() - 1);
@@ -225,7 +374,7 @@ public class Database extends SQLiteOpenHelper
             mDatabase.execSQL(createTable);
             checkColumns(keys);
 
-            mDatabase.close();
+            releaseDatabase();
         } catch (Exception ex)
         {
             Log.warning(TAG, "createDB: failed", keys, ex);
@@ -234,6 +383,362 @@ public class Database extends SQLiteOpenHelper
 
     }
 
+    public void createDB(DatabaseSchema schema)
+    {
+        mSchema = schema;
+
+        LinkedHashMap<String, String> keys = new LinkedHashMap<>();
+        for (String column : schema.getColumns().keySet())
+        {
+            keys.put(column, "");
+        }
+
+        createDB(keys);
+        migrateSchema();
+    }
+
+    public DatabaseSchema getSchema()
+    {
+        return mSchema;
+    }
+
+    public boolean migrateSchema()
+    {
+        DatabaseSchema schema = mSchema;
+        if (schema == null)
+            return false;
+
+        String migrationTable = TABLE_NAME + "_migration";
+
+        try
+        {
+            mDatabase = getWritableDatabase();
+
+            LinkedHashMap<String, String> current = new LinkedHashMap<>();
+
+            Cursor result = mDatabase.rawQuery("PRAGMA table_info(" + TABLE_NAME + ")", null);
+            while (result.moveToNext())
+            {
+                current.put(result.getString(1), result.getString(2));
+            }
+            result.close();
+
+            boolean migrate = false;
+            for (Map.Entry<String, String> entry : current.entrySet())
+            {
+                if (schema.contains(entry.getKey()) && !schema.getType(entry.getKey()).name().equalsIgnoreCase(entry.getValue()))
+                    migrate = true;
+            }
+
+            if (!migrate)
+            {
+                releaseDatabase();
+                return false;
+            }
+
+            StringBuilder createTable = new StringBuilder("CREATE TABLE " + migrationTable + " (id INTEGER PRIMARY KEY AUTOINCREMENT");
+            StringBuilder columns     = new StringBuilder("id");
+            StringBuilder values      = new StringBuilder("id");
+
+            for (Map.Entry<String, String> entry : current.entrySet())
+            {
+                String column = entry.getKey();
+                if (column.equals("id"))
+                    continue;
+
+                String type = schema.contains(column) ? schema.getType(column).name() : entry.getValue();
+
+                createTable.append(", ").append(column).append(" ").append(type);
+                columns.append(",").append(column);
+
+                if (type.equals("INTEGER") || type.equals("REAL"))
+                    values.append(",NULLIF(").append(column).append(",'')");
+                else
+                    values.append(",").append(column);
+            }
+            createTable.append(")");
+
+            ArrayList<String> indexes = new ArrayList<>();
+
+            result = mDatabase.rawQuery("SELECT sql FROM sqlite_master WHERE type='index' AND tbl_name=? AND sql IS NOT NULL", new String[]{TABLE_NAME});
+            while (result.moveToNext())
+            {
+                indexes.add(result.getString(0));
+            }
+            result.close();
+
+            mDatabase.beginTransaction();
+            try
+            {
+                mDatabase.execSQL("DROP TABLE IF EXISTS " + migrationTable);
+                mDatabase.execSQL(createTable.toString());
+                mDatabase.execSQL("INSERT INTO " + migrationTable + " (" + columns + ") SELECT " + values + " FROM " + TABLE_NAME);
+                mDatabase.execSQL("DROP TABLE " + TABLE_NAME);
+                mDatabase.execSQL("ALTER TABLE " + migrationTable + " RENAME TO " + TABLE_NAME);
+
+                for (String index : indexes)
+                {
+                    mDatabase.execSQL(index);
+                }
+                mDatabase.setTransactionSuccessful();
+            } finally
+            {
+                mDatabase.endTransaction();
+            }
+
+            if (mStatementCache != null)
+                mStatementCache.clear();
+
+            Log.debug(TAG, "migrateSchema: " + createTable);
+
+            releaseDatabase();
+            return true;
+        } catch (Exception ex)
+        {
+            HashMap<String, String> extras = new HashMap<>();
+            extras.put("TABLE_NAME", TABLE_NAME);
+            Log.warning(TAG, "migrateSchema: failed", extras, ex);
+            return false;
+        }
+    }
+
+    public boolean createIndex(String... columns)
+    {
+        return createIndex(null, false, columns);
+    }
+
+    public boolean createIndex(String name, boolean unique, String... columns)
+    {
+        if (columns == null || columns.length == 0)
+            return false;
+
+        StringBuilder columnList = new StringBuilder();
+        StringBuilder indexName  = new StringBuilder("idx_").append(TABLE_NAME);
+
+        for (String column : columns)
+        {
+            if (columnList.length() > 0)
+                columnList.append(",");
+            columnList.append(column);
+            indexName.append("_").append(column.trim().split(" ")[0]);
+        }
+
+        if (name != null && !name.isEmpty())
+            indexName = new StringBuilder(name);
+
+        String createIndex = "CREATE " + (unique ? "UNIQUE " : "") + "INDEX IF NOT EXISTS " + indexName + " ON " + TABLE_NAME + " (" + columnList + ")";
+
+        try
+        {
+            mDatabase = getWritableDatabase();
+            mDatabase.execSQL(createIndex);
+
+            Log.debug(TAG, "createIndex: " + createIndex);
+
+            mDiagnosedQueries.clear();
+            releaseDatabase();
+            return true;
+        } catch (Exception ex)
+        {
+            HashMap<String, String> extras = new HashMap<>();
+            extras.put("query", createIndex);
+            Log.warning(TAG, "createIndex: failed", extras, ex);
+            return false;
+        }
+    }
+
+    public void createDefaultIndexes()
+    {
+        LinkedHashMap<String, String> columns = selectTableInfo();
+
+        for (String column : new String[]{"timestamp", "sent", "uploaded", "deleted"})
+        {
+            if (columns.containsKey(column))
+                createIndex(column);
+        }
+    }
+
+    public boolean dropIndex(String name)
+    {
+        try
+        {
+            mDatabase = getWritableDatabase();
+            mDatabase.execSQL("DROP INDEX IF EXISTS " + name);
+
+            mDiagnosedQueries.clear();
+            releaseDatabase();
+            return true;
+        } catch (Exception ex)
+        {
+            Log.warning(TAG, "dropIndex: failed", ex);
+            return false;
+        }
+    }
+
+    public ArrayList<String> getIndexes()
+    {
+        ArrayList<String> indexes = new ArrayList<>();
+
+        try
+        {
+            mDatabase = getReadableDatabase();
+
+            Cursor result = mDatabase.rawQuery("SELECT name FROM sqlite_master WHERE type='index' AND tbl_name=?", new String[]{TABLE_NAME});
+            while (result.moveToNext())
+            {
+                indexes.add(result.getString(0));
+            }
+            result.close();
+
+            releaseDatabase();
+        } catch (Exception ex)
+        {
+            Log.warning(TAG, "getIndexes: failed", ex);
+        }
+
+        return indexes;
+    }
+
+    private LinkedHashMap<String, String> selectTableInfo()
+    {
+        LinkedHashMap<String, String> columns = new LinkedHashMap<>();
+
+        try
+        {
+            mDatabase = getReadableDatabase();
+
+            Cursor result = mDatabase.rawQuery("PRAGMA table_info(" + TABLE_NAME + ")", null);
+            while (result.moveToNext())
+            {
+                columns.put(result.getString(1), result.getString(2));
+            }
+            result.close();
+
+            releaseDatabase();
+        } catch (Exception ex)
+        {
+            Log.warning(TAG, "selectTableInfo: failed", ex);
+        }
+
+        return columns;
+    }
+
+    public void setQueryPlanDiagnostics(boolean enabled)
+    {
+        mQueryPlanDiagnostics = enabled;
+        mDiagnosedQueries.clear();
+    }
+
+    public ArrayList<String> explainQueryPlan(String query)
+    {
+        try
+        {
+            mDatabase = getReadableDatabase();
+            try
+            {
+                return queryPlan(mDatabase, query);
+            } finally
+            {
+                releaseDatabase();
+            }
+        } catch (Exception ex)
+        {
+            HashMap<String, String> extras = new HashMap<>();
+            extras.put("query", query);
+            Log.warning(TAG, "explainQueryPlan: failed", extras, ex);
+        }
+
+        return new ArrayList<>();
+    }
+
+    private static ArrayList<String> queryPlan(SQLiteDatabase db, String query)
+    {
+        ArrayList<String> plan = new ArrayList<>();
+
+        Cursor result = db.rawQuery("EXPLAIN QUERY PLAN " + query, null);
+        try
+        {
+            int detail = result.getColumnIndex("detail");
+            while (result.moveToNext())
+            {
+                plan.add(result.getString((detail >= 0) ? detail : result.getColumnCount() - 1));
+            }
+        } finally
+        {
+            result.close();
+        }
+
+        return plan;
+    }
+
+    public ArrayList<String> explainSelect(String where, String order, int asc)
+    {
+        return explainQueryPlan("SELECT * FROM " + TABLE_NAME + " WHERE " + where + " ORDER BY " + order + " " + ((asc == 0) ? "ASC" : "DESC"));
+    }
+
+    public boolean hasFullTableScan(String query)
+    {
+        for (String detail : explainQueryPlan(query))
+        {
+            if (isFullTableScan(detail))
+                return true;
+        }
+
+        return false;
+    }
+
+    private static boolean isFullTableScan(String detail)
+    {
+        return detail != null && detail.startsWith("SCAN ") && !detail.contains(" USING ");
+    }
+
+    private void diagnoseQuery(String query)
+    {
+        if (!mQueryPlanDiagnostics || !mDiagnosedQueries.add(query))
+            return;
+
+        ArrayList<String> plan;
+        try
+        {
+            plan = queryPlan(getReadableDatabase(), query);
+        } catch (Exception ex)
+        {
+            HashMap<String, String> extras = new HashMap<>();
+            extras.put("query", query);
+            Log.warning(TAG, "diagnoseQuery: failed", extras, ex);
+            return;
+        }
+
+        for (String detail : plan)
+        {
+            if (isFullTableScan(detail))
+            {
+                HashMap<String, String> extras = new HashMap<>();
+                extras.put("query", query);
+                extras.put("plan", detail);
+                Log.warning(TAG, "diagnoseQuery: full table scan", extras);
+            } else if (detail != null && detail.contains("USE TEMP B-TREE FOR ORDER BY"))
+            {
+                HashMap<String, String> extras = new HashMap<>();
+                extras.put("query", query);
+                extras.put("plan", detail);
+                Log.debug(TAG, "diagnoseQuery: sort without index", extras);
+            }
+        }
+    }
+
+    private String columnType(String column)
+    {
+        DatabaseSchema schema = mSchema;
+        return (schema != null) ? schema.getType(column).name() : "TEXT";
+    }
+
+    private DatabaseSchema.Type[] resolveTypes(String keys)
+    {
+        DatabaseSchema schema = mSchema;
+        return (schema != null) ? schema.resolve(keys.split(",")) : null;
+    }
+
     private void checkColumns(LinkedHashMap<String, String> keys)
     {
 
@@ -258,13 +763,13 @@ public class Database extends SQLiteOpenHelper
 
                 if (!tmp.contains(entry.getKey()))
                 {
-                    String alterTable = "ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + entry.getKey() + " TEXT ";
+                    String alterTable = "ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + entry.getKey() + " " + columnType(entry.getKey()) + " ";
 
 
                     mDatabase.execSQL(alterTable);
                 }
             }
-            mDatabase.close();
+            releaseDatabase();
         } catch (Exception ex)
         {
             keys.put("TABLE_NAME", TABLE_NAME);
@@ -285,162 +790,470 @@ public class Database extends SQLiteOpenHelper
 
             Cursor result = mDatabase.rawQuery(pragmaTable, null);
 
-            while (result.moveToNext())
-            {
-                tmp.add(result.getString(1));
-            }
+            while (result.moveToNext())
+            {
+                tmp.add(result.getString(1));
+            }
+
+            result.close();
+
+            for (Iterator<String> iter = keys.keys(); iter.hasNext(); )
+            {
+                String key = iter.next();
+
+
+                if (!tmp.contains(key))
+                {
+                    String alterTable = "ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + key + " " + columnType(key) + " ";
+
+
+                    mDatabase.execSQL(alterTable);
+                }
+            }
+            releaseDatabase();
+        } catch (Exception ex)
+        {
+            Log.warning(TAG, "checkColumns: failed", keys, ex);
+        }
+
+    }
+
+    public void insert(LinkedHashMap<String, String> aData)
+    {
+        DatabaseWriteQueue queue = mWriteQueue;
+        if (queue != null && queue.enqueue(aData))
+            return;
+
+        insertRow("insert LinkedHashMap", joinKeys(aData), rowValues(aData));
+    }
+
+    public int insertAll(List<LinkedHashMap<String, String>> rows)
+    {
+        if (rows == null || rows.isEmpty())
+            return 0;
+
+        int    inserted = 0;
+        String keys     = "";
+
+        try
+        {
+            mDatabase = getWritableDatabase();
+            mDatabase.beginTransaction();
+
+            HashMap<String, DatabaseStatementCache.Lease> statements = new HashMap<>();
+            HashMap<String, DatabaseSchema.Type[]>        types      = new HashMap<>();
+            DatabaseStatementCache                        cache      = mStatementCache;
+            try
+            {
+                for (LinkedHashMap<String, String> row : rows)
+                {
+                    if (row == null || row.isEmpty())
+                        continue;
+
+                    keys = joinKeys(row);
+
+                    DatabaseStatementCache.Lease lease = statements.get(keys);
+                    if (lease == null)
+                    {
+                        boolean cached = cache != null && statements.size() < cache.getMaxSize();
+
+                        lease = acquireInsertStatement(keys, row.size(), cached);
+                        statements.put(keys, lease);
+                        types.put(keys, resolveTypes(keys));
+                    }
+
+                    bindAndInsert("insertAll", lease.getStatement(), types.get(keys), rowValues(row));
+                    inserted++;
+                }
+
+                mDatabase.setTransactionSuccessful();
+            } finally
+            {
+                mDatabase.endTransaction();
+
+                for (DatabaseStatementCache.Lease lease : statements.values())
+                {
+                    lease.release();
+                }
+            }
+
+            releaseDatabase();
+        } catch (SQLiteException ex)
+        {
+            HashMap<String, String> extras = new HashMap<>();
+            extras.put("table", TABLE_NAME);
+            extras.put("columns", keys);
+            extras.put("rows", Integer.toString(rows.size()));
+            Log.warning(TAG, "insertAll: failed", extras, ex);
+            return 0;
+        }
+
+        return inserted;
+    }
+
+    private static String joinKeys(LinkedHashMap<String, String> aData)
+    {
+        StringBuilder keys = new StringBuilder();
+
+        for (String key : aData.keySet())
+        {
+            keys.append(key).append(",");
+        }
+
+        keys.setLength(keys.length() - 1);
+
+        return keys.toString();
+    }
+
+    private static String[] rowValues(LinkedHashMap<String, String> aData)
+    {
+        String[] values = new String[aData.size()];
+
+        int i = 0;
+        for (String value : aData.values())
+        {
+            values[i++] = value;
+        }
+
+        return values;
+    }
+
+    public void insert(JSONObject aData)
+    {
+        StringBuilder keys   = new StringBuilder();
+        String[]      values = new String[aData.length()];
+
+        int i = 0;
+        for (Iterator<String> iter = aData.keys(); iter.hasNext(); )
+        {
+            String key = iter.next();
+
+            keys.append(key).append(",");
+
+            try
+            {
+                values[i] = aData.getString(key);
+            } catch (Exception ex)
+            {
+                Log.warning(TAG, "insert JSONObject: statement binding", ex);
+            }
+            i++;
+        }
+
+        keys.setLength(keys.length() - 1);
+
+        DatabaseWriteQueue queue = mWriteQueue;
+        if (queue != null)
+        {
+            LinkedHashMap<String, String> row = new LinkedHashMap<>();
+
+            i = 0;
+            for (Iterator<String> iter = aData.keys(); iter.hasNext(); )
+            {
+                row.put(iter.next(), values[i++]);
+            }
+
+            if (queue.enqueue(row))
+                return;
+        }
+
+        insertRow("insert JSONObject", keys.toString(), values);
+    }
+
+    private void insertRow(String method, String keys, String[] values)
+    {
+        try
+        {
+            mDatabase = getWritableDatabase();
+            mDatabase.beginTransaction();
+            try
+            {
+                DatabaseStatementCache.Lease lease = acquireInsertStatement(keys, values.length, true);
+                try
+                {
+                    bindAndInsert(method, lease.getStatement(), resolveTypes(keys), values);
+                } finally
+                {
+                    lease.release();
+                }
+
+                mDatabase.setTransactionSuccessful();
+            } finally
+            {
+                mDatabase.endTransaction();
+            }
+
+            releaseDatabase();
+        } catch (SQLiteException ex)
+        {
+            HashMap<String, String> extras = new HashMap<>();
+            extras.put("table", TABLE_NAME);
+            extras.put("columns", keys);
+            Log.warning(TAG, method + ": failed", extras, ex);
+        }
+    }
+
+    private long bindAndInsert(String method, SQLiteStatement stmt, DatabaseSchema.Type[] types, String[] values)
+    {
+        synchronized (stmt)
+        {
+            for (int i = 0; i < values.length; i++)
+            {
+                try
+                {
+                    if (types == null)
+                        stmt.bindString(i + 1, values[i].trim());
+                    else
+                        DatabaseSchema.bind(stmt, i + 1, types[i], (values[i] != null) ? values[i].trim() : null);
+                } catch (Exception ex)
+                {
+                    Log.warning(TAG, method + ": statement binding", ex);
+                }
+            }
+
+            long rowId = stmt.executeInsert();
+            stmt.clearBindings();
+
+            return rowId;
+        }
+    }
+
+    private DatabaseStatementCache.Lease acquireInsertStatement(String keys, int count, boolean cached)
+    {
+        StringBuilder sql = new StringBuilder();
+        sql.append("INSERT INTO ").append(TABLE_NAME).append(" (").append(keys).append(") VALUES (");
+
+        for (int i = 0; i < count; i++)
+        {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(");");
+
+        return acquireStatement("INSERT|" + TABLE_NAME + "|" + keys, sql.toString(), cached);
+    }
+
+    private DatabaseStatementCache.Lease acquireStatement(String key, String sql, boolean cached)
+    {
+        DatabaseStatementCache cache = mStatementCache;
+        if (cache == null || !cached)
+            return DatabaseStatementCache.uncached(mDatabase.compileStatement(sql));
+
+        return cache.acquire(mDatabase, key, sql);
+    }
+
+    private void releaseDatabase()
+    {
+        SQLiteDatabase db = mDatabase;
+        if (!mPersistent && db != null)
+            db.close();
+    }
+
+    public synchronized void openPersistent()
+    {
+        openPersistent(DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    public synchronized void openPersistent(int statementCacheSize)
+    {
+        if (mPersistent)
+            return;
+
+        mDatabase       = getWritableDatabase();
+        mStatementCache = new DatabaseStatementCache(statementCacheSize);
+        mPersistent     = true;
+
+        Log.debug(TAG, "openPersistent: statementCacheSize = " + statementCacheSize);
+    }
+
+    public synchronized void closePersistent()
+    {
+        if (!mPersistent)
+            return;
+
+        stopWriteBehind();
+
+        mPersistent = false;
+
+        mStatementCache.clear();
+        mStatementCache = null;
+
+        SQLiteDatabase db = mDatabase;
+        if (db != null)
+            db.close();
+    }
+
+    public synchronized void startWriteBehind(int capacity, DatabaseWriteQueue.Policy policy)
+    {
+        startWriteBehind(new DatabaseWriteQueue(this, capacity, policy));
+    }
+
+    public synchronized void startWriteBehind(DatabaseWriteQueue queue)
+    {
+        if (mWriteQueue != null)
+            return;
 
-            result.close();
+        openPersistent();
 
-            for (Iterator<String> iter = keys.keys(); iter.hasNext(); )
-            {
-                String key = iter.next();
+        queue.start();
+        mWriteQueue = queue;
+    }
 
+    public synchronized void stopWriteBehind()
+    {
+        DatabaseWriteQueue queue = mWriteQueue;
+        if (queue == null)
+            return;
 
-                if (!tmp.contains(key))
-                {
-                    String alterTable = "ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + key + " TEXT ";
+        mWriteQueue = null;
+        queue.stop();
+    }
 
+    public boolean flush()
+    {
+        DatabaseWriteQueue queue = mWriteQueue;
+        return queue == null || queue.flush();
+    }
 
-                    mDatabase.execSQL(alterTable);
-                }
-            }
-            mDatabase.close();
-        } catch (Exception ex)
-        {
-            Log.warning(TAG, "checkColumns: failed", keys, ex);
-        }
+    public boolean awaitDurable(long timeoutMs)
+    {
+        DatabaseWriteQueue queue = mWriteQueue;
+        return queue == null || queue.awaitDurable(timeoutMs);
+    }
 
+    public DatabaseWriteQueue getWriteQueue()
+    {
+        return mWriteQueue;
     }
 
-    public void insert(LinkedHashMap<String, String> aData)
+    public synchronized void setProfile(DatabaseProfile profile)
     {
-        String sql    = "";
-        String keys   = "";
-        String values = "";
+        closeReadPool();
+
+        mProfile = profile;
 
-        sql += "INSERT INTO " + TABLE_NAME + " ";
+        setWriteAheadLoggingEnabled(profile != null && profile.isWalEnabled());
 
+        if (mPersistent)
+            reopenPersistent();
+
+        if (profile == null)
+            return;
 
-        for (Map.Entry<String, String> entry : aData.entrySet())
+        if (profile.isWalEnabled() && profile.getReadPoolSize() > 0 && ctx != null)
         {
             try
             {
-                keys += entry.getKey() + ",";
-                values += "?,";
+                mReadPool = new DatabaseReadPool(ctx.getDatabasePath(DATABASE_NAME).getPath(), profile.getReadPoolSize(), profile);
             } catch (Exception ex)
             {
-                Log.warning(TAG, "insert LinkedHashMap: string concat", ex);
+                Log.warning(TAG, "setProfile: read pool failed", profile.toMap(), ex);
             }
         }
 
-        keys   = keys.substring(0, keys.length() - 1);
-        values = values.substring(0, values.length() - 1);
-        sql += "(" + keys + ") VALUES (" + values + ");";
-
-
-        try
-        {
-
-            mDatabase = getWritableDatabase();
-            mDatabase.beginTransaction();
-            SQLiteStatement stmt = mDatabase.compileStatement(sql);
-
-            int i = 1;
-            for (Map.Entry<String, String> entry : aData.entrySet())
-            {
-                try
-                {
-
-
-                    String tmp = entry.getValue();
-
-                    tmp = tmp.trim();
+        Log.debug(TAG, "setProfile", profile.toMap());
+    }
 
+    private void reopenPersistent()
+    {
+        DatabaseWriteQueue     queue = mWriteQueue;
+        DatabaseStatementCache cache = mStatementCache;
+        int                    size  = (cache != null) ? cache.getMaxSize() : DEFAULT_STATEMENT_CACHE_SIZE;
 
-                    stmt.bindString(i++, tmp);
-                } catch (Exception ex)
-                {
-                    Log.warning(TAG, "insert LinkedHashMap: statement binding", ex);
-                }
-            }
+        closePersistent();
+        openPersistent(size);
 
-            stmt.executeInsert();
-            stmt.clearBindings();
+        if (queue != null)
+            startWriteBehind(queue);
+    }
 
-            mDatabase.setTransactionSuccessful();
-            mDatabase.endTransaction();
+    public DatabaseProfile getProfile()
+    {
+        return mProfile;
+    }
 
-            mDatabase.close();
-        } catch (SQLiteException ex)
-        {
-            HashMap<String, String> extras = new HashMap<>();
-            extras.put("query", sql);
-            Log.warning(TAG, "insert LinkedHashMap: failed", extras, ex);
-        }
+    public LinkedHashMap<String, String> getReadPoolMetrics()
+    {
+        DatabaseReadPool pool = mReadPool;
+        return (pool != null) ? pool.getMetrics() : new LinkedHashMap<String, String>();
     }
 
-    public void insert(JSONObject aData)
+    private void closeReadPool()
     {
-        String sql    = "";
-        String keys   = "";
-        String values = "";
+        DatabaseReadPool pool = mReadPool;
+        if (pool == null)
+            return;
 
-        sql += "INSERT INTO " + TABLE_NAME + " ";
+        mReadPool = null;
+        pool.close();
+    }
 
-        for (Iterator<String> iter = aData.keys(); iter.hasNext(); )
+    private SQLiteDatabase acquireReader(DatabaseReadPool pool)
+    {
+        if (pool != null)
         {
-            keys += iter.next() + ",";
-            values += "?,";
+            SQLiteDatabase db = pool.acquire();
+            if (db != null)
+                return db;
         }
 
-        keys   = keys.substring(0, keys.length() - 1);
-        values = values.substring(0, values.length() - 1);
-        sql += "(" + keys + ") VALUES (" + values + ");";
-
+        mDatabase = this.getReadableDatabase();
+        return mDatabase;
+    }
 
-        try
+    private void releaseReader(DatabaseReadPool pool, SQLiteDatabase db)
+    {
+        if (pool != null && db != mDatabase)
         {
-            mDatabase = getWritableDatabase();
-            mDatabase.beginTransaction();
-            SQLiteStatement stmt = mDatabase.compileStatement(sql);
-
-            int i = 1;
-            for (Iterator<String> iter = aData.keys(); iter.hasNext(); )
-            {
-                try
-                {
-                    String key = iter.next();
+            pool.release(db);
+            return;
+        }
 
+        releaseDatabase();
+    }
 
-                    String tmp = aData.getString(key);
+    public boolean isPersistent()
+    {
+        return mPersistent;
+    }
 
-                    tmp = tmp.trim();
+    public long getStatementCacheHits()
+    {
+        DatabaseStatementCache cache = mStatementCache;
+        return (cache != null) ? cache.getHits() : 0;
+    }
 
+    public long getStatementCacheMisses()
+    {
+        DatabaseStatementCache cache = mStatementCache;
+        return (cache != null) ? cache.getMisses() : 0;
+    }
 
-                    stmt.bindString(i++, tmp);
-                } catch (Exception ex)
-                {
-                    Log.warning(TAG, "insert JSONObject: statement binding", ex);
-                }
-            }
+    public double getStatementCacheHitRate()
+    {
+        DatabaseStatementCache cache = mStatementCache;
+        return (cache != null) ? cache.getHitRate() : 0;
+    }
 
-            stmt.executeInsert();
-            stmt.clearBindings();
+    public LinkedHashMap<String, String> getStatementCacheStatistics()
+    {
+        LinkedHashMap<String, String> statistics = new LinkedHashMap<>();
+        DatabaseStatementCache        cache      = mStatementCache;
 
-            mDatabase.setTransactionSuccessful();
-            mDatabase.endTransaction();
+        statistics.put("persistent", Boolean.toString(mPersistent));
+        statistics.put("size", Integer.toString((cache != null) ? cache.size() : 0));
+        statistics.put("hits", Long.toString(getStatementCacheHits()));
+        statistics.put("misses", Long.toString(getStatementCacheMisses()));
+        statistics.put("hitRate", Double.toString(getStatementCacheHitRate()));
 
-            mDatabase.close();
-        } catch (SQLiteException ex)
-        {
-            HashMap<String, String> extras = new HashMap<>();
-            extras.put("query", sql);
-            Log.warning(TAG, "insert JSONObject: failed", extras, ex);
-        }
+        return statistics;
     }
 
     public int update(ContentValues cValues, int nId)
+    {
+        return update(cValues, "id=?", new Object[]{nId});
+    }
+
+    public int update(ContentValues cValues, String sWhere)
     {
         int retCode = 0;
 
@@ -450,71 +1263,209 @@ public class Database extends SQLiteOpenHelper
 
             if (mDatabase != null)
             {
-                retCode = mDatabase.update(TABLE_NAME, cValues, "id=" + nId, null);
+                retCode = mDatabase.update(TABLE_NAME, cValues, sWhere, null);
 
-                mDatabase.close();
+                releaseDatabase();
             }
         } catch (SQLiteException ex)
         {
             HashMap<String, String> extras = new HashMap<>();
             extras.put("tableName", TABLE_NAME);
             extras.put("values", cValues.toString());
-            extras.put("where", "id=" + nId);
+            extras.put("where", sWhere);
             com.zafaco.moduleCommon.Log.warning(TAG, "update: failed", extras, ex);
         }
 
         return retCode;
     }
 
-    public int update(ContentValues cValues, String sWhere)
+    public int update(ContentValues cValues, String sWhere, Object[] whereArgs)
     {
         int retCode = 0;
 
-        try
+        StringBuilder sql  = new StringBuilder("UPDATE ").append(TABLE_NAME).append(" SET ");
+        Object[]      args = new Object[cValues.size() + ((whereArgs != null) ? whereArgs.length : 0)];
+
+        int i = 0;
+        for (Map.Entry<String, Object> entry : cValues.valueSet())
         {
-            mDatabase = this.getWritableDatabase();
+            sql.append((i == 0) ? "" : ",").append(entry.getKey()).append("=?");
+            args[i++] = entry.getValue();
+        }
 
-            if (mDatabase != null)
-            {
-                retCode = mDatabase.update(TABLE_NAME, cValues, sWhere, null);
+        if (whereArgs != null)
+            System.arraycopy(whereArgs, 0, args, i, whereArgs.length);
 
-                mDatabase.close();
-            }
+        if (sWhere != null && !sWhere.isEmpty())
+            sql.append(" WHERE ").append(sWhere);
+
+        try
+        {
+            retCode = executeUpdateDelete(sql.toString(), args);
         } catch (SQLiteException ex)
         {
             HashMap<String, String> extras = new HashMap<>();
             extras.put("tableName", TABLE_NAME);
             extras.put("values", cValues.toString());
             extras.put("where", sWhere);
-            com.zafaco.moduleCommon.Log.warning(TAG, "update: failed", extras, ex);
+            Log.warning(TAG, "update: failed", extras, ex);
         }
 
         return retCode;
     }
 
-    public int deleteID(String column, String value)
+    public int delete(String sWhere, Object[] whereArgs)
     {
         int retCode = 0;
 
+        String sql = "DELETE FROM " + TABLE_NAME + ((sWhere != null && !sWhere.isEmpty()) ? " WHERE " + sWhere : "");
+
         try
         {
-            mDatabase = this.getWritableDatabase();
+            retCode = executeUpdateDelete(sql, whereArgs);
+        } catch (SQLiteException ex)
+        {
+            HashMap<String, String> extras = new HashMap<>();
+            extras.put("tableName", TABLE_NAME);
+            extras.put("where", sWhere);
+            Log.warning(TAG, "delete: failed", extras, ex);
+        }
+
+        return retCode;
+    }
+
+    public int deleteID(String column, String value)
+    {
+        if (value == null || value.equals("0") || value.equals(""))
+            return 0;
+
+        return delete(column + "=?", new Object[]{value});
+    }
+
+    public int markSent(long[] ids)
+    {
+        return markSent("sent", "true", ids);
+    }
+
+    public int markSent(String column, String value, long[] ids)
+    {
+        if (ids == null || ids.length == 0)
+            return 0;
+
+        int updated = 0;
 
-            if (mDatabase != null && !value.equals("0") && !value.equals(""))
+        try
+        {
+            mDatabase = getWritableDatabase();
+            mDatabase.beginTransaction();
+            try
             {
-                String[] args = {value};
-                retCode = mDatabase.delete(TABLE_NAME, column + "=?", args);
+                for (int offset = 0; offset < ids.length; offset += MAX_BIND_ARGS)
+                {
+                    int count = Math.min(MAX_BIND_ARGS, ids.length - offset);
+
+                    StringBuilder sql = new StringBuilder("UPDATE ").append(TABLE_NAME).append(" SET ").append(column).append("=? WHERE id IN (");
+                    for (int i = 0; i < count; i++)
+                    {
+                        sql.append((i == 0) ? "?" : ",?");
+                    }
+                    sql.append(")");
+
+                    DatabaseStatementCache.Lease lease = acquireStatement("MARK|" + TABLE_NAME + "|" + column, sql.toString(), count == MAX_BIND_ARGS);
+                    try
+                    {
+                        SQLiteStatement stmt = lease.getStatement();
+                        synchronized (stmt)
+                        {
+                            stmt.bindString(1, value);
+                            for (int i = 0; i < count; i++)
+                            {
+                                stmt.bindLong(i + 2, ids[offset + i]);
+                            }
+
+                            updated += stmt.executeUpdateDelete();
+                            stmt.clearBindings();
+                        }
+                    } finally
+                    {
+                        lease.release();
+                    }
+                }
 
-                mDatabase.close();
+                mDatabase.setTransactionSuccessful();
+            } finally
+            {
+                mDatabase.endTransaction();
             }
+
+            releaseDatabase();
         } catch (SQLiteException ex)
         {
-            Log.warning(TAG, "deleteID: failed", ex);
+            HashMap<String, String> extras = new HashMap<>();
+            extras.put("tableName", TABLE_NAME);
+            extras.put("column", column);
+            extras.put("ids", Integer.toString(ids.length));
+            Log.warning(TAG, "markSent: failed", extras, ex);
+            return 0;
         }
 
-        return retCode;
+        return updated;
+    }
+
+    private int executeUpdateDelete(String sql, Object[] args)
+    {
+        mDatabase = getWritableDatabase();
+
+        DatabaseStatementCache.Lease lease = acquireStatement(null, sql, false);
+        SQLiteStatement              stmt  = lease.getStatement();
+
+        int count;
+        try
+        {
+            synchronized (stmt)
+            {
+                try
+                {
+                    bindArgs(stmt, args);
+                    count = stmt.executeUpdateDelete();
+                } finally
+                {
+                    stmt.clearBindings();
+                }
+            }
+        } finally
+        {
+            lease.release();
+        }
+
+        releaseDatabase();
+
+        return count;
     }
 
+    private static void bindArgs(SQLiteStatement stmt, Object[] args)
+    {
+        if (args == null)
+            return;
+
+        for (int i = 0; i < args.length; i++)
+        {
+            Object arg = args[i];
+
+            if (arg == null)
+                stmt.bindNull(i + 1);
+            else if (arg instanceof Long || arg instanceof Integer || arg instanceof Short || arg instanceof Byte)
+                stmt.bindLong(i + 1, ((Number) arg).longValue());
+            else if (arg instanceof Double || arg instanceof Float)
+                stmt.bindDouble(i + 1, ((Number) arg).doubleValue());
+            else if (arg instanceof Boolean)
+                stmt.bindLong(i + 1, ((Boolean) arg) ? 1 : 0);
+            else if (arg instanceof byte[])
+                stmt.bindBlob(i + 1, (byte[]) arg);
+            else
+                stmt.bindString(i + 1, arg.toString());
+        }
+    }
 
     public LinkedHashMap<String, String> selectColumns()
     {
@@ -535,7 +1486,7 @@ public class Database extends SQLiteOpenHelper
             }
             dbCursor.close();
 
-            mDatabase.close();
+            releaseDatabase();
         } catch (SQLiteException ex)
         {
             HashMap<String, String> extras = new HashMap<>();
@@ -549,38 +1500,18 @@ public class Database extends SQLiteOpenHelper
 
     public ArrayList<LinkedHashMap<String, String>> select(String where, String order, int asc)
     {
-        ArrayList<LinkedHashMap<String, String>> rows  = new ArrayList<>();
-        String                                   query = "SELECT * FROM " + TABLE_NAME + " WHERE " + where + " ORDER BY " + order + " " + ((asc == 0) ? "ASC" : "DESC");
+        final ArrayList<LinkedHashMap<String, String>> rows  = new ArrayList<>();
+        String                                         query = "SELECT * FROM " + TABLE_NAME + " WHERE " + where + " ORDER BY " + order + " " + ((asc == 0) ? "ASC" : "DESC");
 
-        try
+        visitQuery("select", query, null, new DatabaseRowVisitor()
         {
-
-
-            mDatabase = this.getReadableDatabase();
-
-            Cursor result = mDatabase.rawQuery(query, null);
-
-            while (result.moveToNext())
+            @Override
+            public boolean onRow(DatabaseRow row)
             {
-                LinkedHashMap<String, String> columns = new LinkedHashMap<>();
-
-                for (int i = 0; i < result.getColumnCount(); i++)
-                {
-
-                    columns.put(result.getColumnName(i), result.getString(i));
-                }
-                rows.add(columns);
+                rows.add(row.toMap());
+                return true;
             }
-
-            result.close();
-
-            mDatabase.close();
-        } catch (Exception ex)
-        {
-            HashMap<String, String> extras = new HashMap<>();
-            extras.put("query", query);
-            Log.warning(TAG, "select: failed", extras, ex);
-        }
+        });
 
         return rows;
     }
@@ -593,43 +1524,136 @@ public class Database extends SQLiteOpenHelper
 
     public ArrayList<LinkedHashMap<String, String>> selectAll(String where, String order, int asc, int limit)
     {
-        ArrayList<LinkedHashMap<String, String>> rows = new ArrayList<>();
+        final ArrayList<LinkedHashMap<String, String>> rows = new ArrayList<>();
 
         String query = "SELECT * FROM " + TABLE_NAME + " WHERE " + where + " ORDER BY " + order + " " + ((asc == 0) ? "ASC" : "DESC") + " LIMIT " + ((limit == 0) ? "10000" : limit);
-        try
+        visitQuery("selectAll", query, null, new DatabaseRowVisitor()
         {
+            @Override
+            public boolean onRow(DatabaseRow row)
+            {
+                rows.add(row.toMap());
+                return true;
+            }
+        });
+
+        return rows;
+    }
 
 
-            mDatabase = this.getReadableDatabase();
+    public int forEach(String where, String order, int asc, DatabaseRowVisitor visitor)
+    {
+        return forEach(where, null, order, asc, visitor);
+    }
 
-            Cursor result = mDatabase.rawQuery(query, null);
+    public int forEach(String where, String[] whereArgs, String order, int asc, DatabaseRowVisitor visitor)
+    {
+        String query = "SELECT * FROM " + TABLE_NAME + " WHERE " + where + " ORDER BY " + order + " " + ((asc == 0) ? "ASC" : "DESC");
 
-            while (result.moveToNext())
+        return visitQuery("forEach", query, whereArgs, visitor);
+    }
+
+    public long forEachPage(long afterId, int limit, String where, String[] whereArgs, final DatabaseRowVisitor visitor)
+    {
+        String query = "SELECT * FROM " + TABLE_NAME + " WHERE id > ? AND (" + ((where == null || where.isEmpty()) ? "1" : where) + ") ORDER BY id ASC LIMIT " + Math.max(1, limit);
+
+        String[] args = new String[1 + ((whereArgs != null) ? whereArgs.length : 0)];
+        args[0] = Long.toString(afterId);
+        if (whereArgs != null)
+            System.arraycopy(whereArgs, 0, args, 1, whereArgs.length);
+
+        final long[] lastId = {afterId};
+
+        visitQuery("forEachPage", query, args, new DatabaseRowVisitor()
+        {
+            @Override
+            public boolean onRow(DatabaseRow row)
             {
-                LinkedHashMap<String, String> columns = new LinkedHashMap<>();
+                lastId[0] = row.getLong("id", lastId[0]);
+                return visitor.onRow(row);
+            }
+        });
 
-                for (int i = 0; i < result.getColumnCount(); i++)
-                {
+        return lastId[0];
+    }
+
+    public int forEachKeyset(String where, String[] whereArgs, int pageSize, final DatabaseRowVisitor visitor)
+    {
+        final int[]     count   = {0};
+        final boolean[] stopped = {false};
+
+        long lastId = 0;
+        while (!stopped[0])
+        {
+            final int[] pageCount = {0};
 
-                    columns.put(result.getColumnName(i), result.getString(i));
+            long nextId = forEachPage(lastId, pageSize, where, whereArgs, new DatabaseRowVisitor()
+            {
+                @Override
+                public boolean onRow(DatabaseRow row)
+                {
+                    pageCount[0]++;
+                    count[0]++;
+
+                    if (!visitor.onRow(row))
+                    {
+                        stopped[0] = true;
+                        return false;
+                    }
+                    return true;
                 }
-                rows.add(columns);
-            }
+            });
 
-            result.close();
+            if (nextId == lastId || pageCount[0] < pageSize)
+                break;
+
+            lastId = nextId;
+        }
+
+        return count[0];
+    }
+
+    private int visitQuery(String method, String query, String[] args, DatabaseRowVisitor visitor)
+    {
+        int count = 0;
+
+        try
+        {
+            diagnoseQuery(query);
 
-            mDatabase.close();
+            DatabaseReadPool pool = mReadPool;
+            SQLiteDatabase   db   = acquireReader(pool);
+            try
+            {
+                Cursor result = db.rawQuery(query, args);
+                try
+                {
+                    DatabaseRow row = new DatabaseRow(result);
+                    while (result.moveToNext())
+                    {
+                        count++;
+
+                        if (!visitor.onRow(row))
+                            break;
+                    }
+                } finally
+                {
+                    result.close();
+                }
+            } finally
+            {
+                releaseReader(pool, db);
+            }
         } catch (Exception ex)
         {
             HashMap<String, String> extras = new HashMap<>();
             extras.put("query", query);
-            Log.warning(TAG, "selectAll: failed", extras, ex);
+            Log.warning(TAG, method + ": failed", extras, ex);
         }
 
-        return rows;
+        return count;
     }
 
-
     public Cursor selectAllCursor(String order, int asc)
     {
         String query = "SELECT *,id as _id FROM " + TABLE_NAME + " WHERE 1 ORDER BY " + order + " " + ((asc == 0) ? "ASC" : "DESC");
@@ -637,6 +1661,8 @@ public class Database extends SQLiteOpenHelper
 
         mDatabase = this.getWritableDatabase();
 
+        diagnoseQuery(query);
+
         Cursor cDatabaseCursor = mDatabase.rawQuery(query, null);
 
         return cDatabaseCursor;
@@ -652,6 +1678,8 @@ public class Database extends SQLiteOpenHelper
         {
             mDatabase = this.getWritableDatabase();
 
+            diagnoseQuery(query);
+
             Cursor cDatabaseCursor = mDatabase.rawQuery(query, null);
 
             return cDatabaseCursor;
@@ -680,7 +1708,7 @@ public class Database extends SQLiteOpenHelper
 
             result.close();
 
-            mDatabase.close();
+            releaseDatabase();
         } catch (Exception ex)
         {
             HashMap<String, String> extras = new HashMap<>();
@@ -703,6 +1731,8 @@ public class Database extends SQLiteOpenHelper
 
             mDatabase = getWritableDatabase();
 
+            diagnoseQuery(query);
+
             Cursor result = mDatabase.rawQuery(query, null);
 
             result.moveToFirst();
@@ -711,7 +1741,7 @@ public class Database extends SQLiteOpenHelper
 
             result.close();
 
-            mDatabase.close();
+            releaseDatabase();
         } catch (Exception ex)
         {
             HashMap<String, String> extras = new HashMap<>();
@@ -730,16 +1760,10 @@ public class Database extends SQLiteOpenHelper
 
         try
         {
+            DatabaseRow row = new DatabaseRow(cCursor);
             while (cCursor.moveToNext())
             {
-                LinkedHashMap<String, String> columns = new LinkedHashMap<>();
-
-                for (int i = 0; i < cCursor.getColumnCount(); i++)
-                {
-
-                    columns.put(cCursor.getColumnName(i), cCursor.getString(i));
-                }
-                rows.add(columns);
+                rows.add(row.toMap());
             }
 
             cCursor.close();
@@ -763,6 +1787,7 @@ public class Database extends SQLiteOpenHelper
         try
         {
             mDatabase       = this.getWritableDatabase();
+            diagnoseQuery(query);
             cDatabaseCursor = mDatabase.rawQuery(query, null);
         } catch (Exception ex)
         {
@@ -776,6 +1801,15 @@ public class Database extends SQLiteOpenHelper
 
     public void close()
     {
-        mDatabase.close();
+        stopWriteBehind();
+        closeReadPool();
+
+        if (mPersistent)
+        {
+            closePersistent();
+            return;
+        }
+
+        releaseDatabase();
     }
 }
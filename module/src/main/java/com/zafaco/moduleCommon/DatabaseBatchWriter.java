@@ -0,0 +1,139 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class DatabaseBatchWriter implements Closeable
+{
+    private static final String TAG = "DatabaseBatchWriter";
+
+    public static final int  DEFAULT_MAX_ROWS  = 500;
+    public static final long DEFAULT_MAX_BYTES = 256 * 1024;
+
+    private final Database database;
+    private final int      maxRows;
+    private final long     maxBytes;
+
+    private ArrayList<LinkedHashMap<String, String>> pending;
+    private long                                     pendingBytes = 0;
+
+    private long rowsWritten = 0;
+    private long flushes     = 0;
+    private long flushTimeNs = 0;
+
+    public DatabaseBatchWriter(Database database)
+    {
+        this(database, DEFAULT_MAX_ROWS, DEFAULT_MAX_BYTES);
+    }
+
+    public DatabaseBatchWriter(Database database, int maxRows, long maxBytes)
+    {
+        this.database = database;
+        this.maxRows  = Math.max(1, maxRows);
+        this.maxBytes = Math.max(1, maxBytes);
+
+        pending = new ArrayList<>(this.maxRows);
+    }
+
+    public synchronized void add(LinkedHashMap<String, String> row)
+    {
+        if (row == null || row.isEmpty())
+            return;
+
+        pending.add(row);
+        pendingBytes += estimateBytes(row);
+
+        if (pending.size() >= maxRows || pendingBytes >= maxBytes)
+            flush();
+    }
+
+    public synchronized int flush()
+    {
+        if (pending.isEmpty())
+            return 0;
+
+        ArrayList<LinkedHashMap<String, String>> rows = pending;
+
+        pending      = new ArrayList<>(maxRows);
+        pendingBytes = 0;
+
+        long start    = System.nanoTime();
+        int  inserted = database.insertAll(rows);
+
+        flushTimeNs += System.nanoTime() - start;
+        rowsWritten += inserted;
+        flushes++;
+
+        if (inserted != rows.size())
+            Log.warning(TAG, "flush: inserted " + inserted + " of " + rows.size() + " rows");
+
+        return inserted;
+    }
+
+    public synchronized int getPendingRows()
+    {
+        return pending.size();
+    }
+
+    public synchronized long getPendingBytes()
+    {
+        return pendingBytes;
+    }
+
+    public synchronized long getRowsWritten()
+    {
+        return rowsWritten;
+    }
+
+    public synchronized long getFlushes()
+    {
+        return flushes;
+    }
+
+    public synchronized double getRowsPerSecond()
+    {
+        if (flushTimeNs == 0)
+            return 0;
+
+        return rowsWritten * 1e9 / flushTimeNs;
+    }
+
+    @Override
+    public void close()
+    {
+        flush();
+    }
+
+    private static long estimateBytes(LinkedHashMap<String, String> row)
+    {
+        long bytes = 0;
+
+        for (Map.Entry<String, String> entry : row.entrySet())
+        {
+            bytes += entry.getKey().length();
+
+            if (entry.getValue() != null)
+                bytes += entry.getValue().length();
+        }
+
+        return bytes;
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.zafaco.moduleCommon.interfaces.DatabaseCopyListener;
+
+import java.util.ArrayList;
+
+class DatabaseCopyEngine
+{
+    private static final String TAG = "DatabaseCopyEngine";
+
+    static final String PROGRESS_TABLE = "copy_progress";
+
+    private final SQLiteDatabase       target;
+    private final String               sourcePath;
+    private final String               fromTable;
+    private final String               toTable;
+    private final int                  chunkSize;
+    private final DatabaseCopyListener listener;
+
+    private final String key;
+
+    DatabaseCopyEngine(SQLiteDatabase target, String sourcePath, String fromTable, String toTable, int chunkSize, DatabaseCopyListener listener)
+    {
+        this.target     = target;
+        this.sourcePath = sourcePath;
+        this.fromTable  = fromTable;
+        this.toTable    = toTable;
+        this.chunkSize  = Math.max(1, chunkSize);
+        this.listener   = listener;
+
+        key = sourcePath + "|" + fromTable + "|" + toTable;
+    }
+
+    long run(boolean resume)
+    {
+        target.execSQL("CREATE TABLE IF NOT EXISTS " + PROGRESS_TABLE + " (copy_key TEXT PRIMARY KEY, last_id INTEGER, rows INTEGER)");
+
+        if (!resume)
+            resetProgress();
+
+        long lastId = readCheckpoint();
+        long copied = 0;
+        long start  = System.nanoTime();
+
+        SQLiteDatabase  source = SQLiteDatabase.openDatabase(sourcePath, null, SQLiteDatabase.OPEN_READONLY);
+        SQLiteStatement insert = null;
+        SQLiteStatement update = null;
+        try
+        {
+            ArrayList<String> columns = tableColumns(source, fromTable);
+            columns.retainAll(tableColumns(target, toTable));
+
+            if (!columns.contains("id"))
+            {
+                Log.warning(TAG, "run: no id column in " + fromTable + " or " + toTable);
+                return -1;
+            }
+
+            StringBuilder columnList   = new StringBuilder();
+            StringBuilder placeholders = new StringBuilder();
+            for (String column : columns)
+            {
+                columnList.append((columnList.length() == 0) ? "" : ",").append(column);
+                placeholders.append((placeholders.length() == 0) ? "?" : ",?");
+            }
+
+            long total = countRemaining(source, lastId);
+
+            insert = target.compileStatement("INSERT INTO " + toTable + " (" + columnList + ") VALUES (" + placeholders + ")");
+            update = target.compileStatement("INSERT OR REPLACE INTO " + PROGRESS_TABLE + " (copy_key, last_id, rows) VALUES (?, ?, COALESCE((SELECT rows FROM " + PROGRESS_TABLE + " WHERE copy_key = ?), 0) + ?)");
+
+            String select  = "SELECT " + columnList + " FROM " + fromTable + " WHERE id > ? ORDER BY id ASC LIMIT " + chunkSize;
+            int    idIndex = columns.indexOf("id");
+
+            while (true)
+            {
+                Cursor chunk = source.rawQuery(select, new String[]{Long.toString(lastId)});
+
+                int  rows    = 0;
+                long chunkId = lastId;
+
+                target.beginTransaction();
+                try
+                {
+                    while (chunk.moveToNext())
+                    {
+                        bindRow(insert, chunk);
+                        insert.executeInsert();
+                        insert.clearBindings();
+
+                        chunkId = chunk.getLong(idIndex);
+                        rows++;
+                    }
+
+                    if (rows > 0)
+                    {
+                        update.bindString(1, key);
+                        update.bindLong(2, chunkId);
+                        update.bindString(3, key);
+                        update.bindLong(4, rows);
+                        update.executeInsert();
+                        update.clearBindings();
+                    }
+
+                    target.setTransactionSuccessful();
+                } finally
+                {
+                    target.endTransaction();
+                    chunk.close();
+                }
+
+                if (rows == 0)
+                    break;
+
+                lastId = chunkId;
+                copied += rows;
+
+                if (listener != null)
+                {
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    listener.onProgress(copied, total, (seconds > 0) ? copied / seconds : 0);
+                }
+
+                if (rows < chunkSize)
+                    break;
+            }
+
+            clearProgress();
+        } finally
+        {
+            if (insert != null)
+                insert.close();
+            if (update != null)
+                update.close();
+            source.close();
+        }
+
+        return copied;
+    }
+
+    void resetProgress()
+    {
+        target.execSQL("CREATE TABLE IF NOT EXISTS " + PROGRESS_TABLE + " (copy_key TEXT PRIMARY KEY, last_id INTEGER, rows INTEGER)");
+        target.delete(PROGRESS_TABLE, "copy_key = ?", new String[]{key});
+    }
+
+    private void clearProgress()
+    {
+        target.delete(PROGRESS_TABLE, "copy_key = ?", new String[]{key});
+
+        Cursor result = target.rawQuery("SELECT 1 FROM " + PROGRESS_TABLE + " LIMIT 1", null);
+        boolean pending = result.moveToFirst();
+        result.close();
+
+        if (!pending)
+            target.execSQL("DROP TABLE IF EXISTS " + PROGRESS_TABLE);
+    }
+
+    private long readCheckpoint()
+    {
+        long lastId = 0;
+
+        Cursor result = target.rawQuery("SELECT last_id FROM " + PROGRESS_TABLE + " WHERE copy_key = ?", new String[]{key});
+        if (result.moveToFirst())
+            lastId = result.getLong(0);
+        result.close();
+
+        return lastId;
+    }
+
+    private long countRemaining(SQLiteDatabase source, long lastId)
+    {
+        long count = 0;
+
+        Cursor result = source.rawQuery("SELECT COUNT(1) FROM " + fromTable + " WHERE id > ?", new String[]{Long.toString(lastId)});
+        if (result.moveToFirst())
+            count = result.getLong(0);
+        result.close();
+
+        return count;
+    }
+
+    private static ArrayList<String> tableColumns(SQLiteDatabase db, String table)
+    {
+        ArrayList<String> columns = new ArrayList<>();
+
+        Cursor result = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        while (result.moveToNext())
+        {
+            columns.add(result.getString(1));
+        }
+        result.close();
+
+        return columns;
+    }
+
+    private static void bindRow(SQLiteStatement stmt, Cursor row)
+    {
+        for (int i = 0; i < row.getColumnCount(); i++)
+        {
+            switch (row.getType(i))
+            {
+                case Cursor.FIELD_TYPE_NULL:
+                    stmt.bindNull(i + 1);
+                    break;
+                case Cursor.FIELD_TYPE_INTEGER:
+                    stmt.bindLong(i + 1, row.getLong(i));
+                    break;
+                case Cursor.FIELD_TYPE_FLOAT:
+                    stmt.bindDouble(i + 1, row.getDouble(i));
+                    break;
+                case Cursor.FIELD_TYPE_BLOB:
+                    stmt.bindBlob(i + 1, row.getBlob(i));
+                    break;
+                default:
+                    stmt.bindString(i + 1, row.getString(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.LinkedHashMap;
+
+public class DatabaseProfile
+{
+    private static final String TAG = "DatabaseProfile";
+
+    private boolean walEnabled   = true;
+    private String  synchronous  = "NORMAL";
+    private int     cacheSizeKb  = 2048;
+    private long    mmapSize     = 0;
+    private String  tempStore    = "MEMORY";
+    private int     readPoolSize = 0;
+
+    public DatabaseProfile()
+    {
+    }
+
+    public static DatabaseProfile defaults()
+    {
+        return new DatabaseProfile().setWalEnabled(false).setSynchronous("FULL").setCacheSizeKb(0).setTempStore("DEFAULT").setReadPoolSize(0);
+    }
+
+    public static DatabaseProfile measurement()
+    {
+        return new DatabaseProfile();
+    }
+
+    public boolean isWalEnabled()
+    {
+        return walEnabled;
+    }
+
+    public DatabaseProfile setWalEnabled(boolean walEnabled)
+    {
+        this.walEnabled = walEnabled;
+        return this;
+    }
+
+    public String getSynchronous()
+    {
+        return synchronous;
+    }
+
+    public DatabaseProfile setSynchronous(String synchronous)
+    {
+        this.synchronous = synchronous;
+        return this;
+    }
+
+    public int getCacheSizeKb()
+    {
+        return cacheSizeKb;
+    }
+
+    public DatabaseProfile setCacheSizeKb(int cacheSizeKb)
+    {
+        this.cacheSizeKb = cacheSizeKb;
+        return this;
+    }
+
+    public long getMmapSize()
+    {
+        return mmapSize;
+    }
+
+    public DatabaseProfile setMmapSize(long mmapSize)
+    {
+        this.mmapSize = mmapSize;
+        return this;
+    }
+
+    public String getTempStore()
+    {
+        return tempStore;
+    }
+
+    public DatabaseProfile setTempStore(String tempStore)
+    {
+        this.tempStore = tempStore;
+        return this;
+    }
+
+    public int getReadPoolSize()
+    {
+        return readPoolSize;
+    }
+
+    public DatabaseProfile setReadPoolSize(int readPoolSize)
+    {
+        this.readPoolSize = Math.max(0, readPoolSize);
+        return this;
+    }
+
+    void apply(SQLiteDatabase db, boolean readOnly)
+    {
+        if (!readOnly && synchronous != null)
+            pragma(db, "synchronous=" + synchronous);
+        if (cacheSizeKb > 0)
+            pragma(db, "cache_size=-" + cacheSizeKb);
+        if (mmapSize > 0)
+            pragma(db, "mmap_size=" + mmapSize);
+        if (tempStore != null)
+            pragma(db, "temp_store=" + tempStore);
+    }
+
+    static void pragma(SQLiteDatabase db, String pragma)
+    {
+        try
+        {
+            Cursor result = db.rawQuery("PRAGMA " + pragma, null);
+            result.moveToFirst();
+            result.close();
+        } catch (Exception ex)
+        {
+            Log.warning(TAG, "pragma: failed " + pragma, ex);
+        }
+    }
+
+    public LinkedHashMap<String, String> toMap()
+    {
+        LinkedHashMap<String, String> profile = new LinkedHashMap<>();
+
+        profile.put("walEnabled", Boolean.toString(walEnabled));
+        profile.put("synchronous", synchronous);
+        profile.put("cacheSizeKb", Integer.toString(cacheSizeKb));
+        profile.put("mmapSize", Long.toString(mmapSize));
+        profile.put("tempStore", tempStore);
+        profile.put("readPoolSize", Integer.toString(readPoolSize));
+
+        return profile;
+    }
+}
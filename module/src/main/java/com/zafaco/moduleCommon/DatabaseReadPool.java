@@ -0,0 +1,158 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class DatabaseReadPool
+{
+    private static final String TAG = "DatabaseReadPool";
+
+    public static final long DEFAULT_ACQUIRE_TIMEOUT_MS = 2000;
+
+    private final ArrayBlockingQueue<SQLiteDatabase> idle;
+    private final ArrayList<SQLiteDatabase>          connections = new ArrayList<>();
+    private final long                               acquireTimeoutMs;
+
+    private volatile boolean closed = false;
+
+    private long acquisitions = 0;
+    private long timeouts     = 0;
+    private long totalWaitNs  = 0;
+    private long maxWaitNs    = 0;
+
+    DatabaseReadPool(String path, int size, DatabaseProfile profile)
+    {
+        this(path, size, profile, DEFAULT_ACQUIRE_TIMEOUT_MS);
+    }
+
+    DatabaseReadPool(String path, int size, DatabaseProfile profile, long acquireTimeoutMs)
+    {
+        this.idle             = new ArrayBlockingQueue<>(Math.max(1, size));
+        this.acquireTimeoutMs = Math.max(0, acquireTimeoutMs);
+
+        for (int i = 0; i < Math.max(1, size); i++)
+        {
+            SQLiteDatabase db = SQLiteDatabase.openDatabase(path, null, SQLiteDatabase.OPEN_READONLY | SQLiteDatabase.NO_LOCALIZED_COLLATORS);
+
+            if (profile != null)
+                profile.apply(db, true);
+
+            connections.add(db);
+            idle.add(db);
+        }
+    }
+
+    SQLiteDatabase acquire()
+    {
+        if (closed)
+            return null;
+
+        long start = System.nanoTime();
+
+        SQLiteDatabase db;
+        try
+        {
+            db = idle.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        long wait = System.nanoTime() - start;
+        synchronized (this)
+        {
+            if (db == null)
+            {
+                timeouts++;
+                return null;
+            }
+
+            if (closed)
+            {
+                closeConnection(db);
+                return null;
+            }
+
+            acquisitions++;
+            totalWaitNs += wait;
+            if (wait > maxWaitNs)
+                maxWaitNs = wait;
+        }
+
+        return db;
+    }
+
+    synchronized void release(SQLiteDatabase db)
+    {
+        if (db == null)
+            return;
+
+        if (closed)
+            closeConnection(db);
+        else
+            idle.offer(db);
+    }
+
+    synchronized void close()
+    {
+        if (closed)
+            return;
+
+        closed = true;
+
+        SQLiteDatabase db;
+        while ((db = idle.poll()) != null)
+        {
+            closeConnection(db);
+        }
+    }
+
+    private void closeConnection(SQLiteDatabase db)
+    {
+        connections.remove(db);
+
+        try
+        {
+            db.close();
+        } catch (Exception ex)
+        {
+            Log.warning(TAG, "closeConnection: failed", ex);
+        }
+    }
+
+    synchronized LinkedHashMap<String, String> getMetrics()
+    {
+        LinkedHashMap<String, String> metrics = new LinkedHashMap<>();
+
+        metrics.put("size", Integer.toString(connections.size()));
+        metrics.put("idle", Integer.toString(idle.size()));
+        metrics.put("closed", Boolean.toString(closed));
+        metrics.put("acquisitions", Long.toString(acquisitions));
+        metrics.put("timeouts", Long.toString(timeouts));
+        metrics.put("avgWaitMs", Double.toString((acquisitions == 0) ? 0 : totalWaitNs / 1e6 / acquisitions));
+        metrics.put("maxWaitMs", Double.toString(maxWaitNs / 1e6));
+
+        return metrics;
+    }
+}
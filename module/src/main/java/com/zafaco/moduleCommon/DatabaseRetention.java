@@ -0,0 +1,242 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+class DatabaseRetention
+{
+    private static final String TAG = "DatabaseRetention";
+
+    private final SQLiteDatabase db;
+    private final String         table;
+
+    DatabaseRetention(SQLiteDatabase db, String table)
+    {
+        this.db    = db;
+        this.table = table;
+    }
+
+    long enforce(DatabaseRetentionPolicy policy)
+    {
+        long deleted = 0;
+
+        String   guard;
+        String[] guardArgs;
+
+        if (policy.isDeleteUnsent())
+        {
+            guard     = "1";
+            guardArgs = new String[0];
+        } else if (policy.getSentColumn() != null && hasColumn(policy.getSentColumn()))
+        {
+            guard     = policy.getSentColumn() + " = ?";
+            guardArgs = new String[]{policy.getSentValue()};
+        } else
+        {
+            Log.debug(TAG, "enforce: " + table + " has no sent column, unsent rows are kept");
+            return 0;
+        }
+
+        if (policy.getMaxAgeMs() > 0 && policy.getTimestampColumn() != null)
+        {
+            String ts     = policy.getTimestampColumn();
+            long   cutoff = System.currentTimeMillis() - policy.getMaxAgeMs();
+
+            String where = "(typeof(" + ts + ") = 'integer' OR (typeof(" + ts + ") = 'text' AND " + ts + " <> '' AND " + ts + " NOT GLOB '*[^0-9]*')) AND CAST(" + ts + " AS INTEGER) < ?";
+
+            deleted += deleteWhere(guard + " AND " + where, append(guardArgs, Long.toString(cutoff)), Long.MAX_VALUE, policy.getBatchSize());
+        }
+
+        if (policy.getMaxRows() > 0)
+        {
+            long excess = countRows() - policy.getMaxRows();
+            if (excess > 0)
+                deleted += deleteWhere(guard, guardArgs, excess, policy.getBatchSize());
+        }
+
+        if (policy.getMaxFileBytes() > 0)
+        {
+            long used = tableBytes();
+            long rows = countRows();
+
+            if (used < 0)
+            {
+                Log.debug(TAG, "enforce: size of " + table + " cannot be measured, maxFileBytes skipped");
+            } else if (used > policy.getMaxFileBytes() && rows > 0)
+            {
+                long bytesPerRow = Math.max(1, used / rows);
+                long excess      = (used - policy.getMaxFileBytes() + bytesPerRow - 1) / bytesPerRow;
+
+                deleted += deleteWhere(guard, guardArgs, Math.min(excess, rows), policy.getBatchSize());
+            }
+        }
+
+        return deleted;
+    }
+
+    private static String[] append(String[] args, String arg)
+    {
+        String[] result = new String[args.length + 1];
+        System.arraycopy(args, 0, result, 0, args.length);
+        result[args.length] = arg;
+
+        return result;
+    }
+
+    private long deleteWhere(String where, String[] args, long maxRows, int batchSize)
+    {
+        long deleted = 0;
+
+        while (deleted < maxRows)
+        {
+            long limit = Math.min(batchSize, maxRows - deleted);
+
+            SQLiteStatement stmt = db.compileStatement("DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table + " WHERE " + where + " ORDER BY id ASC LIMIT " + limit + ")");
+
+            int count;
+            db.beginTransaction();
+            try
+            {
+                if (args != null && args.length > 0)
+                    stmt.bindAllArgsAsStrings(args);
+
+                count = stmt.executeUpdateDelete();
+
+                db.setTransactionSuccessful();
+            } finally
+            {
+                db.endTransaction();
+                stmt.close();
+            }
+
+            deleted += count;
+
+            if (count < limit)
+                break;
+        }
+
+        return deleted;
+    }
+
+    boolean vacuum()
+    {
+        if (db.inTransaction())
+            return false;
+
+        if (pragmaLong("auto_vacuum") == 2)
+        {
+            Cursor result = db.rawQuery("PRAGMA incremental_vacuum", null);
+            while (result.moveToNext())
+            {
+            }
+            result.close();
+
+            Log.debug(TAG, "vacuum: incremental_vacuum on " + table);
+            return true;
+        }
+
+        if (pragmaLong("freelist_count") > 0)
+        {
+            db.execSQL("VACUUM");
+
+            Log.debug(TAG, "vacuum: VACUUM on " + table);
+            return true;
+        }
+
+        return false;
+    }
+
+    void enableIncrementalVacuum()
+    {
+        if (pragmaLong("auto_vacuum") == 2)
+            return;
+
+        DatabaseProfile.pragma(db, "auto_vacuum=INCREMENTAL");
+        db.execSQL("VACUUM");
+    }
+
+    long countRows()
+    {
+        return queryLong("SELECT COUNT(1) FROM " + table);
+    }
+
+    long usedBytes()
+    {
+        return (pragmaLong("page_count") - pragmaLong("freelist_count")) * pragmaLong("page_size");
+    }
+
+    long tableBytes()
+    {
+        try
+        {
+            Cursor result = db.rawQuery("SELECT SUM(pgsize) FROM dbstat WHERE name IN (SELECT name FROM sqlite_master WHERE tbl_name = ?)", new String[]{table});
+            try
+            {
+                if (result.moveToFirst())
+                    return result.getLong(0);
+            } finally
+            {
+                result.close();
+            }
+        } catch (Exception ex)
+        {
+            Log.debug(TAG, "tableBytes: dbstat not available");
+        }
+
+        long others = queryLong("SELECT COUNT(1) FROM sqlite_master WHERE type = 'table' AND name <> '" + table + "' AND name NOT LIKE 'sqlite_%' AND name <> 'android_metadata'");
+
+        return (others == 0) ? usedBytes() : -1;
+    }
+
+    private boolean hasColumn(String column)
+    {
+        Cursor result = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        try
+        {
+            while (result.moveToNext())
+            {
+                if (column.equalsIgnoreCase(result.getString(1)))
+                    return true;
+            }
+        } finally
+        {
+            result.close();
+        }
+
+        return false;
+    }
+
+    private long pragmaLong(String pragma)
+    {
+        return queryLong("PRAGMA " + pragma);
+    }
+
+    private long queryLong(String query)
+    {
+        long value = 0;
+
+        Cursor result = db.rawQuery(query, null);
+        if (result.moveToFirst())
+            value = result.getLong(0);
+        result.close();
+
+        return value;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import java.util.LinkedHashMap;
+
+public class DatabaseRetentionPolicy
+{
+    private long    maxRows          = 0;
+    private long    maxAgeMs         = 0;
+    private long    maxFileBytes     = 0;
+    private int     batchSize        = 500;
+    private String  timestampColumn  = "timestamp";
+    private String  sentColumn       = "sent";
+    private String  sentValue        = "true";
+    private boolean deleteUnsent     = false;
+    private long    lowStorageBytes  = 100L * 1024 * 1024;
+    private double  lowStorageFactor = 0.5;
+
+    public DatabaseRetentionPolicy()
+    {
+    }
+
+    public long getMaxRows()
+    {
+        return maxRows;
+    }
+
+    public DatabaseRetentionPolicy setMaxRows(long maxRows)
+    {
+        this.maxRows = Math.max(0, maxRows);
+        return this;
+    }
+
+    public long getMaxAgeMs()
+    {
+        return maxAgeMs;
+    }
+
+    public DatabaseRetentionPolicy setMaxAgeMs(long maxAgeMs)
+    {
+        this.maxAgeMs = Math.max(0, maxAgeMs);
+        return this;
+    }
+
+    public long getMaxFileBytes()
+    {
+        return maxFileBytes;
+    }
+
+    public DatabaseRetentionPolicy setMaxFileBytes(long maxFileBytes)
+    {
+        this.maxFileBytes = Math.max(0, maxFileBytes);
+        return this;
+    }
+
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    public DatabaseRetentionPolicy setBatchSize(int batchSize)
+    {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    public String getTimestampColumn()
+    {
+        return timestampColumn;
+    }
+
+    public DatabaseRetentionPolicy setTimestampColumn(String timestampColumn)
+    {
+        this.timestampColumn = timestampColumn;
+        return this;
+    }
+
+    public String getSentColumn()
+    {
+        return sentColumn;
+    }
+
+    public String getSentValue()
+    {
+        return sentValue;
+    }
+
+    public DatabaseRetentionPolicy setSentColumn(String sentColumn, String sentValue)
+    {
+        this.sentColumn = sentColumn;
+        this.sentValue  = sentValue;
+        return this;
+    }
+
+    public boolean isDeleteUnsent()
+    {
+        return deleteUnsent;
+    }
+
+    public DatabaseRetentionPolicy setDeleteUnsent(boolean deleteUnsent)
+    {
+        this.deleteUnsent = deleteUnsent;
+        return this;
+    }
+
+    public long getLowStorageBytes()
+    {
+        return lowStorageBytes;
+    }
+
+    public DatabaseRetentionPolicy setLowStorageBytes(long lowStorageBytes)
+    {
+        this.lowStorageBytes = Math.max(0, lowStorageBytes);
+        return this;
+    }
+
+    public double getLowStorageFactor()
+    {
+        return lowStorageFactor;
+    }
+
+    public DatabaseRetentionPolicy setLowStorageFactor(double lowStorageFactor)
+    {
+        this.lowStorageFactor = Math.min(1, Math.max(0.01, lowStorageFactor));
+        return this;
+    }
+
+    DatabaseRetentionPolicy scaled(double factor)
+    {
+        return new DatabaseRetentionPolicy()
+                .setMaxRows(scale(maxRows, factor))
+                .setMaxAgeMs(scale(maxAgeMs, factor))
+                .setMaxFileBytes(scale(maxFileBytes, factor))
+                .setBatchSize(batchSize)
+                .setTimestampColumn(timestampColumn)
+                .setSentColumn(sentColumn, sentValue)
+                .setDeleteUnsent(deleteUnsent)
+                .setLowStorageBytes(lowStorageBytes)
+                .setLowStorageFactor(lowStorageFactor);
+    }
+
+    private static long scale(long limit, double factor)
+    {
+        if (limit <= 0)
+            return limit;
+
+        return Math.max(1, (long) (limit * factor));
+    }
+
+    public LinkedHashMap<String, String> toMap()
+    {
+        LinkedHashMap<String, String> policy = new LinkedHashMap<>();
+
+        policy.put("maxRows", Long.toString(maxRows));
+        policy.put("maxAgeMs", Long.toString(maxAgeMs));
+        policy.put("maxFileBytes", Long.toString(maxFileBytes));
+        policy.put("batchSize", Integer.toString(batchSize));
+        policy.put("timestampColumn", timestampColumn);
+        policy.put("sentColumn", sentColumn);
+        policy.put("sentValue", sentValue);
+        policy.put("deleteUnsent", Boolean.toString(deleteUnsent));
+        policy.put("lowStorageBytes", Long.toString(lowStorageBytes));
+        policy.put("lowStorageFactor", Double.toString(lowStorageFactor));
+
+        return policy;
+    }
+}
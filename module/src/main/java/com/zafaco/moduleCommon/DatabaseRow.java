@@ -0,0 +1,144 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import android.database.Cursor;
+import android.util.Base64;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+public class DatabaseRow
+{
+    private final Cursor   cursor;
+    private final String[] names;
+
+    private final HashMap<String, Integer> indexes;
+
+    DatabaseRow(Cursor cursor)
+    {
+        this.cursor = cursor;
+
+        names   = cursor.getColumnNames();
+        indexes = new HashMap<>(names.length * 2);
+
+        for (int i = 0; i < names.length; i++)
+        {
+            if (!indexes.containsKey(names[i]))
+                indexes.put(names[i], i);
+        }
+    }
+
+    public int getColumnCount()
+    {
+        return names.length;
+    }
+
+    public String getColumnName(int index)
+    {
+        return names[index];
+    }
+
+    public int getColumnIndex(String column)
+    {
+        Integer index = indexes.get(column);
+        return (index != null) ? index : -1;
+    }
+
+    public boolean isNull(String column)
+    {
+        int index = getColumnIndex(column);
+        return index < 0 || cursor.isNull(index);
+    }
+
+    public String getString(int index)
+    {
+        switch (cursor.getType(index))
+        {
+            case Cursor.FIELD_TYPE_NULL:
+                return null;
+            case Cursor.FIELD_TYPE_INTEGER:
+                return Long.toString(cursor.getLong(index));
+            case Cursor.FIELD_TYPE_FLOAT:
+                return formatReal(cursor.getDouble(index));
+            case Cursor.FIELD_TYPE_BLOB:
+                return DatabaseSchema.encodeBlob(cursor.getBlob(index));
+            default:
+                return cursor.getString(index);
+        }
+    }
+
+    public String getString(String column)
+    {
+        int index = getColumnIndex(column);
+        return (index >= 0) ? getString(index) : null;
+    }
+
+    public byte[] getBlob(int index)
+    {
+        return cursor.getBlob(index);
+    }
+
+    public byte[] getBlob(String column)
+    {
+        int index = getColumnIndex(column);
+        return (index >= 0 && !cursor.isNull(index)) ? cursor.getBlob(index) : null;
+    }
+
+    public long getLong(int index)
+    {
+        return cursor.getLong(index);
+    }
+
+    public long getLong(String column, long defaultValue)
+    {
+        int index = getColumnIndex(column);
+        return (index >= 0 && !cursor.isNull(index)) ? cursor.getLong(index) : defaultValue;
+    }
+
+    public double getDouble(int index)
+    {
+        return cursor.getDouble(index);
+    }
+
+    public double getDouble(String column, double defaultValue)
+    {
+        int index = getColumnIndex(column);
+        return (index >= 0 && !cursor.isNull(index)) ? cursor.getDouble(index) : defaultValue;
+    }
+
+    public LinkedHashMap<String, String> toMap()
+    {
+        LinkedHashMap<String, String> columns = new LinkedHashMap<>(names.length * 2);
+
+        for (int i = 0; i < names.length; i++)
+        {
+            columns.put(names[i], getString(i));
+        }
+
+        return columns;
+    }
+
+    // REAL columns store "12" as 12.0; integral values are read back without the fraction
+    static String formatReal(double value)
+    {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            return Long.toString((long) value);
+
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import android.database.sqlite.SQLiteStatement;
+import android.util.Base64;
+
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public class DatabaseSchema
+{
+    public enum Type
+    {
+        INTEGER,
+        REAL,
+        TEXT,
+        BLOB
+    }
+
+    private final LinkedHashMap<String, Type> columns = new LinkedHashMap<>();
+
+    public DatabaseSchema()
+    {
+    }
+
+    public static DatabaseSchema fromJSON(JSONObject json)
+    {
+        DatabaseSchema schema = new DatabaseSchema();
+
+        if (json == null)
+            return schema;
+
+        for (Iterator<String> iter = json.keys(); iter.hasNext(); )
+        {
+            String key = iter.next();
+            schema.put(key, parseType(json.optString(key)));
+        }
+
+        return schema;
+    }
+
+    public static Type parseType(String type)
+    {
+        if (type == null)
+            return Type.TEXT;
+
+        switch (type.trim().toUpperCase(Locale.ROOT))
+        {
+            case "INT":
+            case "INTEGER":
+            case "LONG":
+                return Type.INTEGER;
+            case "REAL":
+            case "DOUBLE":
+            case "FLOAT":
+                return Type.REAL;
+            case "BLOB":
+                return Type.BLOB;
+            default:
+                return Type.TEXT;
+        }
+    }
+
+    public DatabaseSchema put(String column, Type type)
+    {
+        columns.put(column, (type != null) ? type : Type.TEXT);
+        return this;
+    }
+
+    public Type getType(String column)
+    {
+        Type type = columns.get(column);
+        return (type != null) ? type : Type.TEXT;
+    }
+
+    public boolean contains(String column)
+    {
+        return columns.containsKey(column);
+    }
+
+    public Map<String, Type> getColumns()
+    {
+        return Collections.unmodifiableMap(columns);
+    }
+
+    Type[] resolve(String[] keys)
+    {
+        Type[] types = new Type[keys.length];
+
+        for (int i = 0; i < keys.length; i++)
+        {
+            types[i] = getType(keys[i]);
+        }
+
+        return types;
+    }
+
+    static void bind(SQLiteStatement stmt, int index, Type type, String value)
+    {
+        if (value == null)
+        {
+            stmt.bindNull(index);
+            return;
+        }
+
+        if (type == null || type == Type.TEXT)
+        {
+            stmt.bindString(index, value);
+            return;
+        }
+
+        if (value.isEmpty())
+        {
+            stmt.bindNull(index);
+            return;
+        }
+
+        try
+        {
+            switch (type)
+            {
+                case INTEGER:
+                    stmt.bindLong(index, Long.parseLong(value));
+                    return;
+                case REAL:
+                    stmt.bindDouble(index, Double.parseDouble(value));
+                    return;
+                case BLOB:
+                    stmt.bindBlob(index, decodeBlob(value));
+                    return;
+            }
+        } catch (IllegalArgumentException ex)
+        {
+            if (type == Type.INTEGER)
+            {
+                try
+                {
+                    stmt.bindDouble(index, Double.parseDouble(value));
+                    return;
+                } catch (NumberFormatException ignored)
+                {
+                }
+            }
+        }
+
+        stmt.bindString(index, value);
+    }
+
+    public static String encodeBlob(byte[] value)
+    {
+        return (value != null) ? Base64.encodeToString(value, Base64.NO_WRAP) : null;
+    }
+
+    public static byte[] decodeBlob(String value)
+    {
+        return (value != null) ? Base64.decode(value, Base64.NO_WRAP) : null;
+    }
+}
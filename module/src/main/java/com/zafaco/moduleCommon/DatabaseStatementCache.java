@@ -0,0 +1,195 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class DatabaseStatementCache
+{
+    private static final String TAG = "DatabaseStatementCache";
+
+    private final int maxSize;
+
+    private final LinkedHashMap<String, Entry> statements;
+
+    private long hits   = 0;
+    private long misses = 0;
+
+    DatabaseStatementCache(int maxSize)
+    {
+        this.maxSize = Math.max(1, maxSize);
+
+        statements = new LinkedHashMap<String, Entry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+            {
+                if (size() > DatabaseStatementCache.this.maxSize)
+                {
+                    retire(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    static Lease uncached(SQLiteStatement stmt)
+    {
+        return new Lease(null, new Entry(stmt));
+    }
+
+    synchronized Lease acquire(SQLiteDatabase db, String key, String sql)
+    {
+        Entry entry = statements.get(key);
+
+        if (entry != null)
+        {
+            hits++;
+        } else
+        {
+            misses++;
+            entry = new Entry(db.compileStatement(sql));
+            statements.put(key, entry);
+        }
+
+        entry.users++;
+
+        return new Lease(this, entry);
+    }
+
+    private synchronized void release(Entry entry)
+    {
+        entry.users--;
+
+        if (entry.retired && entry.users == 0)
+            closeStatement(entry.statement);
+    }
+
+    synchronized void clear()
+    {
+        for (Entry entry : statements.values())
+        {
+            retire(entry);
+        }
+        statements.clear();
+    }
+
+    private static void retire(Entry entry)
+    {
+        entry.retired = true;
+
+        if (entry.users == 0)
+            closeStatement(entry.statement);
+    }
+
+    int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    synchronized int size()
+    {
+        return statements.size();
+    }
+
+    synchronized long getHits()
+    {
+        return hits;
+    }
+
+    synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    synchronized double getHitRate()
+    {
+        long total = hits + misses;
+
+        if (total == 0)
+            return 0;
+
+        return (double) hits / total;
+    }
+
+    synchronized void resetStatistics()
+    {
+        hits   = 0;
+        misses = 0;
+    }
+
+    private static void closeStatement(SQLiteStatement stmt)
+    {
+        try
+        {
+            stmt.close();
+        } catch (Exception ex)
+        {
+            Log.warning(TAG, "closeStatement: failed", ex);
+        }
+    }
+
+    private static final class Entry
+    {
+        private final SQLiteStatement statement;
+
+        private int     users   = 0;
+        private boolean retired = false;
+
+        private Entry(SQLiteStatement statement)
+        {
+            this.statement = statement;
+        }
+    }
+
+    static final class Lease
+    {
+        private final DatabaseStatementCache cache;
+        private final Entry                  entry;
+
+        private boolean released = false;
+
+        private Lease(DatabaseStatementCache cache, Entry entry)
+        {
+            this.cache = cache;
+            this.entry = entry;
+        }
+
+        SQLiteStatement getStatement()
+        {
+            return entry.statement;
+        }
+
+        void release()
+        {
+            if (released)
+                return;
+
+            released = true;
+
+            if (cache == null)
+                closeStatement(entry.statement);
+            else
+                cache.release(entry);
+        }
+    }
+}
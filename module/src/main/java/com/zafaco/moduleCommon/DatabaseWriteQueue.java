@@ -0,0 +1,415 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class DatabaseWriteQueue
+{
+    private static final String TAG = "DatabaseWriteQueue";
+
+    public enum Policy
+    {
+        BLOCK,
+        DROP_OLDEST,
+        COALESCE
+    }
+
+    public static final int DEFAULT_CAPACITY  = 1024;
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    private final Database database;
+    private final int      capacity;
+    private final int      maxBatch;
+    private final Policy   policy;
+    private final String   coalesceKey;
+
+    private final ReentrantLock lock      = new ReentrantLock();
+    private final Condition     notEmpty  = lock.newCondition();
+    private final Condition     notFull   = lock.newCondition();
+    private final Condition     committed = lock.newCondition();
+
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+
+    private long    enqueuedSeq  = 0;
+    private long    committedSeq = 0;
+    private long    failedSeq    = 0;
+    private boolean running      = false;
+    private Thread  writerThread;
+
+    private int  inFlightRows  = 0;
+    private long droppedRows   = 0;
+    private long coalescedRows = 0;
+    private long committedRows = 0;
+    private long failedRows    = 0;
+    private long commits       = 0;
+    private long maxQueueDepth = 0;
+    private long lastCommitNs  = 0;
+    private long maxCommitNs   = 0;
+    private long totalCommitNs = 0;
+
+    private static class Entry
+    {
+        LinkedHashMap<String, String> row;
+        long                          seq;
+
+        Entry(LinkedHashMap<String, String> row, long seq)
+        {
+            this.row = row;
+            this.seq = seq;
+        }
+    }
+
+    public DatabaseWriteQueue(Database database, int capacity, Policy policy)
+    {
+        this(database, capacity, DEFAULT_MAX_BATCH, policy, "timestamp");
+    }
+
+    public DatabaseWriteQueue(Database database, int capacity, int maxBatch, Policy policy, String coalesceKey)
+    {
+        this.database    = database;
+        this.capacity    = Math.max(1, capacity);
+        this.maxBatch    = Math.max(1, maxBatch);
+        this.policy      = (policy != null) ? policy : Policy.BLOCK;
+        this.coalesceKey = coalesceKey;
+    }
+
+    public void start()
+    {
+        lock.lock();
+        try
+        {
+            if (running)
+                return;
+
+            running      = true;
+            writerThread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    drainLoop();
+                }
+            }, TAG);
+            writerThread.start();
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public void stop()
+    {
+        Thread thread;
+
+        lock.lock();
+        try
+        {
+            if (!running)
+                return;
+
+            running = false;
+            thread  = writerThread;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally
+        {
+            lock.unlock();
+        }
+
+        try
+        {
+            thread.join();
+        } catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            Log.warning(TAG, "stop: interrupted while draining", ex);
+        }
+    }
+
+    public boolean enqueue(LinkedHashMap<String, String> row)
+    {
+        if (row == null || row.isEmpty())
+            return false;
+
+        row = new LinkedHashMap<>(row);
+
+        lock.lock();
+        try
+        {
+            if (!running)
+                return false;
+
+            if (policy == Policy.COALESCE && coalesce(row))
+                return true;
+
+            while (queue.size() >= capacity)
+            {
+                if (policy == Policy.BLOCK)
+                {
+                    notFull.awaitUninterruptibly();
+
+                    if (!running)
+                        return false;
+                } else
+                {
+                    queue.pollFirst();
+                    droppedRows++;
+                }
+            }
+
+            queue.addLast(new Entry(row, ++enqueuedSeq));
+
+            if (queue.size() > maxQueueDepth)
+                maxQueueDepth = queue.size();
+
+            notEmpty.signal();
+
+            return true;
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private boolean coalesce(LinkedHashMap<String, String> row)
+    {
+        if (coalesceKey == null)
+            return false;
+
+        String value = row.get(coalesceKey);
+        if (value == null)
+            return false;
+
+        for (Iterator<Entry> iter = queue.descendingIterator(); iter.hasNext(); )
+        {
+            Entry entry = iter.next();
+
+            if (value.equals(entry.row.get(coalesceKey)) && entry.row.keySet().equals(row.keySet()))
+            {
+                entry.row = row;
+                coalescedRows++;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean flush()
+    {
+        return awaitDurable(0);
+    }
+
+    public boolean awaitDurable(long timeoutMs)
+    {
+        lock.lock();
+        try
+        {
+            long target  = enqueuedSeq;
+            long settled = Math.max(committedSeq, failedSeq);
+            long nanos   = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+            while (Math.max(committedSeq, failedSeq) < target)
+            {
+                if (timeoutMs <= 0)
+                {
+                    committed.awaitUninterruptibly();
+                } else
+                {
+                    if (nanos <= 0)
+                        return false;
+
+                    try
+                    {
+                        nanos = committed.awaitNanos(nanos);
+                    } catch (InterruptedException ex)
+                    {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+            }
+
+            return failedSeq <= settled;
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void drainLoop()
+    {
+        try
+        {
+            drainBatches();
+        } finally
+        {
+            writerExited();
+        }
+    }
+
+    private void writerExited()
+    {
+        lock.lock();
+        try
+        {
+            running = false;
+
+            if (!queue.isEmpty() || Math.max(committedSeq, failedSeq) < enqueuedSeq)
+            {
+                Log.warning(TAG, "writerExited: writer stopped with " + (queue.size() + inFlightRows) + " rows pending");
+
+                failedRows   += queue.size() + inFlightRows;
+                failedSeq     = enqueuedSeq;
+                inFlightRows  = 0;
+                queue.clear();
+            }
+
+            notFull.signalAll();
+            committed.signalAll();
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void drainBatches()
+    {
+        ArrayList<LinkedHashMap<String, String>> batch = new ArrayList<>(maxBatch);
+
+        while (true)
+        {
+            long batchSeq = 0;
+
+            lock.lock();
+            try
+            {
+                while (queue.isEmpty() && running)
+                {
+                    notEmpty.awaitUninterruptibly();
+                }
+
+                if (queue.isEmpty())
+                {
+                    committed.signalAll();
+                    return;
+                }
+
+                while (!queue.isEmpty() && batch.size() < maxBatch)
+                {
+                    Entry entry = queue.pollFirst();
+                    batch.add(entry.row);
+                    batchSeq = entry.seq;
+                }
+                inFlightRows = batch.size();
+
+                notFull.signalAll();
+            } finally
+            {
+                lock.unlock();
+            }
+
+            long start    = System.nanoTime();
+            int  inserted = 0;
+            try
+            {
+                inserted = database.insertAll(batch);
+            } catch (Exception ex)
+            {
+                Log.warning(TAG, "drainLoop: insertAll failed", ex);
+            }
+            long duration = System.nanoTime() - start;
+
+            boolean success = inserted == batch.size();
+            if (!success)
+                Log.warning(TAG, "drainLoop: batch of " + batch.size() + " rows not committed");
+
+            lock.lock();
+            try
+            {
+                if (success)
+                {
+                    committedSeq  = Math.max(committedSeq, batchSeq);
+                    committedRows += inserted;
+                } else
+                {
+                    failedSeq  = Math.max(failedSeq, batchSeq);
+                    failedRows += batch.size();
+                }
+                inFlightRows  = 0;
+                lastCommitNs  = duration;
+                totalCommitNs += duration;
+                commits++;
+                if (duration > maxCommitNs)
+                    maxCommitNs = duration;
+
+                committed.signalAll();
+            } finally
+            {
+                lock.unlock();
+            }
+
+            batch.clear();
+        }
+    }
+
+    public int getQueueDepth()
+    {
+        lock.lock();
+        try
+        {
+            return queue.size();
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public LinkedHashMap<String, String> getMetrics()
+    {
+        LinkedHashMap<String, String> metrics = new LinkedHashMap<>();
+
+        lock.lock();
+        try
+        {
+            metrics.put("policy", policy.name());
+            metrics.put("capacity", Integer.toString(capacity));
+            metrics.put("queueDepth", Integer.toString(queue.size()));
+            metrics.put("maxQueueDepth", Long.toString(maxQueueDepth));
+            metrics.put("committedRows", Long.toString(committedRows));
+            metrics.put("failedRows", Long.toString(failedRows));
+            metrics.put("droppedRows", Long.toString(droppedRows));
+            metrics.put("coalescedRows", Long.toString(coalescedRows));
+            metrics.put("commits", Long.toString(commits));
+            metrics.put("lastCommitMs", Double.toString(lastCommitNs / 1e6));
+            metrics.put("maxCommitMs", Double.toString(maxCommitNs / 1e6));
+            metrics.put("avgCommitMs", Double.toString((commits == 0) ? 0 : totalCommitNs / 1e6 / commits));
+        } finally
+        {
+            lock.unlock();
+        }
+
+        return metrics;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.zafaco.moduleCommon.models.client.ClientInfo;
+import com.zafaco.moduleCommon.models.location.LocationInfo;
+import com.zafaco.moduleCommon.models.network.NetworkInfo;
+import com.zafaco.moduleCommon.models.system.SystemInfo;
+
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class GsonRegistry
+{
+    private static final LinkedHashMap<Type, Object> adapters = new LinkedHashMap<>();
+
+    private static volatile Gson gson;
+
+    static
+    {
+        adapters.put(NetworkInfo.class, new NetworkInfo.GsonAdapter());
+        adapters.put(LocationInfo.class, new LocationInfo.GsonAdapter());
+        adapters.put(SystemInfo.class, new SystemInfo.GsonAdapter());
+        adapters.put(ClientInfo.class, new ClientInfo.GsonAdapter());
+
+        gson = build();
+    }
+
+    private GsonRegistry()
+    {
+    }
+
+    public static Gson get()
+    {
+        return gson;
+    }
+
+    public static synchronized void registerTypeAdapter(Type type, Object adapter)
+    {
+        adapters.put(type, adapter);
+        gson = build();
+    }
+
+    private static Gson build()
+    {
+        GsonBuilder builder = new GsonBuilder();
+
+        for (Map.Entry<Type, Object> entry : adapters.entrySet())
+        {
+            builder.registerTypeAdapter(entry.getKey(), entry.getValue());
+        }
+
+        return builder.create();
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public final class JsonAssetCache
+{
+    private static final String TAG = "JsonAssetCache";
+
+    public enum Validation
+    {
+        NONE,
+        SIZE,
+        CHECKSUM
+    }
+
+    public static final int  DEFAULT_MAX_ENTRIES    = 32;
+    public static final long DEFAULT_MMAP_THRESHOLD = 64 * 1024;
+
+    private static final JsonAssetCache sharedCache = new JsonAssetCache(DEFAULT_MAX_ENTRIES, Validation.NONE);
+
+    private final int        maxEntries;
+    private final Validation validation;
+
+    private volatile long mmapThreshold = DEFAULT_MMAP_THRESHOLD;
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long hits          = 0;
+    private long misses        = 0;
+    private long invalidations = 0;
+
+    private static final class Entry
+    {
+        final JSONObject json;
+        final long       size;
+        final long       checksum;
+
+        Entry(JSONObject json, long size, long checksum)
+        {
+            this.json     = json;
+            this.size     = size;
+            this.checksum = checksum;
+        }
+    }
+
+    private static final class Source
+    {
+        final ByteBuffer bytes;
+        final long       size;
+
+        Source(ByteBuffer bytes, long size)
+        {
+            this.bytes = bytes;
+            this.size  = size;
+        }
+    }
+
+    public JsonAssetCache(int maxEntries, Validation validation)
+    {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.validation = (validation != null) ? validation : Validation.NONE;
+
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+            {
+                return size() > JsonAssetCache.this.maxEntries;
+            }
+        };
+    }
+
+    public static JsonAssetCache getShared()
+    {
+        return sharedCache;
+    }
+
+    public void setMmapThreshold(long bytes)
+    {
+        mmapThreshold = Math.max(0, bytes);
+    }
+
+    public JSONObject get(Context ctx, String path)
+    {
+        Entry entry = load(ctx, path);
+        if (entry == null)
+            return null;
+
+        try
+        {
+            return copy(entry.json);
+        } catch (JSONException ex)
+        {
+            Log.warning(TAG, "get: copy failed for " + path, ex);
+            return null;
+        }
+    }
+
+    JSONObject peek(Context ctx, String path)
+    {
+        Entry entry = load(ctx, path);
+        return (entry != null) ? entry.json : null;
+    }
+
+    static JSONObject copy(JSONObject source) throws JSONException
+    {
+        JSONObject target = new JSONObject();
+
+        for (Iterator<String> iter = source.keys(); iter.hasNext(); )
+        {
+            String key = iter.next();
+            target.put(key, copyValue(source.opt(key)));
+        }
+
+        return target;
+    }
+
+    private static JSONArray copy(JSONArray source) throws JSONException
+    {
+        JSONArray target = new JSONArray();
+
+        for (int i = 0; i < source.length(); i++)
+        {
+            target.put(copyValue(source.opt(i)));
+        }
+
+        return target;
+    }
+
+    private static Object copyValue(Object value) throws JSONException
+    {
+        if (value instanceof JSONObject)
+            return copy((JSONObject) value);
+        if (value instanceof JSONArray)
+            return copy((JSONArray) value);
+
+        return value;
+    }
+
+    public void preload(Context ctx, Collection<String> paths)
+    {
+        for (String path : paths)
+        {
+            load(ctx, path);
+        }
+    }
+
+    public Thread preloadAsync(final Context ctx, final Collection<String> paths)
+    {
+        final Context appCtx = ctx.getApplicationContext();
+
+        Thread thread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                preload(appCtx, paths);
+            }
+        }, TAG);
+        thread.start();
+
+        return thread;
+    }
+
+    public synchronized void invalidate(String path)
+    {
+        entries.remove(path);
+    }
+
+    public synchronized void clear()
+    {
+        entries.clear();
+    }
+
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    public synchronized LinkedHashMap<String, String> getMetrics()
+    {
+        LinkedHashMap<String, String> metrics = new LinkedHashMap<>();
+
+        metrics.put("validation", validation.name());
+        metrics.put("entries", Integer.toString(entries.size()));
+        metrics.put("maxEntries", Integer.toString(maxEntries));
+        metrics.put("hits", Long.toString(hits));
+        metrics.put("misses", Long.toString(misses));
+        metrics.put("invalidations", Long.toString(invalidations));
+
+        return metrics;
+    }
+
+    private Entry load(Context ctx, String path)
+    {
+        Entry cached;
+        synchronized (this)
+        {
+            cached = entries.get(path);
+        }
+
+        if (cached != null && isValid(ctx, path, cached))
+        {
+            synchronized (this)
+            {
+                hits++;
+            }
+            return cached;
+        }
+
+        Source source = read(ctx, path);
+        if (source == null)
+            return null;
+
+        try
+        {
+            long   checksum = (validation == Validation.CHECKSUM) ? checksum(source.bytes) : 0;
+            String text     = StandardCharsets.UTF_8.decode(source.bytes.duplicate()).toString();
+            Entry  entry    = new Entry(new JSONObject(text), source.size, checksum);
+
+            synchronized (this)
+            {
+                if (cached != null)
+                    invalidations++;
+                misses++;
+                entries.put(path, entry);
+            }
+
+            return entry;
+        } catch (JSONException ex)
+        {
+            Log.warning(TAG, "load: parse failed for " + path, ex);
+            return null;
+        }
+    }
+
+    private boolean isValid(Context ctx, String path, Entry entry)
+    {
+        switch (validation)
+        {
+            case SIZE:
+                return assetSize(ctx, path) == entry.size;
+            case CHECKSUM:
+                Source source = read(ctx, path);
+                return source != null && source.size == entry.size && checksum(source.bytes) == entry.checksum;
+            default:
+                return true;
+        }
+    }
+
+    private Source read(Context ctx, String path)
+    {
+        try
+        {
+            AssetFileDescriptor afd = openFd(ctx, path);
+
+            if (afd != null)
+            {
+                try (AssetFileDescriptor fd = afd; FileInputStream fis = fd.createInputStream())
+                {
+                    long size = fd.getLength();
+
+                    if (size >= 0 && size >= mmapThreshold)
+                    {
+                        try (FileChannel channel = fis.getChannel())
+                        {
+                            return new Source(channel.map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), size), size);
+                        }
+                    }
+
+                    byte[] bytes = readFully(fis, (int) size);
+                    return new Source(ByteBuffer.wrap(bytes), bytes.length);
+                }
+            }
+
+            try (InputStream is = ctx.getAssets().open(path))
+            {
+                byte[] bytes = readFully(is, is.available());
+                return new Source(ByteBuffer.wrap(bytes), bytes.length);
+            }
+        } catch (IOException ex)
+        {
+            Log.warning(TAG, "read: failed for " + path, ex);
+            return null;
+        }
+    }
+
+    private static AssetFileDescriptor openFd(Context ctx, String path) throws IOException
+    {
+        try
+        {
+            return ctx.getAssets().openFd(path);
+        } catch (FileNotFoundException ex)
+        {
+            return null;
+        }
+    }
+
+    public static JSONObject readMapped(Context ctx, String path)
+    {
+        try
+        {
+            ByteBuffer mapped = map(ctx, path);
+            ByteBuffer bytes  = mapped;
+
+            if (bytes == null)
+            {
+                try (InputStream is = ctx.getAssets().open(path))
+                {
+                    bytes = ByteBuffer.wrap(readFully(is, is.available()));
+                }
+            }
+
+            return new JSONObject(StandardCharsets.UTF_8.decode(bytes).toString());
+        } catch (IOException | JSONException ex)
+        {
+            Log.warning(TAG, "readMapped: failed for " + path, ex);
+            return null;
+        }
+    }
+
+    static MappedByteBuffer map(Context ctx, String path) throws IOException
+    {
+        AssetFileDescriptor afd = openFd(ctx, path);
+        if (afd == null)
+            return null;
+
+        try (AssetFileDescriptor fd = afd; FileInputStream fis = fd.createInputStream(); FileChannel channel = fis.getChannel())
+        {
+            return channel.map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength());
+        }
+    }
+
+    private static long assetSize(Context ctx, String path)
+    {
+        try (AssetFileDescriptor afd = ctx.getAssets().openFd(path))
+        {
+            return afd.getLength();
+        } catch (IOException ex)
+        {
+            try (InputStream is = ctx.getAssets().open(path))
+            {
+                return is.available();
+            } catch (IOException ignored)
+            {
+                return -1;
+            }
+        }
+    }
+
+    private static byte[] readFully(InputStream is, int sizeHint) throws IOException
+    {
+        ByteArrayOutputStream out    = new ByteArrayOutputStream(Math.max(sizeHint, 1024));
+        byte[]                buffer = new byte[8192];
+        int                   len;
+
+        while ((len = is.read(buffer)) > 0)
+        {
+            out.write(buffer, 0, len);
+        }
+
+        return out.toByteArray();
+    }
+
+    private static long checksum(ByteBuffer bytes)
+    {
+        CRC32      crc    = new CRC32();
+        ByteBuffer buffer = bytes.duplicate();
+
+        if (buffer.hasArray())
+        {
+            crc.update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else
+        {
+            byte[] chunk = new byte[8192];
+            while (buffer.hasRemaining())
+            {
+                int len = Math.min(chunk.length, buffer.remaining());
+                buffer.get(chunk, 0, len);
+                crc.update(chunk, 0, len);
+            }
+        }
+
+        return crc.getValue();
+    }
+}
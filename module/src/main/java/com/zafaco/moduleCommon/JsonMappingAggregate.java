@@ -0,0 +1,105 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import java.util.Arrays;
+
+final class JsonMappingAggregate
+{
+    private final double[] values;
+    private final int      count;
+
+    private final double min;
+    private final double max;
+    private final double mean;
+    private final double m2;
+
+    private double[] sorted;
+
+    JsonMappingAggregate(double[] values, int count)
+    {
+        this.values = values;
+        this.count  = count;
+
+        double min  = Double.POSITIVE_INFINITY;
+        double max  = Double.NEGATIVE_INFINITY;
+        double mean = 0;
+        double m2   = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            double value = values[i];
+
+            if (value < min)
+                min = value;
+            if (value > max)
+                max = value;
+
+            double delta = value - mean;
+            mean += delta / (i + 1);
+            m2 += delta * (value - mean);
+        }
+
+        this.min  = min;
+        this.max  = max;
+        this.mean = mean;
+        this.m2   = m2;
+    }
+
+    int getCount()
+    {
+        return count;
+    }
+
+    double getMin()
+    {
+        return min;
+    }
+
+    double getMax()
+    {
+        return max;
+    }
+
+    double getMean()
+    {
+        return mean;
+    }
+
+    double getStandardDeviation()
+    {
+        return (count > 0) ? Math.sqrt(m2 / count) : Double.NaN;
+    }
+
+    double getPercentile(double percentile)
+    {
+        if (count == 0)
+            return Double.NaN;
+
+        if (sorted == null)
+        {
+            sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+        }
+
+        double p    = Math.min(100, Math.max(0, percentile)) / 100 * (count - 1);
+        int    low  = (int) Math.floor(p);
+        int    high = (int) Math.ceil(p);
+
+        return sorted[low] + (sorted[high] - sorted[low]) * (p - low);
+    }
+}
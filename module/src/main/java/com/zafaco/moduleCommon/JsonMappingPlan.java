@@ -0,0 +1,601 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import android.content.Context;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class JsonMappingPlan
+{
+    private static final String TAG = "JsonMappingPlan";
+
+    private static final ConcurrentHashMap<String, JsonMappingPlan> cache = new ConcurrentHashMap<>();
+
+    final List<Group> groups;
+
+    private volatile JsonStreamingMapper streamingMapper;
+
+    private JsonMappingPlan(List<Group> groups)
+    {
+        this.groups = Collections.unmodifiableList(groups);
+    }
+
+    public static JsonMappingPlan fromAsset(Context ctx, String path)
+    {
+        JsonMappingPlan plan = cache.get(path);
+        if (plan != null)
+            return plan;
+
+        JSONObject mappingJSON = JsonAssetCache.getShared().peek(ctx, path);
+        if (mappingJSON == null)
+            return null;
+
+        plan = compile(mappingJSON);
+
+        JsonMappingPlan previous = cache.putIfAbsent(path, plan);
+        return (previous != null) ? previous : plan;
+    }
+
+    public static void invalidate(String path)
+    {
+        cache.remove(path);
+    }
+
+    public static void clearCache()
+    {
+        cache.clear();
+    }
+
+    public static JsonMappingPlan compile(JSONObject mappingJSON)
+    {
+        ArrayList<Group> groups = new ArrayList<>();
+
+        try
+        {
+            for (Iterator<String> iter = mappingJSON.keys(); iter.hasNext(); )
+            {
+                String     key               = iter.next();
+                JSONObject mappingDetail     = mappingJSON.getJSONObject(key);
+                String     mappingType       = mappingDetail.getString("type");
+                JSONArray  parameterMappings = mappingDetail.getJSONArray("mappings");
+
+                boolean isArray;
+                switch (mappingType)
+                {
+                    case "array":
+                        isArray = true;
+                        break;
+                    case "object":
+                        isArray = false;
+                        break;
+                    default:
+                        Log.warning(TAG, "incorrect mapping type in mapping");
+                        continue;
+                }
+
+                ArrayList<Operation> operations = new ArrayList<>();
+
+                for (int i = 0; i < parameterMappings.length(); i++)
+                {
+                    JSONObject parameter = parameterMappings.optJSONObject(i);
+                    if (parameter == null)
+                        continue;
+
+                    Operation operation = isArray ? compileArrayOperation(parameter) : new ObjectOperation(parameter);
+                    if (operation != null)
+                        operations.add(operation);
+                }
+
+                groups.add(new Group(key, isArray, operations));
+            }
+        } catch (JSONException ex)
+        {
+            Log.warning(TAG, "compile failed", ex);
+        }
+
+        return new JsonMappingPlan(groups);
+    }
+
+    private static Operation compileArrayOperation(JSONObject parameter) throws JSONException
+    {
+        String type = parameter.optString("type");
+
+        switch (type)
+        {
+            case "last":
+                return new LastOperation(parameter);
+            case "max":
+            case "min":
+            case "mean":
+            case "median":
+            case "percentile":
+            case "stddev":
+                return new StatisticOperation(parameter);
+            case "all":
+                return new AllOperation(parameter);
+            case "array":
+                return new NestedArrayOperation(parameter);
+            case "throughput":
+                return new Operation(parameter);
+            default:
+                Log.warning(TAG, "incorrect parameter type in mapping");
+                return new Operation(parameter);
+        }
+    }
+
+    public JSONObject apply(JSONObject original)
+    {
+        JSONObject mapped = new JSONObject();
+
+        if (original == null)
+            return mapped;
+
+        try
+        {
+            for (Group group : groups)
+            {
+                group.apply(original, mapped);
+            }
+        } catch (JSONException ex)
+        {
+            Log.warning(TAG, "apply failed", ex);
+        }
+
+        return mapped;
+    }
+
+    public JsonStreamingMapper getStreamingMapper()
+    {
+        JsonStreamingMapper mapper = streamingMapper;
+        if (mapper == null)
+        {
+            mapper          = new JsonStreamingMapper(this);
+            streamingMapper = mapper;
+        }
+        return mapper;
+    }
+
+    public List<JSONObject> applyAll(List<JSONObject> originals)
+    {
+        ArrayList<JSONObject> mapped = new ArrayList<>(originals.size());
+
+        for (JSONObject original : originals)
+        {
+            mapped.add(apply(original));
+        }
+
+        return mapped;
+    }
+
+    static final class Group
+    {
+        final String          key;
+        final boolean         isArray;
+        final List<Operation> operations;
+        final List<Column>    columns;
+        final Set<String>     fields;
+        final boolean         allFields;
+
+        Group(String key, boolean isArray, List<Operation> operations)
+        {
+            this.key        = key;
+            this.isArray    = isArray;
+            this.operations = Collections.unmodifiableList(operations);
+
+            ArrayList<Column> columns = new ArrayList<>();
+            for (Operation operation : operations)
+            {
+                if (!(operation instanceof StatisticOperation))
+                    continue;
+
+                StatisticOperation statistic = (StatisticOperation) operation;
+
+                int index = -1;
+                for (int i = 0; i < columns.size(); i++)
+                {
+                    if (columns.get(i).matches(statistic))
+                        index = i;
+                }
+
+                if (index < 0)
+                {
+                    index = columns.size();
+                    columns.add(new Column(statistic));
+                }
+
+                statistic.column = index;
+            }
+            this.columns = Collections.unmodifiableList(columns);
+
+            HashSet<String> fields    = new HashSet<>();
+            boolean         allFields = false;
+            for (Operation operation : operations)
+            {
+                allFields |= operation.collectFields(fields);
+            }
+            this.fields    = Collections.unmodifiableSet(fields);
+            this.allFields = allFields;
+        }
+
+        void apply(JSONObject original, JSONObject mapped) throws JSONException
+        {
+            if (isArray)
+            {
+                JSONArray originalArray = original.optJSONArray(key);
+                if (originalArray == null)
+                    return;
+
+                JsonMappingAggregate[] aggregates = new JsonMappingAggregate[columns.size()];
+
+                for (Operation operation : operations)
+                {
+                    if (operation instanceof StatisticOperation)
+                    {
+                        StatisticOperation statistic = (StatisticOperation) operation;
+
+                        if (aggregates[statistic.column] == null)
+                            aggregates[statistic.column] = columns.get(statistic.column).aggregate(originalArray);
+
+                        statistic.emit(aggregates[statistic.column], originalArray.length(), mapped);
+                    } else
+                    {
+                        operation.applyArray(originalArray, mapped);
+                    }
+                }
+            } else
+            {
+                JSONObject originalObject = (key.equals("general")) ? original : original.optJSONObject(key);
+                if (originalObject == null)
+                    return;
+
+                for (Operation operation : operations)
+                {
+                    operation.applyObject(originalObject, mapped);
+                }
+            }
+        }
+    }
+
+    static final class Column
+    {
+        final String oldKey;
+        final String divider;
+        final double convertMultiplier;
+        final double convert;
+
+        Column(StatisticOperation statistic)
+        {
+            oldKey            = statistic.oldKey;
+            divider           = statistic.divider;
+            convertMultiplier = statistic.convertMultiplier;
+            convert           = statistic.convert;
+        }
+
+        boolean matches(StatisticOperation statistic)
+        {
+            return oldKey.equals(statistic.oldKey) && divider.equals(statistic.divider) && Double.compare(convertMultiplier, statistic.convertMultiplier) == 0 && Double.compare(convert, statistic.convert) == 0;
+        }
+
+        JsonMappingAggregate aggregate(JSONArray originalArray) throws JSONException
+        {
+            int      length = originalArray.length();
+            double[] values = new double[length];
+            int      count  = 0;
+
+            for (int j = 0; j < length; j++)
+            {
+                double value = value(originalArray.getJSONObject(j));
+
+                if (!Double.isNaN(value))
+                    values[count++] = value;
+            }
+
+            return new JsonMappingAggregate(values, count);
+        }
+
+        // NaN marks an element that does not contribute to the column
+        double value(JSONObject element) throws JSONException
+        {
+            if (divider.isEmpty())
+            {
+                double value = element.getDouble(oldKey);
+
+                if (!Double.isNaN(convertMultiplier))
+                    value *= convertMultiplier;
+                if (!Double.isNaN(convert))
+                    value /= convert;
+
+                return value;
+            }
+
+            double divisor = element.getDouble(divider);
+
+            if (divisor == 0)
+                return Double.NaN;
+
+            return (element.getLong(oldKey) * convertMultiplier) / (divisor / convert);
+        }
+    }
+
+    static class Operation
+    {
+        final String newKey;
+        final String oldKey;
+        final String type;
+        final double convert;
+
+        Operation(JSONObject parameter)
+        {
+            newKey  = parameter.optString("new_key");
+            oldKey  = parameter.optString("old_key");
+            type    = parameter.optString("type");
+            convert = parameter.optDouble("convert");
+        }
+
+        void applyArray(JSONArray originalArray, JSONObject mapped) throws JSONException
+        {
+            map(originalArray, mapped);
+            finish(mapped);
+        }
+
+        void finish(JSONObject mapped) throws JSONException
+        {
+            if (!Double.isNaN(convert))
+                mapped.put(newKey, mapped.optLong(newKey) / convert);
+        }
+
+        void map(JSONArray originalArray, JSONObject mapped) throws JSONException
+        {
+        }
+
+        void applyObject(JSONObject originalObject, JSONObject mapped) throws JSONException
+        {
+        }
+
+        boolean collectFields(Set<String> fields)
+        {
+            return false;
+        }
+    }
+
+    static final class LastOperation extends Operation
+    {
+        LastOperation(JSONObject parameter)
+        {
+            super(parameter);
+        }
+
+        @Override
+        void map(JSONArray originalArray, JSONObject mapped) throws JSONException
+        {
+            mapped.put(newKey, originalArray.optJSONObject(originalArray.length() - 1).opt(oldKey));
+        }
+
+        @Override
+        boolean collectFields(Set<String> fields)
+        {
+            fields.add(oldKey);
+            return false;
+        }
+    }
+
+    static final class AllOperation extends Operation
+    {
+        AllOperation(JSONObject parameter)
+        {
+            super(parameter);
+        }
+
+        @Override
+        void map(JSONArray originalArray, JSONObject mapped) throws JSONException
+        {
+            mapped.put(newKey, originalArray.toString());
+        }
+
+        @Override
+        boolean collectFields(Set<String> fields)
+        {
+            return true;
+        }
+    }
+
+    static final class StatisticOperation extends Operation
+    {
+        final String divider;
+        final double convertMultiplier;
+        final double percentile;
+
+        int column;
+
+        StatisticOperation(JSONObject parameter)
+        {
+            super(parameter);
+
+            divider           = parameter.optString("old_key_divider");
+            convertMultiplier = parameter.optDouble("convert_multiplier");
+
+            switch (type)
+            {
+                case "median":
+                    percentile = 50;
+                    break;
+                case "percentile":
+                    percentile = parameter.optDouble("percentile", 50);
+                    break;
+                default:
+                    percentile = Double.NaN;
+            }
+        }
+
+        void emit(JsonMappingAggregate aggregate, int length, JSONObject mapped) throws JSONException
+        {
+            if (aggregate.getCount() == 0 || length == 0)
+                return;
+
+            switch (type)
+            {
+                case "max":
+                    mapped.put(newKey, (long) aggregate.getMax());
+                    break;
+                case "min":
+                    mapped.put(newKey, (long) aggregate.getMin());
+                    break;
+                case "mean":
+                    mapped.put(newKey, aggregate.getMean());
+                    break;
+                case "median":
+                case "percentile":
+                    mapped.put(newKey, aggregate.getPercentile(percentile));
+                    break;
+                case "stddev":
+                    mapped.put(newKey, aggregate.getStandardDeviation());
+                    break;
+            }
+        }
+
+        @Override
+        boolean collectFields(Set<String> fields)
+        {
+            fields.add(oldKey);
+            if (!divider.isEmpty())
+                fields.add(divider);
+            return false;
+        }
+    }
+
+    static final class NestedArrayOperation extends Operation
+    {
+        final String[]  newKeys;
+        final String[]  oldKeys;
+        final double[]  divides;
+        final boolean[] indexes;
+
+        NestedArrayOperation(JSONObject parameter) throws JSONException
+        {
+            super(parameter);
+
+            JSONArray tempMappings = parameter.getJSONArray("mappings");
+            int       length       = tempMappings.length();
+
+            newKeys = new String[length];
+            oldKeys = new String[length];
+            divides = new double[length];
+            indexes = new boolean[length];
+
+            for (int k = 0; k < length; k++)
+            {
+                JSONObject tempMapping = tempMappings.optJSONObject(k);
+
+                newKeys[k] = tempMapping.optString("new_key");
+                oldKeys[k] = tempMapping.optString("old_key");
+                divides[k] = tempMapping.optDouble("convert");
+                indexes[k] = tempMapping.optString("type").equals("index");
+            }
+        }
+
+        @Override
+        void map(JSONArray originalArray, JSONObject mapped) throws JSONException
+        {
+            JSONArray tempArray = new JSONArray();
+            int       length    = originalArray.length();
+
+            for (int j = 0; j < length; j++)
+            {
+                tempArray.put(mapElement(originalArray.getJSONObject(j), j));
+            }
+
+            mapped.put(newKey, tempArray.toString());
+        }
+
+        JSONObject mapElement(JSONObject element, int j) throws JSONException
+        {
+            JSONObject tempObject = new JSONObject();
+
+            for (int k = 0; k < newKeys.length; k++)
+            {
+                if (!Double.isNaN(divides[k]))
+                    tempObject.put(newKeys[k], element.optLong(oldKeys[k]) / divides[k]);
+                else if (indexes[k])
+                    tempObject.put(newKeys[k], (j + 1));
+                else
+                    tempObject.put(newKeys[k], element.get(oldKeys[k]));
+            }
+
+            return tempObject;
+        }
+
+        @Override
+        boolean collectFields(Set<String> fields)
+        {
+            for (int k = 0; k < oldKeys.length; k++)
+            {
+                if (!indexes[k])
+                    fields.add(oldKeys[k]);
+            }
+            return false;
+        }
+    }
+
+    static final class ObjectOperation extends Operation
+    {
+        final boolean integer;
+        final String  format;
+
+        ObjectOperation(JSONObject parameter)
+        {
+            super(parameter);
+
+            integer = type.equals("int");
+            format  = parameter.optString("format");
+        }
+
+        @Override
+        void applyObject(JSONObject originalObject, JSONObject mapped) throws JSONException
+        {
+            mapped.put(newKey, originalObject.opt(oldKey));
+
+            if (Double.isNaN(convert))
+                return;
+
+            if (integer)
+                mapped.put(newKey, mapped.optLong(newKey) / (long) convert);
+            else
+                mapped.put(newKey, mapped.optLong(newKey) / convert);
+
+            if (!format.isEmpty())
+                mapped.put(newKey, Tool.getDateFromTimestamp(mapped.optLong(newKey), format));
+        }
+
+        @Override
+        boolean collectFields(Set<String> fields)
+        {
+            fields.add(oldKey);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+public final class JsonStreamingMapper
+{
+    private static final String TAG = "JsonStreamingMapper";
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final JsonMappingPlan plan;
+
+    private final HashMap<String, Integer> indexes    = new HashMap<>();
+    private final HashSet<String>          rootFields = new HashSet<>();
+    private final boolean[]                folding;
+
+    public JsonStreamingMapper(JsonMappingPlan plan)
+    {
+        this.plan    = plan;
+        this.folding = new boolean[plan.groups.size()];
+
+        for (JsonMappingPlan.Group group : plan.groups)
+        {
+            if (!group.isArray && group.key.equals("general"))
+                rootFields.addAll(group.fields);
+        }
+
+        for (int i = 0; i < plan.groups.size(); i++)
+        {
+            JsonMappingPlan.Group group = plan.groups.get(i);
+
+            if (!group.isArray && group.key.equals("general"))
+                continue;
+
+            indexes.put(group.key, i);
+
+            // arrays copied verbatim ("all") or shared with a root field still need the parsed value
+            folding[i] = group.isArray && !group.allFields && !rootFields.contains(group.key);
+        }
+    }
+
+    public JSONObject map(String json)
+    {
+        return map(new StringReader(json));
+    }
+
+    public JSONObject map(InputStream in)
+    {
+        return map(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public JSONObject map(Reader in)
+    {
+        JSONObject  mapped = new JSONObject();
+        JSONObject  tree   = new JSONObject();
+        ArrayFold[] folds  = new ArrayFold[folding.length];
+
+        try (JsonReader reader = new JsonReader(in))
+        {
+            readRoot(reader, tree, folds);
+
+            for (int i = 0; i < folding.length; i++)
+            {
+                if (!folding[i])
+                    plan.groups.get(i).apply(tree, mapped);
+                else if (folds[i] != null)
+                    folds[i].emit(mapped);
+            }
+        } catch (IOException | IllegalStateException | JSONException | NumberFormatException ex)
+        {
+            Log.warning(TAG, "map failed", ex);
+            return new JSONObject();
+        }
+
+        return mapped;
+    }
+
+    private void readRoot(JsonReader reader, JSONObject tree, ArrayFold[] folds) throws IOException, JSONException
+    {
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            String  name  = reader.nextName();
+            Integer index = indexes.get(name);
+
+            if (rootFields.contains(name))
+            {
+                tree.put(name, readValue(reader));
+            } else if (index == null)
+            {
+                reader.skipValue();
+            } else if (folding[index])
+            {
+                if (reader.peek() == JsonToken.BEGIN_ARRAY)
+                    folds[index] = fold(reader, plan.groups.get(index));
+                else
+                    reader.skipValue();
+            } else if (reader.peek() == JsonToken.BEGIN_ARRAY)
+            {
+                tree.put(name, readValue(reader));
+            } else if (reader.peek() == JsonToken.BEGIN_OBJECT)
+            {
+                tree.put(name, readObject(reader, plan.groups.get(index)));
+            } else
+            {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static ArrayFold fold(JsonReader reader, JsonMappingPlan.Group group) throws IOException, JSONException
+    {
+        ArrayFold  fold    = new ArrayFold(group);
+        JSONObject element = new JSONObject();
+
+        reader.beginArray();
+        while (reader.hasNext())
+        {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT)
+                throw new JSONException("JSONArray[" + fold.length + "] is not a JSONObject.");
+
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                String name = reader.nextName();
+
+                if (group.fields.contains(name))
+                    element.put(name, readValue(reader));
+                else
+                    reader.skipValue();
+            }
+            reader.endObject();
+
+            fold.add(element);
+
+            for (String field : group.fields)
+            {
+                element.remove(field);
+            }
+        }
+        reader.endArray();
+
+        return fold;
+    }
+
+    private static JSONObject readObject(JsonReader reader, JsonMappingPlan.Group group) throws IOException, JSONException
+    {
+        JSONObject object = new JSONObject();
+
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            String name = reader.nextName();
+
+            if (group.allFields || group.fields.contains(name))
+                object.put(name, readValue(reader));
+            else
+                reader.skipValue();
+        }
+        reader.endObject();
+
+        return object;
+    }
+
+    private static final class ArrayFold
+    {
+        final JsonMappingPlan.Group group;
+        final double[][]            values;
+        final int[]                 counts;
+        final Object[]              results;
+
+        int length = 0;
+
+        ArrayFold(JsonMappingPlan.Group group)
+        {
+            this.group   = group;
+            this.values  = new double[group.columns.size()][INITIAL_CAPACITY];
+            this.counts  = new int[group.columns.size()];
+            this.results = new Object[group.operations.size()];
+
+            for (int i = 0; i < results.length; i++)
+            {
+                if (group.operations.get(i) instanceof JsonMappingPlan.NestedArrayOperation)
+                    results[i] = new JSONArray();
+            }
+        }
+
+        void add(JSONObject element) throws JSONException
+        {
+            for (int c = 0; c < counts.length; c++)
+            {
+                double value = group.columns.get(c).value(element);
+
+                if (Double.isNaN(value))
+                    continue;
+
+                if (counts[c] == values[c].length)
+                    values[c] = Arrays.copyOf(values[c], counts[c] * 2);
+
+                values[c][counts[c]++] = value;
+            }
+
+            for (int i = 0; i < results.length; i++)
+            {
+                JsonMappingPlan.Operation operation = group.operations.get(i);
+
+                if (operation instanceof JsonMappingPlan.LastOperation)
+                    results[i] = element.opt(operation.oldKey);
+                else if (operation instanceof JsonMappingPlan.NestedArrayOperation)
+                    ((JSONArray) results[i]).put(((JsonMappingPlan.NestedArrayOperation) operation).mapElement(element, length));
+            }
+
+            length++;
+        }
+
+        void emit(JSONObject mapped) throws JSONException
+        {
+            JsonMappingAggregate[] aggregates = new JsonMappingAggregate[counts.length];
+
+            for (int i = 0; i < results.length; i++)
+            {
+                JsonMappingPlan.Operation operation = group.operations.get(i);
+
+                if (operation instanceof JsonMappingPlan.StatisticOperation)
+                {
+                    JsonMappingPlan.StatisticOperation statistic = (JsonMappingPlan.StatisticOperation) operation;
+
+                    if (aggregates[statistic.column] == null)
+                        aggregates[statistic.column] = new JsonMappingAggregate(values[statistic.column], counts[statistic.column]);
+
+                    statistic.emit(aggregates[statistic.column], length, mapped);
+                    continue;
+                }
+
+                if (operation instanceof JsonMappingPlan.LastOperation)
+                {
+                    if (length == 0)
+                        continue;
+
+                    mapped.put(operation.newKey, results[i]);
+                } else if (operation instanceof JsonMappingPlan.NestedArrayOperation)
+                {
+                    mapped.put(operation.newKey, results[i].toString());
+                }
+
+                operation.finish(mapped);
+            }
+        }
+    }
+
+    private static Object readValue(JsonReader reader) throws IOException, JSONException
+    {
+        switch (reader.peek())
+        {
+            case BEGIN_OBJECT:
+            {
+                JSONObject object = new JSONObject();
+
+                reader.beginObject();
+                while (reader.hasNext())
+                {
+                    String name = reader.nextName();
+                    object.put(name, readValue(reader));
+                }
+                reader.endObject();
+
+                return object;
+            }
+            case BEGIN_ARRAY:
+            {
+                JSONArray array = new JSONArray();
+
+                reader.beginArray();
+                while (reader.hasNext())
+                {
+                    array.put(readValue(reader));
+                }
+                reader.endArray();
+
+                return array;
+            }
+            case NUMBER:
+                return parseNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                return reader.nextString();
+        }
+    }
+
+    private static Object parseNumber(String literal)
+    {
+        if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0)
+        {
+            try
+            {
+                long value = Long.parseLong(literal);
+
+                if (value <= Integer.MAX_VALUE && value >= Integer.MIN_VALUE)
+                    return (int) value;
+
+                return value;
+            } catch (NumberFormatException ignored)
+            {
+            }
+        }
+
+        return Double.valueOf(literal);
+    }
+}
@@ -16,15 +16,20 @@
 
 package com.zafaco.moduleCommon;
 
+import android.content.Context;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.google.gson.Gson;
+import com.zafaco.moduleCommon.interfaces.LogSink;
 
 import org.json.JSONObject;
 
+import java.io.File;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 
 public class Log
@@ -32,6 +37,23 @@ public class Log
 
     private static final String TAG = "LOGGER";
 
+    private static final ThreadLocal<LogRecord> localRecord = new ThreadLocal<LogRecord>()
+    {
+        @Override
+        protected LogRecord initialValue()
+        {
+            return new LogRecord();
+        }
+    };
+
+    private static volatile LogConfig     config        = new LogConfig();
+    private static volatile int           floorPriority = config.minPriority();
+    private static volatile LogSink       sink          = new LogcatSink();
+    private static volatile LogRingBuffer ringBuffer;
+
+    private static final LogRateLimiter rateLimiter = new LogRateLimiter();
+
+
     public static void error(@NonNull Throwable ex)
     {
         error(TAG, ex);
@@ -76,22 +98,7 @@ public class Log
 
     public static void error(@NonNull String tag, @NonNull String msg, Throwable ex, Object object, HashMap<String, String> tags)
     {
-
-        HashMap<String, Object> extras    = new HashMap<>();
-        StringBuilder           mapString = null;
-        if (object != null)
-        {
-            if (object instanceof JSONObject)
-            {
-                extras = new Gson().fromJson(object.toString(), HashMap.class);
-            } else if (object instanceof HashMap)
-            {
-                extras = (HashMap) object;
-            }
-
-            mapString = getExtrasString(extras);
-        }
-        androidLogError(tag, getLogString(tag, msg, mapString, ex));
+        log(LogLevel.ERROR, tag, msg, object, ex);
     }
 
 
@@ -133,21 +140,7 @@ public class Log
 
     public static void warning(String tag, String msg, @Nullable Object object, @Nullable Throwable ex, @Nullable HashMap<String, String> tags)
     {
-        HashMap<String, Object> extras    = new HashMap<>();
-        StringBuilder           mapString = null;
-        if (object != null)
-        {
-            if (object instanceof JSONObject)
-            {
-                extras = new Gson().fromJson(object.toString(), HashMap.class);
-            } else if (object instanceof HashMap)
-            {
-                extras = (HashMap) object;
-            }
-
-            mapString = getExtrasString(extras);
-        }
-        androidLogWarning(tag, getLogString(tag, msg, mapString, ex));
+        log(LogLevel.WARNING, tag, msg, object, ex);
     }
 
 
@@ -171,24 +164,7 @@ public class Log
 
     public static void debug(String tag, String msg, @Nullable Object object, @Nullable HashMap<String, String> tags)
     {
-        if (!BuildConfig.DEBUG)
-            return;
-        HashMap<String, Object> extras    = new HashMap<>();
-        StringBuilder           mapString = null;
-        if (object != null)
-        {
-            extras = new HashMap<>();
-            if (object instanceof JSONObject)
-            {
-                extras = new Gson().fromJson(object.toString(), HashMap.class);
-            } else if (object instanceof HashMap)
-            {
-                extras = (HashMap<String, Object>) object;
-            }
-            mapString = getExtrasString(extras);
-        }
-
-        androidLogDebug(tag, getLogString(tag, msg, mapString, null));
+        log(LogLevel.DEBUG, tag, msg, object, null);
     }
 
 
@@ -218,76 +194,504 @@ public class Log
 
     public static void info(String tag, String msg, Object object, Throwable ex, HashMap<String, String> tags)
     {
-        HashMap<String, Object> extras    = new HashMap<>();
-        StringBuilder           mapString = null;
-        if (object != null)
+        log(LogLevel.INFO, tag, msg, object, ex);
+    }
+
+
+    public static void debugf(String tag, String format, Object arg0)
+    {
+        if (!isLoggable(LogLevel.DEBUG, tag))
+            return;
+
+        LogRecord record = obtain(LogLevel.DEBUG, tag, format, true);
+        if (record == null)
+            return;
+
+        int pos = 0;
+        try
+        {
+            pos = appendArg(record.text, format, pos, arg0);
+        } finally
+        {
+            emit(record, format, pos);
+        }
+    }
+
+
+    public static void debugf(String tag, String format, Object arg0, Object arg1)
+    {
+        if (!isLoggable(LogLevel.DEBUG, tag))
+            return;
+
+        LogRecord record = obtain(LogLevel.DEBUG, tag, format, true);
+        if (record == null)
+            return;
+
+        int pos = 0;
+        try
+        {
+            pos = appendArg(record.text, format, pos, arg0);
+            pos = appendArg(record.text, format, pos, arg1);
+        } finally
+        {
+            emit(record, format, pos);
+        }
+    }
+
+
+    public static void debugf(String tag, String format, long arg0)
+    {
+        if (!isLoggable(LogLevel.DEBUG, tag))
+            return;
+
+        LogRecord record = obtain(LogLevel.DEBUG, tag, format, true);
+        if (record == null)
+            return;
+
+        int pos = 0;
+        try
+        {
+            pos = appendArg(record.text, format, pos, arg0);
+        } finally
+        {
+            emit(record, format, pos);
+        }
+    }
+
+
+    public static void debugf(String tag, String format, long arg0, long arg1)
+    {
+        if (!isLoggable(LogLevel.DEBUG, tag))
+            return;
+
+        LogRecord record = obtain(LogLevel.DEBUG, tag, format, true);
+        if (record == null)
+            return;
+
+        int pos = 0;
+        try
+        {
+            pos = appendArg(record.text, format, pos, arg0);
+            pos = appendArg(record.text, format, pos, arg1);
+        } finally
+        {
+            emit(record, format, pos);
+        }
+    }
+
+
+    public static void infof(String tag, String format, Object arg0)
+    {
+        if (!isLoggable(LogLevel.INFO, tag))
+            return;
+
+        LogRecord record = obtain(LogLevel.INFO, tag, format, true);
+        if (record == null)
+            return;
+
+        int pos = 0;
+        try
+        {
+            pos = appendArg(record.text, format, pos, arg0);
+        } finally
+        {
+            emit(record, format, pos);
+        }
+    }
+
+
+    public static void infof(String tag, String format, Object arg0, Object arg1)
+    {
+        if (!isLoggable(LogLevel.INFO, tag))
+            return;
+
+        LogRecord record = obtain(LogLevel.INFO, tag, format, true);
+        if (record == null)
+            return;
+
+        int pos = 0;
+        try
+        {
+            pos = appendArg(record.text, format, pos, arg0);
+            pos = appendArg(record.text, format, pos, arg1);
+        } finally
+        {
+            emit(record, format, pos);
+        }
+    }
+
+
+    public static void infof(String tag, String format, long arg0)
+    {
+        if (!isLoggable(LogLevel.INFO, tag))
+            return;
+
+        LogRecord record = obtain(LogLevel.INFO, tag, format, true);
+        if (record == null)
+            return;
+
+        int pos = 0;
+        try
+        {
+            pos = appendArg(record.text, format, pos, arg0);
+        } finally
+        {
+            emit(record, format, pos);
+        }
+    }
+
+
+    public static void warningf(String tag, String format, Object arg0)
+    {
+        if (!isLoggable(LogLevel.WARNING, tag))
+            return;
+
+        LogRecord record = obtain(LogLevel.WARNING, tag, format, true);
+        if (record == null)
+            return;
+
+        int pos = 0;
+        try
+        {
+            pos = appendArg(record.text, format, pos, arg0);
+        } finally
+        {
+            emit(record, format, pos);
+        }
+    }
+
+
+    public static void warningf(String tag, String format, Object arg0, Object arg1)
+    {
+        if (!isLoggable(LogLevel.WARNING, tag))
+            return;
+
+        LogRecord record = obtain(LogLevel.WARNING, tag, format, true);
+        if (record == null)
+            return;
+
+        int pos = 0;
+        try
+        {
+            pos = appendArg(record.text, format, pos, arg0);
+            pos = appendArg(record.text, format, pos, arg1);
+        } finally
+        {
+            emit(record, format, pos);
+        }
+    }
+
+
+    public static void errorf(String tag, String format, Object arg0)
+    {
+        if (!isLoggable(LogLevel.ERROR, tag))
+            return;
+
+        LogRecord record = obtain(LogLevel.ERROR, tag, format, true);
+        if (record == null)
+            return;
+
+        int pos = 0;
+        try
         {
+            pos = appendArg(record.text, format, pos, arg0);
+        } finally
+        {
+            emit(record, format, pos);
+        }
+    }
+
+
+    public static void errorf(String tag, String format, Object arg0, Object arg1)
+    {
+        if (!isLoggable(LogLevel.ERROR, tag))
+            return;
+
+        LogRecord record = obtain(LogLevel.ERROR, tag, format, true);
+        if (record == null)
+            return;
+
+        int pos = 0;
+        try
+        {
+            pos = appendArg(record.text, format, pos, arg0);
+            pos = appendArg(record.text, format, pos, arg1);
+        } finally
+        {
+            emit(record, format, pos);
+        }
+    }
+
+
+    public static boolean isLoggable(LogLevel level, String tag)
+    {
+        if (level.priority < floorPriority)
+            return false;
+
+        LogConfig current = config;
+        if (level.priority < current.priorityFor(tag))
+            return false;
+
+        if (level == LogLevel.DEBUG && current.getDebugSampleRate() < 1.0)
+            return ThreadLocalRandom.current().nextDouble() < current.getDebugSampleRate();
+
+        return true;
+    }
+
+
+    public static synchronized void setConfig(@NonNull LogConfig logConfig)
+    {
+        LogConfig copy = new LogConfig(logConfig);
+
+        rateLimiter.configure(copy.getRateLimitWindowMs(), copy.getMaxPerMessage(), copy.getMaxPerTag());
+
+        config        = copy;
+        floorPriority = copy.minPriority();
+    }
+
+
+    public static LogConfig getConfig()
+    {
+        return new LogConfig(config);
+    }
+
+
+    public static boolean configure(Context ctx, String path)
+    {
+        JSONObject json = JsonAssetCache.getShared().peek(ctx, path);
+        if (json == null)
+            return false;
+
+        setConfig(LogConfig.fromJSON(json));
+        return true;
+    }
+
+
+    public static synchronized void setLevel(LogLevel level)
+    {
+        setConfig(new LogConfig(config).setLevel(level));
+    }
+
+
+    public static synchronized void setTagLevel(String tag, LogLevel level)
+    {
+        setConfig(new LogConfig(config).setTagLevel(tag, level));
+    }
+
+
+    public static synchronized void setDebugSampleRate(double rate)
+    {
+        setConfig(new LogConfig(config).setDebugSampleRate(rate));
+    }
+
+
+    public static void setSink(@NonNull LogSink logSink)
+    {
+        sink = logSink;
+
+        LogRingBuffer buffer = ringBuffer;
+        if (buffer != null)
+            buffer.setSink(logSink);
+    }
+
+
+    public static synchronized void setRateLimit(long windowMs, int maxPerMessage, int maxPerTag)
+    {
+        setConfig(new LogConfig(config).setRateLimit(windowMs, maxPerMessage, maxPerTag));
+    }
+
+
+    public static void disableRateLimit()
+    {
+        setRateLimit(0, 0, 0);
+    }
+
+
+    public static long getSuppressedRecords()
+    {
+        return rateLimiter.getSuppressedTotal();
+    }
+
+
+    public static LogFileSink enableFileLogging(@NonNull File directory)
+    {
+        LogFileSink fileSink = new LogFileSink(directory);
+        setSink(new LogTeeSink(new LogcatSink(), fileSink));
+        return fileSink;
+    }
+
+
+    public static LogSink getSink()
+    {
+        return sink;
+    }
+
+
+    public static synchronized void enableAsync(int capacity)
+    {
+        if (ringBuffer != null)
+            return;
+
+        LogRingBuffer buffer = new LogRingBuffer(capacity, sink);
+        buffer.start();
+        ringBuffer = buffer;
+    }
+
+
+    public static synchronized void disableAsync()
+    {
+        LogRingBuffer buffer = ringBuffer;
+        if (buffer == null)
+            return;
+
+        ringBuffer = null;
+        buffer.stop();
+    }
+
+
+    public static long getDroppedRecords()
+    {
+        LogRingBuffer buffer = ringBuffer;
+        return (buffer != null) ? buffer.getDropped() : 0;
+    }
+
+
+    private static void log(LogLevel level, String tag, String msg, @Nullable Object object, @Nullable Throwable ex)
+    {
+        if (!isLoggable(level, tag))
+            return;
+
+        LogRecord record = obtain(level, tag, msg, false);
+        if (record == null)
+            return;
+
+        StringBuilder text = record.text;
+        try
+        {
+            text.append("##### ").append(tag).append(" ##### \n");
+            text.append(msg).append("\n");
+
             if (object instanceof JSONObject)
             {
-                extras = new Gson().fromJson(object.toString(), HashMap.class);
-            } else if (object instanceof HashMap)
+                appendExtras(text, (JSONObject) object);
+                text.append("\n");
+            } else if (object instanceof Map)
             {
-                extras = (HashMap<String, Object>) object;
+                appendExtras(text, (Map<?, ?>) object);
+                text.append("\n");
             }
-            mapString = getExtrasString(extras);
-        }
 
-        androidLogInfo(tag, getLogString(tag, msg, mapString, ex));
+            if (ex != null)
+            {
+                if (BuildConfig.DEBUG)
+                    text.append(android.util.Log.getStackTraceString(ex));
+                else
+                    text.append(ex.getMessage());
+            }
+        } finally
+        {
+            publish(record);
+        }
     }
 
-
-    private static StringBuilder getExtrasString(HashMap<String, Object> extras)
+    private static LogRecord obtain(LogLevel level, String tag, String key, boolean template)
     {
-        StringBuilder mapString = new StringBuilder();
-        for (Map.Entry<String, Object> entry : extras.entrySet())
-        {
-            mapString.append(entry.getKey()).append(" = ");
+        LogRateLimiter.Window window = rateLimiter.acquire(level, tag, key, template);
+        if (window == null)
+            return null;
 
-            if (entry.getValue() != null)
-                mapString.append(entry.getValue().toString());
+        LogRecord     record;
+        LogRingBuffer buffer = ringBuffer;
+
+        record = (buffer != null) ? buffer.claim() : null;
+
+        if (record == null)
+        {
+            if (buffer != null && level.priority < LogLevel.WARNING.priority)
+                return null;
 
-            mapString.append("\n");
+            record = localRecord.get();
+            if (record.inUse)
+                record = new LogRecord();
+            record.inUse = true;
         }
 
-        return mapString;
+        record.begin(level, tag);
+        LogRateLimiter.drain(window, record);
+        return record;
+    }
+
+    private static void emit(LogRecord record, String format, int pos)
+    {
+        record.text.append(format, pos, format.length());
+        publish(record);
     }
 
-    private static String getLogString(@NonNull String tag, @NonNull String msg, @Nullable StringBuilder extras, @Nullable Throwable ex)
+    private static void publish(LogRecord record)
     {
-        StringBuilder string = new StringBuilder();
-        string.append("##### ").append(tag).append(" ##### \n");
-        string.append(msg).append("\n");
-        if (extras != null)
-            string.append(extras).append("\n");
+        if (record.suppressedMessages > 0)
+            record.text.append("\n(suppressed ").append(record.suppressedMessages).append(" identical messages)");
+        if (record.suppressedTag > 0)
+            record.text.append("\n(suppressed ").append(record.suppressedTag).append(" messages for this tag)");
 
-        if (ex != null)
+        if (record.owner != null)
         {
-            if (BuildConfig.DEBUG)
-                string.append(android.util.Log.getStackTraceString(ex));
-            else
-                string.append(ex.getMessage());
+            record.owner.publish(record);
+            return;
         }
 
-        return string.toString();
+        try
+        {
+            sink.write(record);
+        } finally
+        {
+            record.inUse = false;
+        }
     }
 
-    private static void androidLogDebug(String tag, String msg)
+    private static int appendArg(StringBuilder text, String format, int pos, Object arg)
     {
-        android.util.Log.d(tag, msg);
+        int index = format.indexOf("{}", pos);
+        if (index < 0)
+            return pos;
+
+        String value = String.valueOf(arg);
+        text.append(format, pos, index).append(value);
+        return index + 2;
     }
 
-    private static void androidLogInfo(String tag, String msg)
+    private static int appendArg(StringBuilder text, String format, int pos, long arg)
     {
-        android.util.Log.i(tag, msg);
+        int index = format.indexOf("{}", pos);
+        if (index < 0)
+            return pos;
+
+        text.append(format, pos, index).append(arg);
+        return index + 2;
     }
 
-    private static void androidLogWarning(String tag, String msg)
+    private static void appendExtras(StringBuilder text, JSONObject extras)
     {
-        android.util.Log.w(tag, msg);
+        for (Iterator<String> iter = extras.keys(); iter.hasNext(); )
+        {
+            String key   = iter.next();
+            Object value = extras.opt(key);
+
+            text.append(key).append(" = ");
+            if (value != null)
+                text.append(value);
+            text.append("\n");
+        }
     }
 
-    private static void androidLogError(String tag, String msg)
+    private static void appendExtras(StringBuilder text, Map<?, ?> extras)
     {
-        android.util.Log.e(tag, msg);
+        for (Map.Entry<?, ?> entry : extras.entrySet())
+        {
+            text.append(entry.getKey()).append(" = ");
+            if (entry.getValue() != null)
+                text.append(entry.getValue());
+            text.append("\n");
+        }
     }
 }
@@ -0,0 +1,189 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+public class LogConfig
+{
+    private static final String TAG = "LogConfig";
+
+    static final int PRIORITY_OFF = Integer.MAX_VALUE;
+
+    private int                      priority          = BuildConfig.DEBUG ? LogLevel.DEBUG.priority : LogLevel.INFO.priority;
+    private HashMap<String, Integer> tagPriorities     = new HashMap<>();
+    private double                   debugSampleRate   = 1.0;
+    private long                     rateLimitWindowMs = 0;
+    private int                      maxPerMessage     = LogRateLimiter.DEFAULT_MAX_PER_MESSAGE;
+    private int                      maxPerTag         = LogRateLimiter.DEFAULT_MAX_PER_TAG;
+
+    public LogConfig()
+    {
+    }
+
+    public LogConfig(LogConfig other)
+    {
+        priority          = other.priority;
+        tagPriorities     = new HashMap<>(other.tagPriorities);
+        debugSampleRate   = other.debugSampleRate;
+        rateLimitWindowMs = other.rateLimitWindowMs;
+        maxPerMessage     = other.maxPerMessage;
+        maxPerTag         = other.maxPerTag;
+    }
+
+    public static LogConfig fromJSON(JSONObject json)
+    {
+        LogConfig config = new LogConfig();
+
+        if (json == null)
+            return config;
+
+        if (json.has("level"))
+            config.priority = parsePriority(json.optString("level"), config.priority);
+
+        JSONObject tags = json.optJSONObject("tags");
+        if (tags != null)
+        {
+            for (Iterator<String> iter = tags.keys(); iter.hasNext(); )
+            {
+                String tag = iter.next();
+                config.tagPriorities.put(tag, parsePriority(tags.optString(tag), config.priority));
+            }
+        }
+
+        config.setDebugSampleRate(json.optDouble("debug_sampling", config.debugSampleRate));
+
+        JSONObject rateLimit = json.optJSONObject("rate_limit");
+        if (rateLimit != null)
+        {
+            config.rateLimitWindowMs = rateLimit.optLong("window_ms", LogRateLimiter.DEFAULT_WINDOW_MS);
+            config.maxPerMessage     = rateLimit.optInt("max_per_message", config.maxPerMessage);
+            config.maxPerTag         = rateLimit.optInt("max_per_tag", config.maxPerTag);
+        }
+
+        return config;
+    }
+
+    static int parsePriority(String level, int fallback)
+    {
+        if (level == null)
+            return fallback;
+
+        switch (level.trim().toLowerCase(Locale.ROOT))
+        {
+            case "debug":
+            case "verbose":
+                return LogLevel.DEBUG.priority;
+            case "info":
+                return LogLevel.INFO.priority;
+            case "warn":
+            case "warning":
+                return LogLevel.WARNING.priority;
+            case "error":
+                return LogLevel.ERROR.priority;
+            case "off":
+            case "none":
+                return PRIORITY_OFF;
+            default:
+                android.util.Log.w(TAG, "parsePriority: unknown level " + level);
+                return fallback;
+        }
+    }
+
+    public LogConfig setLevel(LogLevel level)
+    {
+        priority = (level != null) ? level.priority : PRIORITY_OFF;
+        return this;
+    }
+
+    public LogConfig setTagLevel(String tag, LogLevel level)
+    {
+        tagPriorities.put(tag, (level != null) ? level.priority : PRIORITY_OFF);
+        return this;
+    }
+
+    public LogConfig clearTagLevel(String tag)
+    {
+        tagPriorities.remove(tag);
+        return this;
+    }
+
+    public LogConfig setDebugSampleRate(double debugSampleRate)
+    {
+        this.debugSampleRate = Double.isNaN(debugSampleRate) ? 1.0 : Math.max(0.0, Math.min(1.0, debugSampleRate));
+        return this;
+    }
+
+    public LogConfig setRateLimit(long windowMs, int maxPerMessage, int maxPerTag)
+    {
+        this.rateLimitWindowMs = windowMs;
+        this.maxPerMessage     = maxPerMessage;
+        this.maxPerTag         = maxPerTag;
+        return this;
+    }
+
+    public double getDebugSampleRate()
+    {
+        return debugSampleRate;
+    }
+
+    public long getRateLimitWindowMs()
+    {
+        return rateLimitWindowMs;
+    }
+
+    public int getMaxPerMessage()
+    {
+        return maxPerMessage;
+    }
+
+    public int getMaxPerTag()
+    {
+        return maxPerTag;
+    }
+
+    public Map<String, Integer> getTagPriorities()
+    {
+        return Collections.unmodifiableMap(tagPriorities);
+    }
+
+    int priorityFor(String tag)
+    {
+        if (tagPriorities.isEmpty() || tag == null)
+            return priority;
+
+        Integer tagPriority = tagPriorities.get(tag);
+        return (tagPriority != null) ? tagPriority : priority;
+    }
+
+    int minPriority()
+    {
+        int min = priority;
+        for (int tagPriority : tagPriorities.values())
+        {
+            min = Math.min(min, tagPriority);
+        }
+        return min;
+    }
+}
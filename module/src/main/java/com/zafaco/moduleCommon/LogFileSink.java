@@ -0,0 +1,363 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+import com.zafaco.moduleCommon.interfaces.LogSink;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPOutputStream;
+
+public class LogFileSink implements LogSink
+{
+    private static final String TAG = "LogFileSink";
+
+    static final int    MAGIC          = 0x5A4C4F47;
+    static final byte   VERSION        = 1;
+    static final int    HEADER_SIZE    = 8;
+    static final int    RECORD_FIXED   = 4 + 8 + 8 + 1 + 2;
+    static final String SEGMENT_PREFIX = "log-";
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String GZIP_SUFFIX    = ".gz";
+
+    public static final int DEFAULT_SEGMENT_SIZE = 1024 * 1024;
+    public static final int DEFAULT_MAX_SEGMENTS = 8;
+    public static final int MAX_TAG_BYTES        = 128;
+
+    private final File    directory;
+    private final int     segmentSize;
+    private final int     maxSegments;
+    private final boolean compress;
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                                                                 .onMalformedInput(CodingErrorAction.REPLACE)
+                                                                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private final ExecutorService compressor;
+
+    private MappedByteBuffer buffer;
+    private File             activeFile;
+    private long             segmentIndex;
+
+    private long recordsWritten   = 0;
+    private long recordsTruncated = 0;
+    private long rotations        = 0;
+
+    public LogFileSink(File directory)
+    {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_SEGMENTS, true);
+    }
+
+    public LogFileSink(File directory, int segmentSize, int maxSegments, boolean compress)
+    {
+        this.directory   = directory;
+        this.segmentSize = Math.max(4096, segmentSize);
+        this.maxSegments = Math.max(1, maxSegments);
+        this.compress    = compress;
+
+        compressor = compress ? Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, TAG);
+                thread.setDaemon(true);
+                return thread;
+            }
+        }) : null;
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+            android.util.Log.w(TAG, "LogFileSink: could not create " + directory);
+
+        segmentIndex = findLastSegmentIndex();
+    }
+
+    @Override
+    public synchronized void write(LogRecord record)
+    {
+        try
+        {
+            if (buffer == null)
+                openSegment();
+
+            if (!encode(record))
+            {
+                rotate();
+                if (!encode(record))
+                    recordsTruncated++;
+            }
+        } catch (IOException ex)
+        {
+            android.util.Log.w(TAG, "write: failed", ex);
+            buffer = null;
+        }
+    }
+
+    @Override
+    public synchronized void flush()
+    {
+        if (buffer != null)
+            buffer.force();
+    }
+
+    public synchronized void close()
+    {
+        closeSegment();
+
+        if (compressor != null)
+            compressor.shutdown();
+    }
+
+    public synchronized long getRecordsWritten()
+    {
+        return recordsWritten;
+    }
+
+    public synchronized long getRecordsTruncated()
+    {
+        return recordsTruncated;
+    }
+
+    public synchronized long getRotations()
+    {
+        return rotations;
+    }
+
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    private boolean encode(LogRecord record)
+    {
+        int start = buffer.position();
+
+        if (buffer.remaining() < RECORD_FIXED + MAX_TAG_BYTES + 4)
+            return false;
+
+        buffer.position(start + 4);
+        buffer.putLong(record.timestamp);
+        buffer.putLong(record.threadId);
+        buffer.put((byte) record.level.priority);
+
+        int tagLengthPos = buffer.position();
+        buffer.position(tagLengthPos + 2);
+
+        int tagStart = buffer.position();
+        encodeText(record.tag, tagStart + MAX_TAG_BYTES);
+        buffer.putShort(tagLengthPos, (short) (buffer.position() - tagStart));
+
+        int     textLimit = buffer.limit() - 4;
+        boolean complete  = encodeText(record.text, textLimit);
+
+        if (!complete && start != HEADER_SIZE)
+        {
+            buffer.position(start);
+            buffer.putInt(start, 0);
+            return false;
+        }
+
+        int length = buffer.position() - start - 4;
+        buffer.putInt(start, length);
+        if (buffer.remaining() >= 4)
+            buffer.putInt(buffer.position(), 0);
+
+        recordsWritten++;
+        if (!complete)
+            recordsTruncated++;
+
+        return true;
+    }
+
+    private boolean encodeText(CharSequence text, int limit)
+    {
+        int previousLimit = buffer.limit();
+        buffer.limit(limit);
+
+        encoder.reset();
+        CoderResult result = encoder.encode(CharBuffer.wrap((text != null) ? text : ""), buffer, true);
+        if (!result.isOverflow())
+            result = encoder.flush(buffer);
+
+        buffer.limit(previousLimit);
+        return !result.isOverflow();
+    }
+
+    private void openSegment() throws IOException
+    {
+        segmentIndex++;
+        activeFile = segmentFile(segmentIndex);
+
+        try (RandomAccessFile file = new RandomAccessFile(activeFile, "rw"))
+        {
+            file.setLength(segmentSize);
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.put((byte) 0);
+        buffer.putShort((short) 0);
+        buffer.putInt(HEADER_SIZE, 0);
+    }
+
+    private void rotate() throws IOException
+    {
+        closeSegment();
+        rotations++;
+        openSegment();
+
+        if (!compress)
+            pruneSegments();
+    }
+
+    private void closeSegment()
+    {
+        if (buffer == null)
+            return;
+
+        int length = buffer.position();
+
+        buffer.force();
+        buffer = null;
+
+        try (RandomAccessFile file = new RandomAccessFile(activeFile, "rw"))
+        {
+            file.setLength(length);
+        } catch (IOException ex)
+        {
+            android.util.Log.w(TAG, "closeSegment: could not truncate " + activeFile, ex);
+        }
+
+        if (compress)
+        {
+            final File finished = activeFile;
+            compressor.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    compressSegment(finished);
+                    pruneSegments();
+                }
+            });
+        }
+    }
+
+    private void pruneSegments()
+    {
+        File[] segments = listSegments(directory);
+        for (int i = 0; i < segments.length - maxSegments; i++)
+        {
+            if (!segments[i].delete())
+                android.util.Log.w(TAG, "pruneSegments: could not delete " + segments[i]);
+        }
+    }
+
+    private static void compressSegment(File segment)
+    {
+        File target = new File(segment.getPath() + GZIP_SUFFIX);
+
+        try (InputStream in = new FileInputStream(segment); OutputStream out = new GZIPOutputStream(new FileOutputStream(target)))
+        {
+            byte[] chunk = new byte[8192];
+            int    len;
+
+            while ((len = in.read(chunk)) > 0)
+            {
+                out.write(chunk, 0, len);
+            }
+        } catch (IOException ex)
+        {
+            android.util.Log.w(TAG, "compressSegment: failed for " + segment, ex);
+            if (!target.delete())
+                target.deleteOnExit();
+            return;
+        }
+
+        if (!segment.delete())
+            android.util.Log.w(TAG, "compressSegment: could not delete " + segment);
+    }
+
+    private File segmentFile(long index)
+    {
+        return new File(directory, String.format(Locale.ROOT, "%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private long findLastSegmentIndex()
+    {
+        File[] segments = listSegments(directory);
+        if (segments.length == 0)
+            return 0;
+
+        return segmentIndexOf(segments[segments.length - 1]);
+    }
+
+    static File[] listSegments(File directory)
+    {
+        File[] files = directory.listFiles();
+        if (files == null)
+            return new File[0];
+
+        int count = 0;
+        for (File file : files)
+        {
+            if (segmentIndexOf(file) >= 0)
+                files[count++] = file;
+        }
+
+        File[] segments = Arrays.copyOf(files, count);
+        Arrays.sort(segments, (a, b) -> Long.compare(segmentIndexOf(a), segmentIndexOf(b)));
+        return segments;
+    }
+
+    static long segmentIndexOf(File file)
+    {
+        String name = file.getName();
+        if (name.endsWith(GZIP_SUFFIX))
+            name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX))
+            return -1;
+
+        try
+        {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException ex)
+        {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+public enum LogLevel
+{
+    DEBUG(android.util.Log.DEBUG),
+    INFO(android.util.Log.INFO),
+    WARNING(android.util.Log.WARN),
+    ERROR(android.util.Log.ERROR);
+
+    final int priority;
+
+    LogLevel(int priority)
+    {
+        this.priority = priority;
+    }
+
+    public int getPriority()
+    {
+        return priority;
+    }
+}
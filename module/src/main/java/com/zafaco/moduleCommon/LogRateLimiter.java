@@ -0,0 +1,235 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+final class LogRateLimiter
+{
+    public static final long DEFAULT_WINDOW_MS       = 10000;
+    public static final int  DEFAULT_MAX_PER_MESSAGE = 10;
+    public static final int  DEFAULT_MAX_PER_TAG     = 100;
+
+    private static final int TAG_SLOTS     = 256;
+    private static final int MESSAGE_SLOTS = 1024;
+    private static final int MAX_PROBES    = 8;
+
+    static final Window UNLIMITED = new Window(null, 0, null);
+
+    private final AtomicReferenceArray<Window> tagWindows     = new AtomicReferenceArray<>(TAG_SLOTS);
+    private final AtomicReferenceArray<Window> messageWindows = new AtomicReferenceArray<>(MESSAGE_SLOTS);
+
+    private final AtomicLong suppressedTotal = new AtomicLong(0);
+
+    private volatile long windowNs      = 0;
+    private volatile int  maxPerMessage = DEFAULT_MAX_PER_MESSAGE;
+    private volatile int  maxPerTag     = DEFAULT_MAX_PER_TAG;
+
+    static final class Window
+    {
+        final String tag;
+        final long   key;
+        final Window tagWindow;
+
+        final AtomicLong    start      = new AtomicLong(Long.MIN_VALUE);
+        final AtomicInteger count      = new AtomicInteger(0);
+        final AtomicLong    suppressed = new AtomicLong(0);
+
+        Window(String tag, long key, Window tagWindow)
+        {
+            this.tag       = tag;
+            this.key       = key;
+            this.tagWindow = tagWindow;
+        }
+
+        boolean matches(String tag, long key, Window tagWindow)
+        {
+            return this.key == key && this.tagWindow == tagWindow && this.tag.equals(tag);
+        }
+
+        boolean idle(long now, long windowNs)
+        {
+            long begin = start.get();
+            return suppressed.get() == 0 && (begin == Long.MIN_VALUE || now - begin >= windowNs);
+        }
+
+        boolean tryAcquire(long now, long windowNs, int max)
+        {
+            long begin = start.get();
+            if ((begin == Long.MIN_VALUE || now - begin >= windowNs) && start.compareAndSet(begin, now))
+                count.set(0);
+
+            if (count.incrementAndGet() <= max)
+                return true;
+
+            suppressed.incrementAndGet();
+            return false;
+        }
+    }
+
+    void configure(long windowMs, int maxPerMessage, int maxPerTag)
+    {
+        this.maxPerMessage = maxPerMessage;
+        this.maxPerTag     = maxPerTag;
+        this.windowNs      = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMs));
+    }
+
+    Window acquire(LogLevel level, String tag, String message, boolean template)
+    {
+        long window = windowNs;
+        if (window <= 0 || tag == null || level == LogLevel.ERROR)
+            return UNLIMITED;
+
+        long   now           = System.nanoTime();
+        Window tagWindow     = lookup(tagWindows, tag, tag.hashCode(), null, now, window);
+        long   key           = template ? templateKey(tag, message) : fingerprint(tag, message);
+        Window messageWindow = lookup(messageWindows, tag, key, tagWindow, now, window);
+
+        if (maxPerMessage > 0 && !messageWindow.tryAcquire(now, window, maxPerMessage))
+        {
+            suppressedTotal.incrementAndGet();
+            return null;
+        }
+
+        if (maxPerTag > 0 && !tagWindow.tryAcquire(now, window, maxPerTag))
+        {
+            suppressedTotal.incrementAndGet();
+            return null;
+        }
+
+        return messageWindow;
+    }
+
+    long getSuppressedTotal()
+    {
+        return suppressedTotal.get();
+    }
+
+    void reset()
+    {
+        for (int i = 0; i < MESSAGE_SLOTS; i++)
+        {
+            messageWindows.set(i, null);
+        }
+        for (int i = 0; i < TAG_SLOTS; i++)
+        {
+            tagWindows.set(i, null);
+        }
+        suppressedTotal.set(0);
+    }
+
+    static void drain(Window window, LogRecord record)
+    {
+        if (window == UNLIMITED)
+            return;
+
+        record.suppressedMessages = window.suppressed.getAndSet(0);
+        record.suppressedTag      = window.tagWindow.suppressed.getAndSet(0);
+    }
+
+    static long templateKey(String tag, String template)
+    {
+        return mix(((long) tag.hashCode() << 32) ^ ((template != null) ? template.hashCode() : 0));
+    }
+
+    static long fingerprint(String tag, String message)
+    {
+        long    hash   = 0xcbf29ce484222325L ^ tag.hashCode();
+        boolean digits = false;
+
+        if (message == null)
+            return mix(hash);
+
+        for (int i = 0; i < message.length(); i++)
+        {
+            char c = message.charAt(i);
+
+            if (c >= '0' && c <= '9')
+            {
+                if (digits)
+                    continue;
+
+                digits = true;
+                c      = '#';
+            } else
+            {
+                digits = false;
+            }
+
+            hash = (hash ^ c) * 0x100000001b3L;
+        }
+
+        return mix(hash);
+    }
+
+    private static Window lookup(AtomicReferenceArray<Window> table, String tag, long key, Window tagWindow, long now, long windowNs)
+    {
+        int mask   = table.length() - 1;
+        int home   = (int) mix(key) & mask;
+        int victim = -1;
+
+        for (int i = 0; i < MAX_PROBES; i++)
+        {
+            int    slot    = (home + i) & mask;
+            Window current = table.get(slot);
+
+            if (current == null)
+            {
+                Window created = new Window(tag, key, tagWindow);
+                if (table.compareAndSet(slot, null, created))
+                    return created;
+
+                current = table.get(slot);
+            }
+
+            if (current.matches(tag, key, tagWindow))
+                return current;
+
+            if (victim < 0 && current.idle(now, windowNs))
+                victim = slot;
+        }
+
+        int    slot    = (victim >= 0) ? victim : home;
+        Window evicted = table.get(slot);
+        Window created = new Window(tag, key, tagWindow);
+
+        if (!table.compareAndSet(slot, evicted, created))
+        {
+            Window winner = table.get(slot);
+            return (winner != null && winner.matches(tag, key, tagWindow)) ? winner : created;
+        }
+
+        if (evicted != null && evicted.tagWindow != null)
+            evicted.tagWindow.suppressed.addAndGet(evicted.suppressed.getAndSet(0));
+
+        return created;
+    }
+
+    private static long mix(long hash)
+    {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+public final class LogRecord
+{
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    final StringBuilder text  = new StringBuilder(256);
+    final LogRingBuffer owner;
+
+    LogLevel level;
+    String   tag;
+    long     timestamp;
+    long     threadId;
+    long     suppressedMessages;
+    long     suppressedTag;
+
+    volatile long sequence = -1;
+    long          claimed  = -1;
+    boolean       inUse    = false;
+
+    LogRecord()
+    {
+        this(null);
+    }
+
+    LogRecord(LogRingBuffer owner)
+    {
+        this.owner = owner;
+    }
+
+    void begin(LogLevel level, String tag)
+    {
+        this.level     = level;
+        this.tag       = tag;
+        this.timestamp = System.currentTimeMillis();
+        this.threadId  = Thread.currentThread().getId();
+
+        suppressedMessages = 0;
+        suppressedTag      = 0;
+
+        if (text.capacity() > MAX_RETAINED_CAPACITY)
+        {
+            text.setLength(MAX_RETAINED_CAPACITY);
+            text.trimToSize();
+        }
+        text.setLength(0);
+    }
+
+    public LogLevel getLevel()
+    {
+        return level;
+    }
+
+    public String getTag()
+    {
+        return tag;
+    }
+
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+
+    public long getThreadId()
+    {
+        return threadId;
+    }
+
+    public long getSuppressedMessages()
+    {
+        return suppressedMessages;
+    }
+
+    public long getSuppressedTag()
+    {
+        return suppressedTag;
+    }
+
+    public CharSequence getText()
+    {
+        return text;
+    }
+}
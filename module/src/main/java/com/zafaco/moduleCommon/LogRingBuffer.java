@@ -0,0 +1,206 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+import com.zafaco.moduleCommon.interfaces.LogSink;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+final class LogRingBuffer
+{
+    private static final String TAG = "LogRingBuffer";
+
+    private static final long IDLE_PARK_NS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final LogRecord[] records;
+    private final int         mask;
+    private final AtomicLong  head    = new AtomicLong(0);
+    private final AtomicLong  dropped = new AtomicLong(0);
+
+    private volatile long    tail    = 0;
+    private volatile boolean running = false;
+    private volatile boolean parked  = false;
+    private volatile LogSink sink;
+    private volatile Thread  consumer;
+
+    private long reportedDropped = 0;
+
+    LogRingBuffer(int capacity, LogSink sink)
+    {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+
+        records = new LogRecord[size];
+        mask    = size - 1;
+
+        for (int i = 0; i < size; i++)
+        {
+            records[i] = new LogRecord(this);
+        }
+
+        this.sink = sink;
+    }
+
+    void setSink(LogSink sink)
+    {
+        this.sink = sink;
+    }
+
+    synchronized void start()
+    {
+        if (running)
+            return;
+
+        running  = true;
+        consumer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                drainLoop();
+            }
+        }, TAG);
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    synchronized void stop()
+    {
+        if (!running)
+            return;
+
+        running = false;
+        LockSupport.unpark(consumer);
+
+        try
+        {
+            consumer.join();
+        } catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        consumer = null;
+    }
+
+    LogRecord claim()
+    {
+        while (true)
+        {
+            long seq = head.get();
+
+            if (seq - tail >= records.length)
+            {
+                dropped.incrementAndGet();
+                return null;
+            }
+
+            if (head.compareAndSet(seq, seq + 1))
+            {
+                LogRecord record = records[(int) (seq & mask)];
+                record.sequence = -1;
+                record.claimed  = seq;
+                record.inUse    = true;
+                return record;
+            }
+        }
+    }
+
+    void publish(LogRecord record)
+    {
+        record.inUse    = false;
+        record.sequence = record.claimed;
+
+        if (parked)
+            LockSupport.unpark(consumer);
+    }
+
+    long getDropped()
+    {
+        return dropped.get();
+    }
+
+    int getCapacity()
+    {
+        return records.length;
+    }
+
+    private void drainLoop()
+    {
+        while (true)
+        {
+            long      seq    = tail;
+            LogRecord record = records[(int) (seq & mask)];
+
+            if (seq < head.get() && record.sequence == seq)
+            {
+                write(record);
+                tail = seq + 1;
+                continue;
+            }
+
+            if (!running && seq >= head.get())
+                break;
+
+            reportDropped();
+
+            parked = true;
+            if (seq == tail && (seq >= head.get() || records[(int) (seq & mask)].sequence != seq))
+                LockSupport.parkNanos(this, IDLE_PARK_NS);
+            parked = false;
+        }
+
+        LogSink current = sink;
+        if (current != null)
+            current.flush();
+    }
+
+    private void write(LogRecord record)
+    {
+        LogSink current = sink;
+        if (current == null)
+            return;
+
+        try
+        {
+            current.write(record);
+        } catch (RuntimeException ex)
+        {
+            android.util.Log.w(TAG, "write: sink failed", ex);
+        }
+    }
+
+    private void reportDropped()
+    {
+        long total = dropped.get();
+        if (total == reportedDropped)
+            return;
+
+        LogSink current = sink;
+        if (current != null)
+        {
+            LogRecord record = new LogRecord();
+            record.begin(LogLevel.WARNING, TAG);
+            record.text.append("dropped ").append(total - reportedDropped).append(" log records");
+            write(record);
+        }
+
+        reportedDropped = total;
+    }
+}
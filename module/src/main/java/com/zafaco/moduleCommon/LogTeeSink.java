@@ -0,0 +1,48 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+import com.zafaco.moduleCommon.interfaces.LogSink;
+
+public class LogTeeSink implements LogSink
+{
+    private final LogSink[] sinks;
+
+    public LogTeeSink(LogSink... sinks)
+    {
+        this.sinks = sinks.clone();
+    }
+
+    @Override
+    public void write(LogRecord record)
+    {
+        for (LogSink sink : sinks)
+        {
+            sink.write(record);
+        }
+    }
+
+    @Override
+    public void flush()
+    {
+        for (LogSink sink : sinks)
+        {
+            sink.flush();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.telephony.PhoneStateListener;
+import android.telephony.ServiceState;
+import android.telephony.TelephonyManager;
+
+import com.zafaco.moduleCommon.interfaces.NetworkTypeCallback;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+public class NetworkTypeResolver
+{
+    private static final String TAG = "NetworkTypeResolver";
+
+    public static final long DEFAULT_MAX_AGE_MS = 30000;
+    public static final int  DEFAULT_TIMEOUT_MS = 500;
+
+    private static final NetworkTypeResolver shared = new NetworkTypeResolver();
+
+    private final Object       lock       = new Object();
+    private final NrClassifier classifier = new NrClassifier();
+
+    private long  maxAgeMs   = DEFAULT_MAX_AGE_MS;
+    private int   cachedType = -1;
+    private long  cachedAt   = 0;
+    private long  generation = 0;
+    private Query inFlight;
+
+    private long hits           = 0;
+    private long misses         = 0;
+    private long joined         = 0;
+    private long timeouts       = 0;
+    private long callerTimeouts = 0;
+    private long invalidations  = 0;
+
+    public static NetworkTypeResolver getShared()
+    {
+        return shared;
+    }
+
+    public void setMaxAgeMs(long maxAgeMs)
+    {
+        synchronized (lock)
+        {
+            this.maxAgeMs = Math.max(0, maxAgeMs);
+        }
+    }
+
+    public int getCached()
+    {
+        synchronized (lock)
+        {
+            return isFresh() ? cachedType : -1;
+        }
+    }
+
+    public void invalidate()
+    {
+        synchronized (lock)
+        {
+            cachedAt = 0;
+            generation++;
+            invalidations++;
+        }
+    }
+
+    public void resolve(Context ctx, final NetworkTypeCallback callback)
+    {
+        resolve(ctx, DEFAULT_TIMEOUT_MS).whenComplete(new BiConsumer<Integer, Throwable>()
+        {
+            @Override
+            public void accept(Integer networkTypeId, Throwable ex)
+            {
+                callback.onNetworkType((networkTypeId != null) ? networkTypeId : 0);
+            }
+        });
+    }
+
+    public CompletableFuture<Integer> resolve(Context ctx, int timeout)
+    {
+        Query   query;
+        boolean started = false;
+
+        synchronized (lock)
+        {
+            if (isFresh())
+            {
+                hits++;
+                return CompletableFuture.completedFuture(cachedType);
+            }
+
+            query = inFlight;
+            if (query != null)
+            {
+                joined++;
+            } else
+            {
+                misses++;
+                query    = new Query(ctx, generation, timeout);
+                inFlight = query;
+                started  = true;
+            }
+        }
+
+        if (started)
+            query.start();
+        else
+            query.extend(timeout);
+
+        return query.attach(timeout);
+    }
+
+    private boolean isFresh()
+    {
+        return cachedAt != 0 && SystemClock.elapsedRealtime() - cachedAt <= maxAgeMs;
+    }
+
+    private void complete(Query query, int networkTypeId, boolean timedOut)
+    {
+        synchronized (lock)
+        {
+            if (timedOut)
+                timeouts++;
+
+            if (!timedOut && query.generation == generation)
+            {
+                cachedType = networkTypeId;
+                cachedAt   = SystemClock.elapsedRealtime();
+            }
+
+            if (inFlight == query)
+                inFlight = null;
+        }
+
+        query.future.complete(networkTypeId);
+    }
+
+    public LinkedHashMap<String, String> getMetrics()
+    {
+        LinkedHashMap<String, String> metrics = new LinkedHashMap<>();
+
+        synchronized (lock)
+        {
+            metrics.put("cachedType", Integer.toString(cachedType));
+            metrics.put("fresh", Boolean.toString(isFresh()));
+            metrics.put("maxAgeMs", Long.toString(maxAgeMs));
+            metrics.put("hits", Long.toString(hits));
+            metrics.put("misses", Long.toString(misses));
+            metrics.put("joined", Long.toString(joined));
+            metrics.put("timeouts", Long.toString(timeouts));
+            metrics.put("callerTimeouts", Long.toString(callerTimeouts));
+            metrics.put("invalidations", Long.toString(invalidations));
+        }
+
+        return metrics;
+    }
+
+    private void callerTimedOut(CompletableFuture<Integer> caller)
+    {
+        int fallback;
+
+        synchronized (lock)
+        {
+            fallback = (cachedAt != 0) ? cachedType : 0;
+        }
+
+        if (caller.complete(fallback))
+        {
+            synchronized (lock)
+            {
+                callerTimeouts++;
+            }
+        }
+    }
+
+    private class Query implements Runnable
+    {
+        private final TelephonyManager                tm;
+        private final CompletableFuture<Integer>      future = new CompletableFuture<>();
+        private final long                            generation;
+        private final TelephonyEventLoop.Subscription subscription;
+
+        private long deadline;
+
+        private PhoneStateListener listener;
+        private int                networkTypeId = 0;
+        private ServiceState       serviceState;
+        private boolean            networkTypeDone;
+        private boolean            finished;
+
+        private final Runnable timeoutRunnable = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                finish(true);
+            }
+        };
+
+        Query(Context ctx, long generation, int timeout)
+        {
+            this.tm           = (TelephonyManager) ctx.getSystemService(Context.TELEPHONY_SERVICE);
+            this.generation   = generation;
+            this.deadline     = SystemClock.uptimeMillis() + timeout;
+            this.subscription = TelephonyEventLoop.getShared().acquire();
+        }
+
+        void start()
+        {
+            if (!subscription.post(this))
+                finish(true);
+        }
+
+        void extend(int timeout)
+        {
+            final long requested = SystemClock.uptimeMillis() + timeout;
+
+            subscription.post(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    if (finished || requested <= deadline)
+                        return;
+
+                    deadline = requested;
+
+                    if (listener != null)
+                    {
+                        subscription.getHandler().removeCallbacks(timeoutRunnable);
+                        subscription.getHandler().postAtTime(timeoutRunnable, deadline);
+                    }
+                }
+            });
+        }
+
+        CompletableFuture<Integer> attach(int timeout)
+        {
+            final CompletableFuture<Integer> caller = new CompletableFuture<>();
+
+            final Runnable callerTimeout = new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    callerTimedOut(caller);
+                }
+            };
+
+            future.whenComplete(new BiConsumer<Integer, Throwable>()
+            {
+                @Override
+                public void accept(Integer networkTypeId, Throwable ex)
+                {
+                    subscription.getHandler().removeCallbacks(callerTimeout);
+                    caller.complete((networkTypeId != null) ? networkTypeId : 0);
+                }
+            });
+
+            if (!caller.isDone())
+                subscription.getHandler().postDelayed(callerTimeout, timeout);
+
+            return caller;
+        }
+
+        @Override
+        public void run()
+        {
+            listener = new PhoneStateListener()
+            {
+                @Override
+                public void onDataConnectionStateChanged(int networkState, int networkType)
+                {
+                    super.onDataConnectionStateChanged(networkState, networkType);
+                    networkTypeDone = true;
+                    networkTypeId   = networkType;
+                    if (serviceState != null)
+                        finish(false);
+                }
+
+                @Override
+                public void onServiceStateChanged(ServiceState state)
+                {
+                    super.onServiceStateChanged(state);
+                    serviceState = state;
+                    if (networkTypeDone)
+                        finish(false);
+                }
+            };
+
+            try
+            {
+                tm.listen(listener, PhoneStateListener.LISTEN_DATA_CONNECTION_STATE | PhoneStateListener.LISTEN_SERVICE_STATE);
+                subscription.getHandler().postAtTime(timeoutRunnable, deadline);
+            } catch (RuntimeException ex)
+            {
+                Log.warning(TAG, "resolve: listen failed", ex);
+                finish(true);
+            }
+        }
+
+        private void finish(boolean timedOut)
+        {
+            if (finished)
+                return;
+
+            finished = true;
+
+            subscription.getHandler().removeCallbacks(timeoutRunnable);
+            if (listener != null)
+                tm.listen(listener, PhoneStateListener.LISTEN_NONE);
+            subscription.release();
+
+            int resolved   = networkTypeId;
+            int adjustedId = classifier.classify(serviceState);
+
+            if (adjustedId != NrClassifier.UNKNOWN)
+                resolved = adjustedId;
+
+            complete(this, resolved, timedOut);
+        }
+    }
+}
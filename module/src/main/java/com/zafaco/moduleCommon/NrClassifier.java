@@ -0,0 +1,133 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+import android.os.Build;
+import android.telephony.NetworkRegistrationInfo;
+import android.telephony.ServiceState;
+import android.telephony.TelephonyDisplayInfo;
+import android.telephony.TelephonyManager;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class NrClassifier
+{
+    public static final int UNKNOWN = -1;
+    public static final int NR_NSA  = 19;
+    public static final int NR_SA   = TelephonyManager.NETWORK_TYPE_NR;
+
+    private static final Pattern NR_PATTERN = Pattern.compile("nrState=CONNECTED|nrState=NOT_RESTRICTED|isNrAvailable = true|nsaState=5|EnDc=true|5G Allocated=true");
+
+    private final Matcher matcher = NR_PATTERN.matcher("");
+
+    private ServiceState lastState;
+    private int          lastResult  = UNKNOWN;
+    private long         cacheHits   = 0;
+    private long         cacheMisses = 0;
+
+    public static int classifyDisplayInfo(int networkType, int overrideNetworkType)
+    {
+        if (networkType != TelephonyManager.NETWORK_TYPE_LTE)
+            return UNKNOWN;
+
+        switch (overrideNetworkType)
+        {
+            case TelephonyDisplayInfo.OVERRIDE_NETWORK_TYPE_NR_NSA:
+            case TelephonyDisplayInfo.OVERRIDE_NETWORK_TYPE_NR_NSA_MMWAVE:
+                return NR_NSA;
+            case TelephonyDisplayInfo.OVERRIDE_NETWORK_TYPE_NR_ADVANCED:
+                return NR_SA;
+            default:
+                return UNKNOWN;
+        }
+    }
+
+    public static boolean matchesNr(String info)
+    {
+        return info != null && NR_PATTERN.matcher(info).find();
+    }
+
+    public synchronized int classify(ServiceState serviceState)
+    {
+        if (serviceState == null)
+            return UNKNOWN;
+
+        if (serviceState == lastState)
+        {
+            cacheHits++;
+            return lastResult;
+        }
+
+        cacheMisses++;
+
+        lastResult = classifyUncached(serviceState);
+        lastState  = serviceState;
+
+        return lastResult;
+    }
+
+    public synchronized long getCacheHits()
+    {
+        return cacheHits;
+    }
+
+    public synchronized long getCacheMisses()
+    {
+        return cacheMisses;
+    }
+
+    private int classifyUncached(ServiceState serviceState)
+    {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R)
+        {
+            int result = UNKNOWN;
+
+            List<NetworkRegistrationInfo> infos = serviceState.getNetworkRegistrationInfoList();
+            if (infos == null)
+                return UNKNOWN;
+
+            for (NetworkRegistrationInfo info : infos)
+            {
+                if (!info.getAvailableServices().contains(NetworkRegistrationInfo.SERVICE_TYPE_DATA))
+                    continue;
+
+                if (info.getAccessNetworkTechnology() == TelephonyManager.NETWORK_TYPE_NR)
+                    return NR_SA;
+
+                result = matches(info.toString()) ? NR_NSA : UNKNOWN;
+            }
+
+            return result;
+        }
+
+        return matches(serviceState.toString()) ? NR_NSA : UNKNOWN;
+    }
+
+    private boolean matches(String info)
+    {
+        try
+        {
+            return matcher.reset(info).find();
+        } finally
+        {
+            matcher.reset("");
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+
+public class TelephonyEventLoop
+{
+    private static final String TAG = "TelephonyEventLoop";
+
+    private static final TelephonyEventLoop shared = new TelephonyEventLoop();
+
+    private final Object lock = new Object();
+
+    private HandlerThread thread;
+    private Handler       handler;
+    private int           subscriptions = 0;
+
+    private long threadStarts      = 0;
+    private long peakSubscriptions = 0;
+    private long totalAcquired     = 0;
+    private long lastStartupNs     = 0;
+    private long maxStartupNs      = 0;
+
+    public static final class Subscription implements Closeable
+    {
+        private final TelephonyEventLoop loop;
+        private final Handler            handler;
+        private final Executor           executor;
+        private       boolean            released = false;
+
+        private Subscription(TelephonyEventLoop loop, Handler handler)
+        {
+            this.loop     = loop;
+            this.handler  = handler;
+            this.executor = new Executor()
+            {
+                @Override
+                public void execute(Runnable command)
+                {
+                    if (!handler.post(command))
+                        Log.warning(TAG, "execute: event loop already stopped");
+                }
+            };
+        }
+
+        public Handler getHandler()
+        {
+            return handler;
+        }
+
+        public Looper getLooper()
+        {
+            return handler.getLooper();
+        }
+
+        public Executor getExecutor()
+        {
+            return executor;
+        }
+
+        public boolean post(Runnable runnable)
+        {
+            return handler.post(runnable);
+        }
+
+        public void release()
+        {
+            synchronized (this)
+            {
+                if (released)
+                    return;
+
+                released = true;
+            }
+
+            loop.release();
+        }
+
+        @Override
+        public void close()
+        {
+            release();
+        }
+    }
+
+    public static TelephonyEventLoop getShared()
+    {
+        return shared;
+    }
+
+    public Subscription acquire()
+    {
+        synchronized (lock)
+        {
+            if (thread == null)
+                start();
+
+            subscriptions++;
+            totalAcquired++;
+            if (subscriptions > peakSubscriptions)
+                peakSubscriptions = subscriptions;
+
+            return new Subscription(this, handler);
+        }
+    }
+
+    private void start()
+    {
+        long start = System.nanoTime();
+
+        thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+
+        lastStartupNs = System.nanoTime() - start;
+        if (lastStartupNs > maxStartupNs)
+            maxStartupNs = lastStartupNs;
+        threadStarts++;
+
+        Log.debugf(TAG, "start: event loop started in {}us", lastStartupNs / 1000);
+    }
+
+    private void release()
+    {
+        synchronized (lock)
+        {
+            if (subscriptions == 0)
+                return;
+
+            if (--subscriptions > 0)
+                return;
+
+            thread.quitSafely();
+
+            thread  = null;
+            handler = null;
+        }
+    }
+
+    public boolean isRunning()
+    {
+        synchronized (lock)
+        {
+            return thread != null;
+        }
+    }
+
+    public LinkedHashMap<String, String> getMetrics()
+    {
+        LinkedHashMap<String, String> metrics = new LinkedHashMap<>();
+
+        synchronized (lock)
+        {
+            metrics.put("running", Boolean.toString(thread != null));
+            metrics.put("threadStarts", Long.toString(threadStarts));
+            metrics.put("subscriptions", Integer.toString(subscriptions));
+            metrics.put("peakSubscriptions", Long.toString(peakSubscriptions));
+            metrics.put("totalAcquired", Long.toString(totalAcquired));
+            metrics.put("lastStartupMs", Double.toString(lastStartupNs / 1e6));
+            metrics.put("maxStartupMs", Double.toString(maxStartupNs / 1e6));
+        }
+
+        return metrics;
+    }
+}
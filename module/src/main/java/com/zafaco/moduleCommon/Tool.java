@@ -42,17 +42,15 @@ import android.net.wifi.WifiInfo;
 import android.net.wifi.WifiManager;
 import android.os.BatteryManager;
 import android.os.Build;
-import android.os.Looper;
 import android.os.PowerManager;
 import android.provider.Settings;
-import android.telephony.PhoneStateListener;
 import android.telephony.ServiceState;
 import android.telephony.TelephonyDisplayInfo;
 import android.telephony.TelephonyManager;
 
 import androidx.annotation.RequiresApi;
 
-import com.google.gson.Gson;
+import com.zafaco.moduleCommon.interfaces.NetworkTypeCallback;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -67,7 +65,6 @@ import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
 import java.text.ParseException;
@@ -77,6 +74,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class Tool
 {
@@ -102,27 +102,7 @@ public class Tool
 
     public static JSONObject readJSON(Context ctx, String path)
     {
-        String json = null;
-        try
-        {
-            InputStream is = ctx.getAssets().open(path);
-
-            int size = is.available();
-
-            byte[] buffer = new byte[size];
-
-            is.read(buffer);
-
-            is.close();
-
-            json = new String(buffer, StandardCharsets.UTF_8);
-
-            return new JSONObject(json);
-        } catch (IOException | JSONException ex)
-        {
-            Log.warning(TAG, "readJSON", ex);
-            return null;
-        }
+        return JsonAssetCache.getShared().get(ctx, path);
     }
 
     public static JSONObject mapJSON(JSONObject original, JSONObject mappingJSON)
@@ -269,6 +249,35 @@ public class Tool
         return mapped;
     }
 
+    public static JSONObject mapJSON(JSONObject original, JsonMappingPlan plan)
+    {
+        if (plan == null)
+            return new JSONObject();
+
+        return plan.apply(original);
+    }
+
+    public static JSONObject mapJSON(Context ctx, JSONObject original, String mappingPath)
+    {
+        return mapJSON(original, JsonMappingPlan.fromAsset(ctx, mappingPath));
+    }
+
+    public static JSONObject mapJSONStreaming(String original, JsonMappingPlan plan)
+    {
+        if (original == null || plan == null)
+            return new JSONObject();
+
+        return plan.getStreamingMapper().map(original);
+    }
+
+    public static JSONObject mapJSONStreaming(InputStream original, JsonMappingPlan plan)
+    {
+        if (original == null || plan == null)
+            return new JSONObject();
+
+        return plan.getStreamingMapper().map(original);
+    }
+
     private static Object convertValue(Object oldValue, double convertValue, String convertArithmetic)
     {
         if (!Double.isNaN(convertValue))
@@ -855,16 +864,12 @@ public class Tool
 
     public Object getObject(String s, Class<?> cls)
     {
-        Gson gson = new Gson();
-
-        return gson.fromJson(s, cls);
+        return GsonRegistry.get().fromJson(s, cls);
     }
 
     public String saveObject(Object o)
     {
-        Gson gson = new Gson();
-
-        return gson.toJson(o);
+        return GsonRegistry.get().toJson(o);
     }
 
     public int getNetworkType(final Context ctx)
@@ -874,80 +879,30 @@ public class Tool
 
     public int getNetworkType(final Context ctx, int timeout)
     {
-        final int[]     networkTypeId    = new int[1];
-        final String[]  sServiceState    = new String[1];
-        final boolean[] networkTypeDone  = {false};
-        final boolean[] serviceStateDone = {false};
-
-        Thread networkThread = new Thread(new Runnable()
-        {
-            @Override
-            public void run()
-            {
-                final TelephonyManager tm = (TelephonyManager) ctx.getSystemService(Context.TELEPHONY_SERVICE);
-                Looper.prepare();
-                tm.listen(new PhoneStateListener()
-                {
-                    @Override
-                    public void onDataConnectionStateChanged(int networkState, int networkType)
-                    {
-                        networkTypeDone[0] = true;
-                        networkTypeId[0]   = networkType;
-                        super.onDataConnectionStateChanged(networkState, networkType);
-                        if (networkTypeDone[0] && serviceStateDone[0])
-                        {
-                            tm.listen(this, PhoneStateListener.LISTEN_NONE);
-                            Looper.myLooper().quit();
-                        }
-                    }
-
-                    @Override
-                    public void onServiceStateChanged(ServiceState serviceState)
-                    {
-                        serviceStateDone[0] = true;
-                        sServiceState[0]    = serviceState.toString();
-                        super.onServiceStateChanged(serviceState);
-                        if (networkTypeDone[0] && serviceStateDone[0])
-                        {
-                            tm.listen(this, PhoneStateListener.LISTEN_NONE);
-                            Looper.myLooper().quit();
-                        }
-                    }
-                }, PhoneStateListener.LISTEN_DATA_CONNECTION_STATE | PhoneStateListener.LISTEN_SERVICE_STATE);
-                Looper.loop();
-            }
-        });
-        networkThread.start();
         try
         {
-            networkThread.join(timeout);
-        } catch (InterruptedException ignored)
+            return NetworkTypeResolver.getShared().resolve(ctx, timeout).get(timeout + 100, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex)
         {
-        }
-
-        if (sServiceState[0] != null)
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException ignored)
         {
-            int adjustedId = parseNetworkRegistrationInfo(sServiceState[0]);
-
-            if (adjustedId != -1)
-            {
-                networkTypeId[0] = adjustedId;
-            }
+        } catch (ExecutionException ex)
+        {
+            Log.warning(TAG, "getNetworkType: failed", ex);
         }
-        return networkTypeId[0];
+
+        return 0;
     }
 
+    public void getNetworkTypeAsync(final Context ctx, NetworkTypeCallback callback)
+    {
+        NetworkTypeResolver.getShared().resolve(ctx, callback);
+    }
 
     public int parseNetworkRegistrationInfo(String sInfo)
     {
-
-
-        if (sInfo.contains("nrState=CONNECTED") || sInfo.contains("nrState=NOT_RESTRICTED") || sInfo.contains("isNrAvailable = true") || sInfo.contains("nsaState=5") || sInfo.contains("EnDc=true") || sInfo.contains("5G Allocated=true"))
-        {
-            return 19;
-        }
-
-        return -1;
+        return NrClassifier.matchesNr(sInfo) ? NrClassifier.NR_NSA : NrClassifier.UNKNOWN;
     }
 
 
@@ -0,0 +1,159 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon.listener;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.zafaco.moduleCommon.Log;
+import com.zafaco.moduleCommon.interfaces.CoalescedUpdateListener;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CoalescingDispatcher
+{
+    private static final String TAG = "CoalescingDispatcher";
+
+    public static final int DIRTY_SIGNAL          = 1;
+    public static final int DIRTY_DATA_CONNECTION = 1 << 1;
+    public static final int DIRTY_DATA_ACTIVITY   = 1 << 2;
+    public static final int DIRTY_SERVICE_STATE   = 1 << 3;
+    public static final int DIRTY_CELL_LOCATION   = 1 << 4;
+    public static final int DIRTY_DISPLAY_INFO    = 1 << 5;
+    public static final int DIRTY_CELL_INFO       = 1 << 6;
+    public static final int DIRTY_ALL             = 0xFFFF;
+
+    public static final long DEFAULT_WINDOW_MS = 250;
+
+    private final    CoalescedUpdateListener listener;
+    private volatile Handler                 handler;
+
+    private final AtomicInteger dirty      = new AtomicInteger(0);
+    private final AtomicBoolean scheduled  = new AtomicBoolean(false);
+    private final AtomicLong    events     = new AtomicLong(0);
+    private final AtomicLong    dispatches = new AtomicLong(0);
+
+    private volatile long windowMs     = DEFAULT_WINDOW_MS;
+    private volatile long lastDispatch = 0;
+
+    private final Runnable dispatchRunnable = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            dispatch();
+        }
+    };
+
+    public CoalescingDispatcher(CoalescedUpdateListener listener)
+    {
+        this.listener = listener;
+    }
+
+    public void attach(Handler handler)
+    {
+        this.handler = handler;
+
+        if (dirty.get() != 0)
+            schedule();
+    }
+
+    public void detach()
+    {
+        Handler current = handler;
+
+        handler = null;
+        if (current != null)
+            current.removeCallbacks(dispatchRunnable);
+
+        scheduled.set(false);
+        dirty.set(0);
+    }
+
+    public void setWindowMs(long windowMs)
+    {
+        this.windowMs = Math.max(0, windowMs);
+    }
+
+    public long getWindowMs()
+    {
+        return windowMs;
+    }
+
+    public void markDirty(int flags)
+    {
+        events.incrementAndGet();
+
+        int previous;
+        do
+        {
+            previous = dirty.get();
+        } while (!dirty.compareAndSet(previous, previous | flags));
+
+        schedule();
+    }
+
+    private void schedule()
+    {
+        Handler current = handler;
+        if (current == null)
+            return;
+
+        if (scheduled.compareAndSet(false, true))
+        {
+            long delay = Math.max(0, lastDispatch + windowMs - SystemClock.uptimeMillis());
+
+            if (!current.postDelayed(dispatchRunnable, delay))
+                scheduled.set(false);
+        }
+    }
+
+    public LinkedHashMap<String, String> getMetrics()
+    {
+        LinkedHashMap<String, String> metrics = new LinkedHashMap<>();
+
+        metrics.put("windowMs", Long.toString(windowMs));
+        metrics.put("events", Long.toString(events.get()));
+        metrics.put("dispatches", Long.toString(dispatches.get()));
+
+        return metrics;
+    }
+
+    private void dispatch()
+    {
+        scheduled.set(false);
+
+        int flags = dirty.getAndSet(0);
+        if (flags == 0)
+            return;
+
+        lastDispatch = SystemClock.uptimeMillis();
+        dispatches.incrementAndGet();
+
+        try
+        {
+            listener.onCoalescedUpdate(flags);
+        } catch (RuntimeException ex)
+        {
+            Log.warning(TAG, "dispatch: listener failed", ex);
+        }
+    }
+}
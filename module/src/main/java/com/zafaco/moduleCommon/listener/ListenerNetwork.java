@@ -34,12 +34,16 @@ import android.telephony.PhoneStateListener;
 import android.telephony.ServiceState;
 import android.telephony.SignalStrength;
 import android.telephony.SubscriptionManager;
+import android.telephony.TelephonyDisplayInfo;
 import android.telephony.TelephonyManager;
 
 import androidx.annotation.NonNull;
 import androidx.core.app.ActivityCompat;
 
 import com.zafaco.moduleCommon.Log;
+import com.zafaco.moduleCommon.NetworkTypeResolver;
+import com.zafaco.moduleCommon.NrClassifier;
+import com.zafaco.moduleCommon.TelephonyEventLoop;
 import com.zafaco.moduleCommon.Tool;
 import com.zafaco.moduleCommon.interfaces.ModulesInterface;
 
@@ -60,13 +64,41 @@ public class ListenerNetwork extends PhoneStateListener
     private       ServiceState     serviceState;
     private       CellInfo         cellInfo;
     private final TelephonyManager tm;
-    private       Thread           pThread;
-    private       boolean          withIntervall    = false;
-    private       int              dataNetworkId    = 0;
-    private       int              dataNetworkState = -1;
+    private       boolean          withIntervall         = false;
+    private       int              dataNetworkId         = 0;
+    private       int              overrideDataNetworkId = -1;
+    private       int              dataNetworkState      = -1;
+
+    private final    CoalescingDispatcher            dispatcher;
+    private final    NrClassifier                    classifier       = new NrClassifier();
+    private volatile TelephonyEventLoop.Subscription subscription;
+    private          String                          operatorNetCode  = "";
+    private          String                          operatorSimCode  = "";
+    private          String                          operatorNet      = "";
+    private          String                          operatorSim      = "";
+    private          String                          carrierSim       = "";
+    private          int                             carrierSimId     = 0;
+    private          String                          connectionType;
+    private          int                             adjustedId       = -1;
+
+    private static final long INTERVAL_MS = 10000;
 
     private static final String TAG = "ListenerNetwork";
 
+    private final Runnable intervalRunnable = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            TelephonyEventLoop.Subscription current = subscription;
+            if (current == null)
+                return;
+
+            dispatcher.markDirty(CoalescingDispatcher.DIRTY_ALL);
+            current.getHandler().postDelayed(this, INTERVAL_MS);
+        }
+    };
+
 
     public ListenerNetwork(Context ctx, ModulesInterface intCall)
     {
@@ -79,11 +111,20 @@ public class ListenerNetwork extends PhoneStateListener
 
         int dataSubId = SubscriptionManager.getDefaultDataSubscriptionId();
         tm = tmTemp.createForSubscriptionId(dataSubId);
+
+        dispatcher = new CoalescingDispatcher(this::getData);
+    }
+
+    public void setDispatchWindow(long windowMs)
+    {
+        dispatcher.setWindowMs(windowMs);
     }
 
 
     public void startUpdates()
     {
+        if (subscription != null)
+            return;
 
         int flags = PhoneStateListener.LISTEN_SIGNAL_STRENGTHS | PhoneStateListener.LISTEN_DATA_CONNECTION_STATE | PhoneStateListener.LISTEN_DATA_ACTIVITY | PhoneStateListener.LISTEN_SERVICE_STATE;
 
@@ -92,9 +133,19 @@ public class ListenerNetwork extends PhoneStateListener
             flags = flags | PhoneStateListener.LISTEN_CELL_LOCATION;
         }
 
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R && ActivityCompat.checkSelfPermission(ctx, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED)
+        {
+            flags = flags | PhoneStateListener.LISTEN_DISPLAY_INFO_CHANGED;
+        }
+
+        subscription = TelephonyEventLoop.getShared().acquire();
+        dispatcher.attach(subscription.getHandler());
+
         tm.listen(this, flags);
 
-        getData();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_ALL);
+        if (withIntervall)
+            scheduleInterval();
     }
 
     public ServiceState getServiceState()
@@ -104,19 +155,35 @@ public class ListenerNetwork extends PhoneStateListener
 
     public void withIntervall()
     {
-        pThread = new Thread(new WorkerThread());
-        pThread.start();
+        if (withIntervall)
+            return;
 
         withIntervall = true;
+        scheduleInterval();
+    }
+
+    private void scheduleInterval()
+    {
+        TelephonyEventLoop.Subscription current = subscription;
+        if (current == null)
+            return;
+
+        current.getHandler().removeCallbacks(intervalRunnable);
+        current.post(intervalRunnable);
     }
 
 
     public void stopUpdates()
     {
         tm.listen(this, PhoneStateListener.LISTEN_NONE);
+        dispatcher.detach();
 
-        if (withIntervall)
-            pThread.interrupt();
+        if (subscription != null)
+        {
+            subscription.getHandler().removeCallbacks(intervalRunnable);
+            subscription.release();
+            subscription = null;
+        }
 
         withIntervall = false;
     }
@@ -126,7 +193,7 @@ public class ListenerNetwork extends PhoneStateListener
     public void onSignalStrengthsChanged(SignalStrength signalStrength)
     {
         super.onSignalStrengthsChanged(signalStrength);
-        getData();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_SIGNAL);
     }
 
 
@@ -138,7 +205,8 @@ public class ListenerNetwork extends PhoneStateListener
 
         super.onDataConnectionStateChanged(networkState, networkType);
 
-        getData();
+        NetworkTypeResolver.getShared().invalidate();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_DATA_CONNECTION);
     }
 
 
@@ -147,7 +215,7 @@ public class ListenerNetwork extends PhoneStateListener
     {
         super.onDataActivity(directon);
 
-        getData();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_DATA_ACTIVITY);
     }
 
 
@@ -160,7 +228,18 @@ public class ListenerNetwork extends PhoneStateListener
         }
         super.onCellLocationChanged(location);
 
-        getData();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_CELL_LOCATION);
+    }
+
+
+    @Override
+    public void onDisplayInfoChanged(@NonNull TelephonyDisplayInfo telephonyDisplayInfo)
+    {
+        super.onDisplayInfoChanged(telephonyDisplayInfo);
+
+        overrideDataNetworkId = telephonyDisplayInfo.getOverrideNetworkType();
+
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_DISPLAY_INFO);
     }
 
 
@@ -171,28 +250,33 @@ public class ListenerNetwork extends PhoneStateListener
 
         this.serviceState = serviceState;
 
-        getData();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_SERVICE_STATE);
     }
 
 
     private void triggerCellInfoUpdate()
     {
+        TelephonyEventLoop.Subscription current = subscription;
+        if (current == null)
+            return;
+
         if (ActivityCompat.checkSelfPermission(ctx, Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED)
         {
             long startTime = System.currentTimeMillis();
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q)
             {
-                tm.requestCellInfoUpdate(ctx.getMainExecutor(), new TelephonyManager.CellInfoCallback()
+                tm.requestCellInfoUpdate(current.getExecutor(), new TelephonyManager.CellInfoCallback()
                 {
                     @Override
                     public void onCellInfo(@NonNull List<CellInfo> cellInfos)
                     {
-                        Log.debug(TAG, "CellInfoUpdate took " + (System.currentTimeMillis() - startTime) + "ms");
+                        Log.debugf(TAG, "CellInfoUpdate took {}ms", System.currentTimeMillis() - startTime);
                         for (CellInfo currentCellInfo : cellInfos)
                         {
                             if (currentCellInfo.isRegistered())
                             {
                                 cellInfo = currentCellInfo;
+                                dispatcher.markDirty(CoalescingDispatcher.DIRTY_CELL_INFO);
                                 return;
                             }
                         }
@@ -203,33 +287,69 @@ public class ListenerNetwork extends PhoneStateListener
         }
     }
 
-    private void getData()
+    private void refreshOperator()
     {
-        triggerCellInfoUpdate();
-        JSONObject jData = new JSONObject();
+        operatorNetCode = tm.getNetworkOperator();
+        operatorSimCode = tm.getSimOperator();
 
-        String app_operator_netcode = tm.getNetworkOperator();
-        String app_operator_simcode = tm.getSimOperator();
-
-        String app_carrier_sim    = "";
-        int    app_carrier_sim_id = 0;
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.P)
         {
-            app_carrier_sim    = String.valueOf(tm.getSimCarrierIdName());
-            app_carrier_sim_id = tm.getSimCarrierId();
+            carrierSim   = String.valueOf(tm.getSimCarrierIdName());
+            carrierSimId = tm.getSimCarrierId();
         }
 
-        String app_operator_sim = "";
-        String app_operator_net = tm.getNetworkOperatorName();
+        operatorSim = "";
+        operatorNet = tm.getNetworkOperatorName();
 
         if (tm.getSimState() == TelephonyManager.SIM_STATE_READY)
         {
-            app_operator_sim = tm.getSimOperatorName();
+            operatorSim = tm.getSimOperatorName();
+        }
+    }
+
+    private void refreshAdjustedId()
+    {
+        adjustedId = NrClassifier.UNKNOWN;
+
+        if (dataNetworkId != TelephonyManager.NETWORK_TYPE_LTE)
+            return;
+
+        if (overrideDataNetworkId != -1)
+            adjustedId = NrClassifier.classifyDisplayInfo(dataNetworkId, overrideDataNetworkId);
+
+        if (adjustedId == NrClassifier.UNKNOWN)
+            adjustedId = classifier.classify(getServiceState());
+    }
+
+    private void getData(int dirtyFlags)
+    {
+        if ((dirtyFlags & (CoalescingDispatcher.DIRTY_SIGNAL | CoalescingDispatcher.DIRTY_CELL_LOCATION | CoalescingDispatcher.DIRTY_SERVICE_STATE)) != 0)
+        {
+            triggerCellInfoUpdate();
+            fetchCellInfo();
         }
 
+        if ((dirtyFlags & CoalescingDispatcher.DIRTY_SERVICE_STATE) != 0)
+            refreshOperator();
+
+        if ((dirtyFlags & (CoalescingDispatcher.DIRTY_DATA_CONNECTION | CoalescingDispatcher.DIRTY_SERVICE_STATE)) != 0 || connectionType == null)
+            connectionType = mTool.getConnectionType(ctx);
+
+        if ((dirtyFlags & (CoalescingDispatcher.DIRTY_DATA_CONNECTION | CoalescingDispatcher.DIRTY_SERVICE_STATE | CoalescingDispatcher.DIRTY_DISPLAY_INFO)) != 0)
+            refreshAdjustedId();
+
+        JSONObject jData = new JSONObject();
+
+        String app_operator_netcode = operatorNetCode;
+        String app_operator_simcode = operatorSimCode;
+        String app_carrier_sim      = carrierSim;
+        int    app_carrier_sim_id   = carrierSimId;
+        String app_operator_sim     = operatorSim;
+        String app_operator_net     = operatorNet;
+
         try
         {
-            jData.put("app_mode", mTool.getConnectionType(ctx));
+            jData.put("app_mode", connectionType);
 
 
             jData.put("app_data_state", dataNetworkState);
@@ -238,28 +358,6 @@ public class ListenerNetwork extends PhoneStateListener
 
             ServiceState serviceState = getServiceState();
 
-            int    adjustedId = -1;
-            String sInfo      = "";
-
-            if (dataNetworkId == 13 && serviceState != null)
-            {
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R)
-                {
-                    for (NetworkRegistrationInfo info : serviceState.getNetworkRegistrationInfoList())
-                    {
-                        if (info.getAvailableServices().contains(NetworkRegistrationInfo.SERVICE_TYPE_DATA))
-                        {
-                            sInfo      = info.toString();
-                            adjustedId = mTool.parseNetworkRegistrationInfo(sInfo);
-                        }
-                    }
-                } else
-                {
-                    sInfo      = serviceState.toString();
-                    adjustedId = mTool.parseNetworkRegistrationInfo(sInfo);
-                }
-            }
-
             if (adjustedId != -1)
             {
                 jData.put("app_access_id_debug", adjustedId);
@@ -302,7 +400,6 @@ public class ListenerNetwork extends PhoneStateListener
             jData.put("app_carrier_sim_id", app_carrier_sim_id);
 
 
-            fetchCellInfo();
             if (cellInfo != null)
             {
                 CellInfo currentCellInfo = cellInfo;
@@ -310,6 +407,7 @@ public class ListenerNetwork extends PhoneStateListener
                 jData.put("app_rssi", getRssi(currentCellInfo));
                 jData.put("app_rsrp", getRsrp(currentCellInfo));
                 jData.put("app_rsrq", getRsrq(currentCellInfo));
+                jData.put("app_sinr", getSinr(currentCellInfo));
                 jData.put("app_arfcn", getArfcn(currentCellInfo));
                 jData.put("app_cellid", getCid(currentCellInfo));
                 jData.put("app_celllac", getLac(currentCellInfo));
@@ -445,6 +543,37 @@ public class ListenerNetwork extends PhoneStateListener
         return rsrq;
     }
 
+    public int getSinr(CellInfo currentCellInfo)
+    {
+        int sinr = 0;
+
+        if (currentCellInfo != null && currentCellInfo.isRegistered())
+        {
+            if (currentCellInfo instanceof CellInfoLte)
+            {
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O)
+                {
+                    sinr = ((CellInfoLte) currentCellInfo).getCellSignalStrength().getRssnr();
+                }
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R)
+            {
+                if (currentCellInfo instanceof CellInfoNr)
+                {
+                    CellSignalStrengthNr ss = (CellSignalStrengthNr) currentCellInfo.getCellSignalStrength();
+                    if (ss.getSsSinr() != Integer.MAX_VALUE)
+                        sinr = ss.getSsSinr();
+                    else
+                        sinr = ss.getCsiSinr();
+                }
+            }
+        }
+
+        if (sinr == CellInfo.UNAVAILABLE || sinr == CellInfo.UNAVAILABLE_LONG)
+            return 0;
+
+        return sinr;
+    }
+
     private int getArfcn(CellInfo currentCellInfo)
     {
         int arfcn = 0;
@@ -597,25 +726,4 @@ public class ListenerNetwork extends PhoneStateListener
 
         return false;
     }
-
-    class WorkerThread extends Thread
-    {
-        public void run()
-        {
-            while (true)
-            {
-                try
-                {
-                    getData();
-
-
-                    Thread.sleep(10000);
-                } catch (InterruptedException ex)
-                {
-                    Log.info(TAG, "ListenerNetwork-Thread interrupted", ex);
-                    break;
-                }
-            }
-        }
-    }
 }
@@ -42,6 +42,9 @@ import androidx.annotation.RequiresApi;
 import androidx.core.app.ActivityCompat;
 
 import com.zafaco.moduleCommon.Log;
+import com.zafaco.moduleCommon.NetworkTypeResolver;
+import com.zafaco.moduleCommon.NrClassifier;
+import com.zafaco.moduleCommon.TelephonyEventLoop;
 import com.zafaco.moduleCommon.Tool;
 import com.zafaco.moduleCommon.interfaces.ModulesInterface;
 
@@ -62,14 +65,39 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
     private       ServiceState     serviceState;
     private       CellInfo         cellInfo;
     private final TelephonyManager tm;
-    private       Thread           pThread;
     private       boolean          withIntervall         = false;
     private       int              dataNetworkId         = 0;
     private       int              overrideDataNetworkId = -1;
     private       int              dataNetworkState      = -1;
 
+    private final    CoalescingDispatcher            dispatcher;
+    private volatile TelephonyEventLoop.Subscription subscription;
+    private          String                          operatorNetCode  = "";
+    private          String                          operatorSimCode  = "";
+    private          String                          operatorNet      = "";
+    private          String                          operatorSim      = "";
+    private          String                          carrierSim       = "";
+    private          int                             carrierSimId     = 0;
+    private          String                          connectionType;
+
+    private static final long INTERVAL_MS = 10000;
+
     private static final String TAG = "ListenerTelephony";
 
+    private final Runnable intervalRunnable = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            TelephonyEventLoop.Subscription current = subscription;
+            if (current == null)
+                return;
+
+            dispatcher.markDirty(CoalescingDispatcher.DIRTY_ALL);
+            current.getHandler().postDelayed(this, INTERVAL_MS);
+        }
+    };
+
 
     public ListenerTelephony(Context ctx, ModulesInterface intCall)
     {
@@ -82,14 +110,30 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
 
         int dataSubId = SubscriptionManager.getDefaultDataSubscriptionId();
         tm = tmTemp.createForSubscriptionId(dataSubId);
+
+        dispatcher = new CoalescingDispatcher(this::getData);
+    }
+
+    public void setDispatchWindow(long windowMs)
+    {
+        dispatcher.setWindowMs(windowMs);
     }
 
 
     public void startUpdates()
     {
-        tm.registerTelephonyCallback(ctx.getMainExecutor(), this);
+        // a second start would acquire another event loop reference that stopUpdates never releases
+        if (subscription != null)
+            return;
+
+        subscription = TelephonyEventLoop.getShared().acquire();
+        dispatcher.attach(subscription.getHandler());
+
+        tm.registerTelephonyCallback(subscription.getExecutor(), this);
 
-        getData();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_ALL);
+        if (withIntervall)
+            scheduleInterval();
     }
 
     public ServiceState getServiceState()
@@ -99,19 +143,35 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
 
     public void withIntervall()
     {
-        pThread = new Thread(new ListenerTelephony.WorkerThread());
-        pThread.start();
+        if (withIntervall)
+            return;
 
         withIntervall = true;
+        scheduleInterval();
+    }
+
+    private void scheduleInterval()
+    {
+        TelephonyEventLoop.Subscription current = subscription;
+        if (current == null)
+            return;
+
+        current.getHandler().removeCallbacks(intervalRunnable);
+        current.post(intervalRunnable);
     }
 
 
     public void stopUpdates()
     {
         tm.unregisterTelephonyCallback(this);
+        dispatcher.detach();
 
-        if (withIntervall)
-            pThread.interrupt();
+        if (subscription != null)
+        {
+            subscription.getHandler().removeCallbacks(intervalRunnable);
+            subscription.release();
+            subscription = null;
+        }
 
         withIntervall = false;
     }
@@ -119,7 +179,7 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
     @Override
     public void onDataActivity(int i)
     {
-        getData();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_DATA_ACTIVITY);
     }
 
     @Override
@@ -128,7 +188,8 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
         dataNetworkId    = networkType;
         dataNetworkState = networkState;
 
-        getData();
+        NetworkTypeResolver.getShared().invalidate();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_DATA_CONNECTION);
     }
 
     @SuppressLint("WrongConstant")
@@ -138,7 +199,7 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
         dataNetworkId         = telephonyDisplayInfo.getNetworkType();
         overrideDataNetworkId = telephonyDisplayInfo.getOverrideNetworkType();
 
-        getData();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_DISPLAY_INFO);
     }
 
     @Override
@@ -146,20 +207,24 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
     {
         this.serviceState = serviceState;
 
-        getData();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_SERVICE_STATE);
     }
 
     @Override
     public void onSignalStrengthsChanged(@NonNull SignalStrength signalStrength)
     {
-        getData();
+        dispatcher.markDirty(CoalescingDispatcher.DIRTY_SIGNAL);
     }
 
     private void triggerCellInfoUpdate()
     {
+        TelephonyEventLoop.Subscription current = subscription;
+        if (current == null)
+            return;
+
         if (ActivityCompat.checkSelfPermission(ctx, Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED)
         {
-            tm.requestCellInfoUpdate(ctx.getMainExecutor(), new TelephonyManager.CellInfoCallback()
+            tm.requestCellInfoUpdate(current.getExecutor(), new TelephonyManager.CellInfoCallback()
             {
                 @Override
                 public void onCellInfo(@NonNull List<CellInfo> cellInfos)
@@ -169,7 +234,7 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
                         if (currentCellInfo.isRegistered() && (cellInfo == null || cellInfo.getTimeStamp() < currentCellInfo.getTimeStamp()))
                         {
                             cellInfo = currentCellInfo;
-                            getData();
+                            dispatcher.markDirty(CoalescingDispatcher.DIRTY_CELL_INFO);
                             return;
                         }
                     }
@@ -201,47 +266,58 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
         }
     }
 
-    private void getData()
+    private void refreshOperator()
     {
-        triggerCellInfoUpdate();
+        operatorNetCode = tm.getNetworkOperator();
+        operatorSimCode = tm.getSimOperator();
 
-        JSONObject jData = new JSONObject();
+        carrierSim   = String.valueOf(tm.getSimCarrierIdName());
+        carrierSimId = tm.getSimCarrierId();
 
-        String app_operator_netcode = tm.getNetworkOperator();
-        String app_operator_simcode = tm.getSimOperator();
-
-        String app_carrier_sim    = String.valueOf(tm.getSimCarrierIdName());
-        int    app_carrier_sim_id = tm.getSimCarrierId();
-
-        String app_operator_sim = "";
-        String app_operator_net = tm.getNetworkOperatorName();
+        operatorSim = "";
+        operatorNet = tm.getNetworkOperatorName();
 
         if (tm.getSimState() == TelephonyManager.SIM_STATE_READY)
         {
-            app_operator_sim = tm.getSimOperatorName();
+            operatorSim = tm.getSimOperatorName();
         }
+    }
+
+    private void getData(int dirtyFlags)
+    {
+        if ((dirtyFlags & (CoalescingDispatcher.DIRTY_SIGNAL | CoalescingDispatcher.DIRTY_SERVICE_STATE)) != 0)
+        {
+            triggerCellInfoUpdate();
+            fetchCellInfo();
+        }
+
+        if ((dirtyFlags & CoalescingDispatcher.DIRTY_SERVICE_STATE) != 0)
+            refreshOperator();
+
+        if ((dirtyFlags & (CoalescingDispatcher.DIRTY_DATA_CONNECTION | CoalescingDispatcher.DIRTY_SERVICE_STATE)) != 0 || connectionType == null)
+            connectionType = mTool.getConnectionType(ctx);
+
+        JSONObject jData = new JSONObject();
+
+        String app_operator_netcode = operatorNetCode;
+        String app_operator_simcode = operatorSimCode;
+        String app_carrier_sim      = carrierSim;
+        int    app_carrier_sim_id   = carrierSimId;
+        String app_operator_sim     = operatorSim;
+        String app_operator_net     = operatorNet;
 
         try
         {
-            jData.put("app_mode", mTool.getConnectionType(ctx));
+            jData.put("app_mode", connectionType);
 
 
             jData.put("app_data_state", dataNetworkState);
             jData.put("app_access_id", dataNetworkId);
 
-            if (dataNetworkId == 13 && overrideDataNetworkId != -1 && overrideDataNetworkId != TelephonyDisplayInfo.OVERRIDE_NETWORK_TYPE_NONE)
+            int adjustedId = NrClassifier.classifyDisplayInfo(dataNetworkId, overrideDataNetworkId);
+            if (adjustedId != NrClassifier.UNKNOWN)
             {
-                if (overrideDataNetworkId == TelephonyDisplayInfo.OVERRIDE_NETWORK_TYPE_NR_NSA)
-                {
-                    jData.put("app_access_id", 19);
-                }
-
-                if (overrideDataNetworkId == TelephonyDisplayInfo.OVERRIDE_NETWORK_TYPE_NR_ADVANCED)
-                {
-                    jData.put("app_access_id", 20);
-                }
-
-
+                jData.put("app_access_id", adjustedId);
             }
 
             jData.put("app_access", mTool.getNetType(jData.getInt("app_access_id")));
@@ -278,7 +354,6 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
             jData.put("app_carrier_sim_id", app_carrier_sim_id);
 
 
-            fetchCellInfo();
             if (cellInfo != null)
             {
                 CellIdentity       currentCellIdentity        = cellInfo.getCellIdentity();
@@ -287,6 +362,7 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
                 jData.put("app_rssi", getRssi(currenctCellSignalStrength));
                 jData.put("app_rsrp", getRsrp(currenctCellSignalStrength));
                 jData.put("app_rsrq", getRsrq(currenctCellSignalStrength));
+                jData.put("app_sinr", getSinr(currenctCellSignalStrength));
                 jData.put("app_arfcn", getArfcn(currentCellIdentity));
                 jData.put("app_cellid", getCid(currentCellIdentity));
                 jData.put("app_celllac", getLac(currentCellIdentity));
@@ -365,6 +441,28 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
 
     }
 
+    public int getSinr(CellSignalStrength currenctCellSignalStrength)
+    {
+        int sinr = 0;
+        if (currenctCellSignalStrength == null)
+            return sinr;
+
+        if (currenctCellSignalStrength instanceof CellSignalStrengthLte)
+        {
+            sinr = ((CellSignalStrengthLte) currenctCellSignalStrength).getRssnr();
+        } else if (currenctCellSignalStrength instanceof CellSignalStrengthNr)
+        {
+            if (((CellSignalStrengthNr) currenctCellSignalStrength).getSsSinr() != Integer.MAX_VALUE)
+                sinr = ((CellSignalStrengthNr) currenctCellSignalStrength).getSsSinr();
+            else
+                sinr = ((CellSignalStrengthNr) currenctCellSignalStrength).getCsiSinr();
+        }
+        if (sinr == CellInfo.UNAVAILABLE || sinr == CellInfo.UNAVAILABLE_LONG)
+            return 0;
+
+        return sinr;
+    }
+
     private int getArfcn(CellIdentity currentCellIdentity)
     {
         int arfcn = 0;
@@ -561,25 +659,4 @@ public class ListenerTelephony extends TelephonyCallback implements TelephonyCal
 
         return false;
     }
-
-    class WorkerThread extends Thread
-    {
-        public void run()
-        {
-            while (true)
-            {
-                try
-                {
-                    getData();
-
-
-                    Thread.sleep(10000);
-                } catch (InterruptedException ex)
-                {
-                    Log.info(TAG, "ListenerNetwork-Thread interrupted", ex);
-                    break;
-                }
-            }
-        }
-    }
 }
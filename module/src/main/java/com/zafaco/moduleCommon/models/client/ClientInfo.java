@@ -19,12 +19,17 @@ package com.zafaco.moduleCommon.models.client;
 import android.content.Context;
 import android.os.Build;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.zafaco.moduleCommon.Tool;
 import com.zafaco.moduleCommon.interfaces.ResultInfo;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.TimeZone;
 
 public class ClientInfo implements ResultInfo
@@ -185,4 +190,100 @@ public class ClientInfo implements ResultInfo
 
         return jData;
     }
+
+    public static final class GsonAdapter extends TypeAdapter<ClientInfo>
+    {
+        @Override
+        public void write(JsonWriter out, ClientInfo value) throws IOException
+        {
+            if (value == null)
+            {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("timezone").value(value.timezone);
+            out.name("manufacturer").value(value.manufacturer);
+            out.name("model").value(value.model);
+            out.name("libraryVersion").value(value.libraryVersion);
+            out.name("libraryVersionName").value(value.libraryVersionName);
+            out.name("commonVersion").value(value.commonVersion);
+            out.name("connectionType").value(value.connectionType);
+            out.name("appVersion").value(value.appVersion);
+            out.name("gitHash").value(value.gitHash);
+            out.endObject();
+        }
+
+        @Override
+        public ClientInfo read(JsonReader in) throws IOException
+        {
+            if (in.peek() == JsonToken.NULL)
+            {
+                in.nextNull();
+                return null;
+            }
+
+            ClientInfo value = new ClientInfo();
+
+            in.beginObject();
+            while (in.hasNext())
+            {
+                String name = in.nextName();
+
+                if (in.peek() == JsonToken.NULL)
+                {
+                    in.skipValue();
+                    continue;
+                }
+
+                switch (name)
+                {
+                    case "timezone":
+                        value.timezone = in.nextInt();
+                        break;
+                    case "manufacturer":
+                        value.manufacturer = in.nextString();
+                        break;
+                    case "model":
+                        value.model = in.nextString();
+                        break;
+                    case "common_version":
+                    case "commonVersion":
+                        value.commonVersion = in.nextString();
+                        break;
+                    case "connection_type":
+                    case "connectionType":
+                        value.connectionType = in.nextString();
+                        break;
+                    case "app_version":
+                    case "appVersion":
+                        value.appVersion = in.nextString();
+                        break;
+                    case "libraryVersion":
+                        value.libraryVersion = in.nextString();
+                        break;
+                    case "libraryVersionName":
+                        value.libraryVersionName = in.nextString();
+                        break;
+                    case "gitHash":
+                        value.gitHash = in.nextString();
+                        break;
+                    default:
+                        if (name.endsWith("_version") && in.peek() == JsonToken.STRING)
+                        {
+                            value.libraryVersionName = name.substring(0, name.length() - "_version".length());
+                            value.libraryVersion     = in.nextString();
+                        } else
+                        {
+                            in.skipValue();
+                        }
+                        break;
+                }
+            }
+            in.endObject();
+
+            return value;
+        }
+    }
 }
@@ -33,6 +33,10 @@ import com.google.android.gms.location.LocationResult;
 import com.google.android.gms.location.LocationServices;
 import com.google.android.gms.location.Priority;
 import com.google.android.gms.tasks.Tasks;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.zafaco.moduleCommon.Log;
 import com.zafaco.moduleCommon.interfaces.ModulesInterface;
 import com.zafaco.moduleCommon.interfaces.ResultInfo;
@@ -41,6 +45,7 @@ import com.zafaco.moduleCommon.listener.ListenerGeoLocation;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -312,4 +317,98 @@ public class LocationInfo implements ResultInfo
         listenerGeoLocation.withIntervall();
     }
 
+    public static final class GsonAdapter extends TypeAdapter<LocationInfo>
+    {
+        @Override
+        public void write(JsonWriter out, LocationInfo value) throws IOException
+        {
+            if (value == null)
+            {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("latitude").value(value.latitude);
+            out.name("longitude").value(value.longitude);
+            out.name("altitude").value(value.altitude);
+            out.name("altitudeMax").value(value.altitudeMax);
+            out.name("accuracy").value(value.accuracy);
+            out.name("velocity").value(value.velocity);
+            out.name("velocityAvg").value(value.velocityAvg);
+            out.name("velocityMax").value(value.velocityMax);
+            out.name("precisePermission").value(value.precisePermission);
+            out.name("timestampFix").value(value.timestampFix);
+            out.endObject();
+        }
+
+        @Override
+        public LocationInfo read(JsonReader in) throws IOException
+        {
+            if (in.peek() == JsonToken.NULL)
+            {
+                in.nextNull();
+                return null;
+            }
+
+            LocationInfo value = new LocationInfo();
+
+            in.beginObject();
+            while (in.hasNext())
+            {
+                String name = in.nextName();
+
+                if (in.peek() == JsonToken.NULL)
+                {
+                    in.skipValue();
+                    continue;
+                }
+
+                switch (name)
+                {
+                    case "latitude":
+                        value.latitude = in.nextDouble();
+                        break;
+                    case "longitude":
+                        value.longitude = in.nextDouble();
+                        break;
+                    case "altitude":
+                        value.altitude = in.nextDouble();
+                        break;
+                    case "accuracy":
+                        value.accuracy = in.nextDouble();
+                        break;
+                    case "altitude_max":
+                    case "altitudeMax":
+                        value.altitudeMax = in.nextDouble();
+                        break;
+                    case "velocity_max":
+                    case "velocityMax":
+                        value.velocityMax = in.nextDouble();
+                        break;
+                    case "velocity_avg":
+                    case "velocityAvg":
+                        value.velocityAvg = in.nextDouble();
+                        break;
+                    case "velocity":
+                        value.velocity = in.nextDouble();
+                        break;
+                    case "precise_permission":
+                    case "precisePermission":
+                        value.precisePermission = in.nextBoolean();
+                        break;
+                    case "timestamp_fix":
+                    case "timestampFix":
+                        value.timestampFix = in.nextLong();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+
+            return value;
+        }
+    }
 }
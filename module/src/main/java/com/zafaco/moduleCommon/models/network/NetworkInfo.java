@@ -20,7 +20,6 @@ import android.Manifest;
 import android.content.Context;
 import android.content.pm.PackageManager;
 import android.os.Build;
-import android.os.Looper;
 import android.telephony.CellIdentityCdma;
 import android.telephony.CellIdentityGsm;
 import android.telephony.CellIdentityLte;
@@ -49,7 +48,12 @@ import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
 import androidx.core.app.ActivityCompat;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.zafaco.moduleCommon.Log;
+import com.zafaco.moduleCommon.TelephonyEventLoop;
 import com.zafaco.moduleCommon.Tool;
 import com.zafaco.moduleCommon.interfaces.ModulesInterface;
 import com.zafaco.moduleCommon.interfaces.ResultInfo;
@@ -60,67 +64,28 @@ import com.zafaco.moduleCommon.models.measurement.AbstractMeasurementResult;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 public class NetworkInfo implements ResultInfo
 {
 
     private static final String TAG = "NETWORK_INFO";
 
-    private int rssi;
-    private int rsrp;
-    private int rsrq;
-    private int sinr;
-    private int arfcn;
-
-    private String  operatorNetId = "-1";
-    private String  operatorNet;
-    private int     operatorNetMcc;
-    private int     operatorNetMnc;
-    private boolean operatorNetChanged;
-    private int     operatorSimMcc;
-    private int     operatorSimMnc;
-    private String  operatorSimId = "-1";
-    private String  operatorSim;
-    private int     carrierSimId  = -1;
-    private String  carrierSim;
-
-    private int simState;
-    private int simsActive;
-
-    private int callState;
-    private int dataNetworkState;
-
-    private String simCountryIso;
-    private String networkCountryIso;
-
-    private int     phoneType;
-    private String  connectionType;
-    private String  connectionTypeDownloadStart;
-    private boolean connectionTypeDownloadChanged = false;
-    private String  connectionTypeUploadStart;
-    private boolean connectionTypeUploadChanged   = false;
-    private String  connectionTypeRttStart;
-    private boolean connectionTypeRttChanged      = false;
-    private int     dataNetworkId                 = 0;
-    private String  dataNetwork                   = "unknown";
-
-    private int     dataNetworkDownloadStart   = -1;
-    private boolean dataNetworkDownloadChanged = false;
-    private int     dataNetworkUploadStart     = -1;
-    private boolean dataNetworkUploadChanged   = false;
-    private int     dataNetworkRttStart        = -1;
-    private boolean dataNetworkRttChanged      = false;
-    private long    cellId;
-    private int     cellLac;
-    private int     cellPci;
-
-    private int tetheringState;
-    private int roamingState;
-
-    private ListenerTelephony                  listenerTelephony;
-    private ListenerNetwork                    listenerNetwork;
-    private AbstractMeasurementResult.TestCase testCase;
+    private static final long SIGNAL_SAMPLE_INTERVAL_MS = 1000;
+
+    private final AtomicReference<NetworkSnapshot> state        = new AtomicReference<>(NetworkSnapshot.EMPTY);
+    private final SignalSeries                     signalSeries = new SignalSeries();
+
+    private NetworkSnapshot lastSample;
+    private long            lastSampleAt;
+
+    private ListenerTelephony               listenerTelephony;
+    private ListenerNetwork                 listenerNetwork;
+    private TelephonyEventLoop.Subscription networkSubscription;
 
     public NetworkInfo()
     {
@@ -132,47 +97,26 @@ public class NetworkInfo implements ResultInfo
         int              dataSubId = SubscriptionManager.getDefaultDataSubscriptionId();
         TelephonyManager tm        = tmTemp.createForSubscriptionId(dataSubId);
 
-        Tool tool = new Tool();
-        setOperatorNet(tm.getNetworkOperatorName());
-        setOperatorNetId(tm.getNetworkOperator());
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P)
-        {
-            setCarrierSimId(tm.getSimCarrierId());
-            if (tm.getSimCarrierIdName() != null)
-                setCarrierSim(tm.getSimCarrierIdName().toString());
-        }
+        Tool    tool         = new Tool();
+        boolean phoneState   = ActivityCompat.checkSelfPermission(ctx, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED;
+        boolean fineLocation = ActivityCompat.checkSelfPermission(ctx, Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
 
-        if (tm.getSimState() == TelephonyManager.SIM_STATE_READY)
+        if (!phoneState)
         {
-            setOperatorSimId(tm.getSimOperator());
-            setOperatorSim(tm.getSimOperatorName());
-        }
+            final TelephonyEventLoop.Subscription subscription = TelephonyEventLoop.getShared().acquire();
 
-
-        if (ActivityCompat.checkSelfPermission(ctx, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED)
-        {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N)
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S)
             {
-                setDataNetworkId(tm.getDataNetworkType());
+                MyTelephonyCallback telephonyCallback = new MyTelephonyCallback(tm, subscription);
+                tm.registerTelephonyCallback(subscription.getExecutor(), telephonyCallback);
             } else
-                setDataNetworkId(tm.getNetworkType());
-
-            setDataNetwork(tool.getNetType(getDataNetworkId()));
-        } else
-        {
-            new Thread(new Runnable()
             {
-                @Override
-                public void run()
+                subscription.post(new Runnable()
                 {
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S)
-                    {
-                        MyTelephonyCallback telephonyCallback = new MyTelephonyCallback(tm);
-                        tm.registerTelephonyCallback(ctx.getMainExecutor(), telephonyCallback);
-                    } else
+                    @Override
+                    public void run()
                     {
-                        Looper.prepare();
-                        PhoneStateListener listener = new PhoneStateListener()
+                        tm.listen(new PhoneStateListener()
                         {
                             @Override
                             public void onDataConnectionStateChanged(int networkState, int networkType)
@@ -180,43 +124,35 @@ public class NetworkInfo implements ResultInfo
                                 setDataNetworkId(networkType);
                                 setDataNetwork(tool.getNetType(getDataNetworkId()));
                                 super.onDataConnectionStateChanged(networkState, networkType);
-                                Looper.myLooper().quit();
+                                tm.listen(this, PhoneStateListener.LISTEN_NONE);
+                                subscription.release();
                             }
-                        };
-
-                        tm.listen(listener, PhoneStateListener.LISTEN_DATA_CONNECTION_STATE);
-                        Looper.loop();
-                        tm.listen(listener, PhoneStateListener.LISTEN_NONE);
+                        }, PhoneStateListener.LISTEN_DATA_CONNECTION_STATE);
                     }
-
-                }
-            }).start();
-        }
-
-        setSimState(tm.getSimState());
-        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S)
-        {
-            setCallState(tm.getCallState());
-        } else if (ActivityCompat.checkSelfPermission(ctx, Manifest.permission.READ_PHONE_STATE) == PackageManager.PERMISSION_GRANTED)
-        {
-            setCallState(tm.getCallStateForSubscription());
-        }
-        setDataNetworkState(tm.getDataState());
-
-        setPhoneType(tm.getPhoneType());
-        setSimCountryIso(tm.getSimCountryIso());
-        setNetworkCountryIso(tm.getNetworkCountryIso());
-
-
-        if (ActivityCompat.checkSelfPermission(ctx, Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED)
-        {
-            List<CellInfo> cellInfoList = tm.getAllCellInfo();
-            getCellInfoData(cellInfoList);
-
-
+                });
+            }
         }
 
-        simsActive = 0;
+        // read everything up front so the telephony calls stay out of the update loop
+        final String         operatorNet       = tm.getNetworkOperatorName();
+        final String         operatorNetId     = tm.getNetworkOperator();
+        final boolean        carrier           = Build.VERSION.SDK_INT >= Build.VERSION_CODES.P;
+        final int            carrierSimId      = carrier ? tm.getSimCarrierId() : 0;
+        final CharSequence   carrierSim        = carrier ? tm.getSimCarrierIdName() : null;
+        final int            simState          = tm.getSimState();
+        final String         operatorSimId     = (simState == TelephonyManager.SIM_STATE_READY) ? tm.getSimOperator() : null;
+        final String         operatorSim       = (simState == TelephonyManager.SIM_STATE_READY) ? tm.getSimOperatorName() : null;
+        final int            dataNetworkId     = !phoneState ? 0 : (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) ? tm.getDataNetworkType() : tm.getNetworkType();
+        final boolean        hasCallState      = Build.VERSION.SDK_INT < Build.VERSION_CODES.S || phoneState;
+        final int            callState         = !hasCallState ? 0 : (Build.VERSION.SDK_INT < Build.VERSION_CODES.S) ? tm.getCallState() : tm.getCallStateForSubscription();
+        final int            dataNetworkState  = tm.getDataState();
+        final int            phoneType         = tm.getPhoneType();
+        final String         simCountryIso     = tm.getSimCountryIso();
+        final String         networkCountryIso = tm.getNetworkCountryIso();
+        final List<CellInfo> cellInfoList      = fineLocation ? tm.getAllCellInfo() : null;
+        final String         connectionType    = tool.getConnectionType(ctx);
+
+        int simsActive = 0;
         for (int i = 0; i < 10; i++)
         {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O)
@@ -225,379 +161,401 @@ public class NetworkInfo implements ResultInfo
                     simsActive++;
             }
         }
+        final int sims = simsActive;
+
+        update(next ->
+        {
+            next.setOperatorNet(operatorNet);
+            applyOperatorNetId(next, operatorNetId);
+            if (carrier)
+            {
+                next.setCarrierSimId(carrierSimId);
+                if (carrierSim != null)
+                    next.setCarrierSim(carrierSim.toString());
+            }
+
+            if (simState == TelephonyManager.SIM_STATE_READY)
+            {
+                applyOperatorSimId(next, operatorSimId);
+                next.setOperatorSim(operatorSim);
+            }
+
+            if (phoneState)
+            {
+                applyDataNetworkId(next, dataNetworkId);
+                next.setDataNetwork(tool.getNetType(dataNetworkId));
+            }
+
+            next.setSimState(simState);
+            if (hasCallState)
+                next.setCallState(callState);
+            next.setDataNetworkState(dataNetworkState);
+
+            next.setPhoneType(phoneType);
+            next.setSimCountryIso(simCountryIso);
+            next.setNetworkCountryIso(networkCountryIso);
+
+            applyCellInfo(next, cellInfoList);
 
-        setConnectionType(tool.getConnectionType(ctx));
+            next.setSimsActive(sims);
+            applyConnectionType(next, connectionType);
+        });
     }
 
     public int getRssi()
     {
-        return rssi;
+        return state.get().rssi;
     }
 
     public void setRssi(int rssi)
     {
-        this.rssi = rssi;
+        update(next -> next.setRssi(rssi));
     }
 
     public int getRsrp()
     {
-        return rsrp;
+        return state.get().rsrp;
     }
 
     public void setRsrp(int rsrp)
     {
-        this.rsrp = rsrp;
+        update(next -> next.setRsrp(rsrp));
     }
 
     public int getRsrq()
     {
-        return rsrq;
+        return state.get().rsrq;
     }
 
     public void setRsrq(int rsrq)
     {
-        this.rsrq = rsrq;
+        update(next -> next.setRsrq(rsrq));
     }
 
     public int getSinr()
     {
-        return sinr;
+        return state.get().sinr;
     }
 
     public void setSinr(int sinr)
     {
-        this.sinr = sinr;
+        update(next -> next.setSinr(sinr));
     }
 
     public int getArfcn()
     {
-        return arfcn;
+        return state.get().arfcn;
     }
 
     public void setArfcn(int arfcn)
     {
-        this.arfcn = arfcn;
+        update(next -> next.setArfcn(arfcn));
     }
 
     public int getSimsActive()
     {
-        return simsActive;
+        return state.get().simsActive;
     }
 
     public void setSimsActive(int simsActive)
     {
-        this.simsActive = simsActive;
+        update(next -> next.setSimsActive(simsActive));
     }
 
     public int getCellPci()
     {
-        return cellPci;
+        return state.get().cellPci;
     }
 
     public void setCellPci(int cellPci)
     {
-        this.cellPci = cellPci;
+        update(next -> next.setCellPci(cellPci));
     }
 
     public int getTetheringState()
     {
-        return tetheringState;
+        return state.get().tetheringState;
     }
 
     public void setTetheringState(int tetheringState)
     {
-        this.tetheringState = tetheringState;
+        update(next -> next.setTetheringState(tetheringState));
     }
 
     public int getRoamingState()
     {
-        return roamingState;
+        return state.get().roamingState;
     }
 
     public void setRoamingState(int roamingState)
     {
-        this.roamingState = roamingState;
+        update(next -> next.setRoamingState(roamingState));
     }
 
     public String getOperatorNetId()
     {
-        return operatorNetId;
+        return state.get().operatorNetId;
     }
 
     public void setOperatorNetId(String operatorNetId)
     {
-        this.operatorNetId = operatorNetId;
-        if (operatorNetId != null && !operatorNetId.isEmpty())
-        {
-            setOperatorNetMcc(Integer.parseInt(operatorNetId.substring(0, 3)));
-            setOperatorNetMnc(Integer.parseInt(operatorNetId.substring(3, 5)));
-        }
+        update(next -> applyOperatorNetId(next, operatorNetId));
     }
 
     public String getOperatorNet()
     {
-        return operatorNet;
+        return state.get().operatorNet;
     }
 
     public void setOperatorNet(String operatorNet)
     {
-        this.operatorNet = operatorNet;
+        update(next -> next.setOperatorNet(operatorNet));
     }
 
     public void setOperatorNetAll(String operatorNet, int operatorNetMcc, int operatorNetMnc)
     {
-        if (!operatorNet.equals(this.operatorNet) || operatorNetMcc != this.operatorNetMcc || operatorNetMnc != this.operatorNetMnc)
-        {
-            operatorNetChanged = true;
-        }
-        setOperatorNet(operatorNet);
-        setOperatorNetMnc(operatorNetMnc);
-        setOperatorNetMcc(operatorNetMcc);
+        update(next -> applyOperatorNetAll(next, operatorNet, operatorNetMcc, operatorNetMnc));
     }
 
     public String getOperatorSimId()
     {
-        return operatorSimId;
+        return state.get().operatorSimId;
     }
 
     public void setOperatorSimId(String operatorSimId)
     {
-        this.operatorSimId = operatorSimId;
-        try
-        {
-            setOperatorSimMcc(Integer.parseInt(operatorSimId.substring(0, 3)));
-            setOperatorSimMnc(Integer.parseInt(operatorSimId.substring(3, 5)));
-        } catch (Exception ignored)
-        {
-        }
+        update(next -> applyOperatorSimId(next, operatorSimId));
     }
 
     public String getOperatorSim()
     {
-        return operatorSim;
+        return state.get().operatorSim;
     }
 
     public void setOperatorSim(String operatorSim)
     {
-        this.operatorSim = operatorSim;
+        update(next -> next.setOperatorSim(operatorSim));
     }
 
     public int getOperatorNetMcc()
     {
-        return operatorNetMcc;
+        return state.get().operatorNetMcc;
     }
 
     public void setOperatorNetMcc(int operatorNetMcc)
     {
-        this.operatorNetMcc = operatorNetMcc;
+        update(next -> next.setOperatorNetMcc(operatorNetMcc));
     }
 
     public int getOperatorNetMnc()
     {
-        return operatorNetMnc;
+        return state.get().operatorNetMnc;
     }
 
     public void setOperatorNetMnc(int operatorNetMnc)
     {
-        this.operatorNetMnc = operatorNetMnc;
+        update(next -> next.setOperatorNetMnc(operatorNetMnc));
     }
 
     public int getOperatorSimMcc()
     {
-        return operatorSimMcc;
+        return state.get().operatorSimMcc;
     }
 
     public void setOperatorSimMcc(int operatorSimMcc)
     {
-        this.operatorSimMcc = operatorSimMcc;
+        update(next -> next.setOperatorSimMcc(operatorSimMcc));
     }
 
     public int getOperatorSimMnc()
     {
-        return operatorSimMnc;
+        return state.get().operatorSimMnc;
     }
 
     public void setOperatorSimMnc(int operatorSimMnc)
     {
-        this.operatorSimMnc = operatorSimMnc;
+        update(next -> next.setOperatorSimMnc(operatorSimMnc));
     }
 
     public int getCarrierSimId()
     {
-        return carrierSimId;
+        return state.get().carrierSimId;
     }
 
     public void setCarrierSimId(int carrierSimId)
     {
-        this.carrierSimId = carrierSimId;
+        update(next -> next.setCarrierSimId(carrierSimId));
     }
 
     public String getCarrierSim()
     {
-        return carrierSim;
+        return state.get().carrierSim;
     }
 
     public void setCarrierSim(String carrierSim)
     {
-        this.carrierSim = carrierSim;
+        update(next -> next.setCarrierSim(carrierSim));
     }
 
     public int getDataNetworkId()
     {
-        return dataNetworkId;
+        return state.get().dataNetworkId;
     }
 
     public void setDataNetworkId(int dataNetworkId)
     {
-        this.dataNetworkId = dataNetworkId;
-        setNetworkIdChanged(dataNetworkId, testCase);
+        update(next -> applyDataNetworkId(next, dataNetworkId));
     }
 
     public String getDataNetwork()
     {
-        return dataNetwork;
+        return state.get().dataNetwork;
     }
 
     public void setDataNetwork(String dataNetwork)
     {
-        this.dataNetwork = dataNetwork;
+        update(next -> next.setDataNetwork(dataNetwork));
     }
 
     public int getDataNetworkDownloadStart()
     {
-        return dataNetworkDownloadStart;
+        return state.get().dataNetworkDownloadStart;
     }
 
     public void setDataNetworkDownloadStart(int dataNetworkDownloadStart)
     {
-        this.dataNetworkDownloadStart = dataNetworkDownloadStart;
+        update(next -> next.setDataNetworkDownloadStart(dataNetworkDownloadStart));
     }
 
     public boolean isDataNetworkDownloadChanged()
     {
-        return dataNetworkDownloadChanged;
+        return state.get().dataNetworkDownloadChanged;
     }
 
     public void setDataNetworkDownloadChanged(boolean dataNetworkDownloadChanged)
     {
-        this.dataNetworkDownloadChanged = dataNetworkDownloadChanged;
+        update(next -> next.setDataNetworkDownloadChanged(dataNetworkDownloadChanged));
     }
 
     public int getDataNetworkUploadStart()
     {
-        return dataNetworkUploadStart;
+        return state.get().dataNetworkUploadStart;
     }
 
     public void setDataNetworkUploadStart(int dataNetworkUploadStart)
     {
-        this.dataNetworkUploadStart = dataNetworkUploadStart;
+        update(next -> next.setDataNetworkUploadStart(dataNetworkUploadStart));
     }
 
     public boolean isDataNetworkUploadChanged()
     {
-        return dataNetworkUploadChanged;
+        return state.get().dataNetworkUploadChanged;
     }
 
     public void setDataNetworkUploadChanged(boolean dataNetworkUploadChanged)
     {
-        this.dataNetworkUploadChanged = dataNetworkUploadChanged;
+        update(next -> next.setDataNetworkUploadChanged(dataNetworkUploadChanged));
     }
 
     public void setOperatorNetChanged(boolean operatorNetChanged)
     {
-        this.operatorNetChanged = operatorNetChanged;
+        update(next -> next.setOperatorNetChanged(operatorNetChanged));
     }
 
     public long getCellId()
     {
-        return cellId;
+        return state.get().cellId;
     }
 
     public void setCellId(long cellId)
     {
-        this.cellId = cellId;
+        update(next -> next.setCellId(cellId));
     }
 
     public int getCellLac()
     {
-        return cellLac;
+        return state.get().cellLac;
     }
 
     public void setCellLac(int cellLac)
     {
-        this.cellLac = cellLac;
+        update(next -> next.setCellLac(cellLac));
     }
 
     public boolean isOperatorNetChanged()
     {
-        return operatorNetChanged;
+        return state.get().operatorNetChanged;
     }
 
     @Override
     public JSONObject toJson()
     {
-        JSONObject jData = new JSONObject();
+        JSONObject      jData    = new JSONObject();
+        NetworkSnapshot snapshot = state.get();
 
         try
         {
-            jData.put("operator_net_id", getOperatorNetId());
-            jData.put("operator_net_mcc", getOperatorNetMcc());
-            jData.put("operator_net_mnc", getOperatorNetMnc());
-            jData.put("operator_net", getOperatorNet());
-            if (isOperatorNetChanged())
-                jData.put("operator_net_changed", isOperatorNetChanged());
-            jData.put("operator_sim_id", getOperatorSimId());
-            jData.put("operator_sim_mcc", getOperatorSimMcc());
-            jData.put("operator_sim_mnc", getOperatorSimMnc());
-            jData.put("operator_sim", getOperatorSim());
-            jData.put("carrier_sim_id", getCarrierSimId());
-            jData.put("carrier_sim", getCarrierSim());
-
-            jData.put("cell_lac", getCellLac());
-            jData.put("cell_id", getCellId());
-            jData.put("cell_rssi", getRssi());
-            jData.put("cell_rsrp", getRsrp());
-            jData.put("cell_rsrq", getRsrq());
-            jData.put("cell_pci", getCellPci());
-            jData.put("cell_arfcn", getArfcn());
-
-
-            jData.put("call_state", getCallState());
-            jData.put("sim_state", getSimState());
-            jData.put("sims_active", getSimsActive());
-            jData.put("data_state", getDataNetworkState());
-            jData.put("roaming_state", getRoamingState());
-            jData.put("tethering_state", getTetheringState());
-
-            jData.put("sim_country_iso", getSimCountryIso());
-            jData.put("network_country_iso", getNetworkCountryIso());
-            jData.put("phone_type", getPhoneType());
-
-            jData.put("connection_type", getConnectionType());
-            jData.put("connection_type_download_start", getConnectionTypeDownloadStart());
-            if (isConnectionTypeDownloadChanged())
-                jData.put("connection_type_download_changed", isConnectionTypeDownloadChanged());
-            jData.put("connection_type_upload_start", getConnectionTypeUploadStart());
-            if (isConnectionTypeUploadChanged())
-                jData.put("connection_type_upload_changed", isConnectionTypeUploadChanged());
-            jData.put("connection_type_rtt_start", getConnectionTypeRttStart());
-            if (isConnectionTypeRttChanged())
-                jData.put("connection_type_rtt_changed", isConnectionTypeRttChanged());
-
-            jData.put("network", getDataNetwork());
-            if (isDataNetworkDownloadChanged())
-                jData.put("network_id_download_changed", isDataNetworkDownloadChanged());
-            if (getDataNetworkDownloadStart() != -1)
-                jData.put("network_id_download_start", getDataNetworkDownloadStart());
-            if (isDataNetworkUploadChanged())
-                jData.put("network_id_upload_changed", isDataNetworkUploadChanged());
-            if (getDataNetworkUploadStart() != -1)
-                jData.put("network_id_upload_start", getDataNetworkUploadStart());
-            if (isDataNetworkRttChanged())
-                jData.put("network_id_rtt_changed", isDataNetworkRttChanged());
-            if (getDataNetworkRttStart() != -1)
-                jData.put("network_id_rtt_start", getDataNetworkRttStart());
-            jData.put("network_id", getDataNetworkId());
+            jData.put("operator_net_id", snapshot.operatorNetId);
+            jData.put("operator_net_mcc", snapshot.operatorNetMcc);
+            jData.put("operator_net_mnc", snapshot.operatorNetMnc);
+            jData.put("operator_net", snapshot.operatorNet);
+            if (snapshot.operatorNetChanged)
+                jData.put("operator_net_changed", snapshot.operatorNetChanged);
+            jData.put("operator_sim_id", snapshot.operatorSimId);
+            jData.put("operator_sim_mcc", snapshot.operatorSimMcc);
+            jData.put("operator_sim_mnc", snapshot.operatorSimMnc);
+            jData.put("operator_sim", snapshot.operatorSim);
+            jData.put("carrier_sim_id", snapshot.carrierSimId);
+            jData.put("carrier_sim", snapshot.carrierSim);
+
+            jData.put("cell_lac", snapshot.cellLac);
+            jData.put("cell_id", snapshot.cellId);
+            jData.put("cell_rssi", snapshot.rssi);
+            jData.put("cell_rsrp", snapshot.rsrp);
+            jData.put("cell_rsrq", snapshot.rsrq);
+            jData.put("cell_pci", snapshot.cellPci);
+            jData.put("cell_arfcn", snapshot.arfcn);
+
+
+            jData.put("call_state", snapshot.callState);
+            jData.put("sim_state", snapshot.simState);
+            jData.put("sims_active", snapshot.simsActive);
+            jData.put("data_state", snapshot.dataNetworkState);
+            jData.put("roaming_state", snapshot.roamingState);
+            jData.put("tethering_state", snapshot.tetheringState);
+
+            jData.put("sim_country_iso", snapshot.simCountryIso);
+            jData.put("network_country_iso", snapshot.networkCountryIso);
+            jData.put("phone_type", snapshot.phoneType);
+
+            jData.put("connection_type", snapshot.connectionType);
+            jData.put("connection_type_download_start", snapshot.connectionTypeDownloadStart);
+            if (snapshot.connectionTypeDownloadChanged)
+                jData.put("connection_type_download_changed", snapshot.connectionTypeDownloadChanged);
+            jData.put("connection_type_upload_start", snapshot.connectionTypeUploadStart);
+            if (snapshot.connectionTypeUploadChanged)
+                jData.put("connection_type_upload_changed", snapshot.connectionTypeUploadChanged);
+            jData.put("connection_type_rtt_start", snapshot.connectionTypeRttStart);
+            if (snapshot.connectionTypeRttChanged)
+                jData.put("connection_type_rtt_changed", snapshot.connectionTypeRttChanged);
+
+            jData.put("network", snapshot.dataNetwork);
+            if (snapshot.dataNetworkDownloadChanged)
+                jData.put("network_id_download_changed", snapshot.dataNetworkDownloadChanged);
+            if (snapshot.dataNetworkDownloadStart != -1)
+                jData.put("network_id_download_start", snapshot.dataNetworkDownloadStart);
+            if (snapshot.dataNetworkUploadChanged)
+                jData.put("network_id_upload_changed", snapshot.dataNetworkUploadChanged);
+            if (snapshot.dataNetworkUploadStart != -1)
+                jData.put("network_id_upload_start", snapshot.dataNetworkUploadStart);
+            if (snapshot.dataNetworkRttChanged)
+                jData.put("network_id_rtt_changed", snapshot.dataNetworkRttChanged);
+            if (snapshot.dataNetworkRttStart != -1)
+                jData.put("network_id_rtt_start", snapshot.dataNetworkRttStart);
+            jData.put("network_id", snapshot.dataNetworkId);
+
+            if (signalSeries.size() > 0)
+                jData.put("signal_statistics", signalSeries.toJson());
 
         } catch (JSONException ignored)
         {
@@ -607,7 +565,7 @@ public class NetworkInfo implements ResultInfo
     }
 
 
-    private void getCellInfoData(List<CellInfo> cellInfoList)
+    private static void applyCellInfo(NetworkSnapshot.Builder next, List<CellInfo> cellInfoList)
     {
         if (cellInfoList != null)
         {
@@ -616,33 +574,33 @@ public class NetworkInfo implements ResultInfo
                 if (info instanceof CellInfoGsm)
                 {
                     if (info.isRegistered())
-                        getGsmData((CellInfoGsm) info);
+                        applyGsmData(next, (CellInfoGsm) info);
                 } else if (info instanceof CellInfoLte)
                 {
                     if (info.isRegistered())
-                        getLteData((CellInfoLte) info);
+                        applyLteData(next, (CellInfoLte) info);
                 } else if (info instanceof CellInfoCdma)
                 {
                     if (info.isRegistered())
-                        getCdmaData((CellInfoCdma) info);
+                        applyCdmaData(next, (CellInfoCdma) info);
                 } else if (info instanceof CellInfoWcdma)
                 {
                     if (info.isRegistered())
-                        getWcdmaData((CellInfoWcdma) info);
+                        applyWcdmaData(next, (CellInfoWcdma) info);
                 } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q)
                 {
                     if (info instanceof CellInfoTdscdma)
                     {
                         if (info.isRegistered())
-                            getTdscdmaData((CellInfoTdscdma) info);
+                            applyTdscdmaData(next, (CellInfoTdscdma) info);
                     } else if (info instanceof CellInfoNr)
                     {
                         if (info.isRegistered())
-                            getNrData((CellInfoNr) info);
+                            applyNrData(next, (CellInfoNr) info);
                     }
                 } else
                 {
-                    Log.warning(TAG, "getCellInfoData: unsupported CellInfo");
+                    Log.warning(TAG, "applyCellInfo: unsupported CellInfo");
                 }
             }
 
@@ -650,332 +608,439 @@ public class NetworkInfo implements ResultInfo
 
     }
 
-    private void getLteData(@NonNull CellInfoLte cellInfoLte)
+    private static void applyLteData(NetworkSnapshot.Builder next, @NonNull CellInfoLte cellInfoLte)
     {
         final CellSignalStrengthLte signalStrengthLte = cellInfoLte.getCellSignalStrength();
         final CellIdentityLte       identityLte       = cellInfoLte.getCellIdentity();
 
-        setCellId(identityLte.getCi());
-        setCellLac(identityLte.getTac());
-        setRssi(signalStrengthLte.getDbm());
-        setCellPci(identityLte.getPci());
-
+        next.setCellId(identityLte.getCi());
+        next.setCellLac(identityLte.getTac());
+        next.setRssi(signalStrengthLte.getDbm());
+        next.setCellPci(identityLte.getPci());
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N)
         {
-            setArfcn(identityLte.getEarfcn());
+            next.setArfcn(identityLte.getEarfcn());
         }
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O)
         {
-            setRsrp(signalStrengthLte.getRsrp());
-            setRsrq(signalStrengthLte.getRsrq());
-            setSinr(signalStrengthLte.getRssnr());
+            next.setRsrp(signalStrengthLte.getRsrp());
+            next.setRsrq(signalStrengthLte.getRsrq());
+            int sinr = signalStrengthLte.getRssnr();
+            next.setSinr((sinr == CellInfo.UNAVAILABLE) ? 0 : sinr);
         }
-
     }
 
 
-    private void getGsmData(@NonNull CellInfoGsm cellInfoGsm)
+    private static void applyGsmData(NetworkSnapshot.Builder next, @NonNull CellInfoGsm cellInfoGsm)
     {
         final CellSignalStrengthGsm signalStrengthGsm = cellInfoGsm.getCellSignalStrength();
         final CellIdentityGsm       identityGsm       = cellInfoGsm.getCellIdentity();
 
-        setCellId(identityGsm.getCid());
-        setCellLac(identityGsm.getLac());
-        setRssi(signalStrengthGsm.getDbm());
+        next.setCellId(identityGsm.getCid());
+        next.setCellLac(identityGsm.getLac());
+        next.setRssi(signalStrengthGsm.getDbm());
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N)
         {
-            setArfcn(identityGsm.getArfcn());
+            next.setArfcn(identityGsm.getArfcn());
         }
-
     }
 
 
-    private void getCdmaData(@NonNull CellInfoCdma cellInfoCdma)
+    private static void applyCdmaData(NetworkSnapshot.Builder next, @NonNull CellInfoCdma cellInfoCdma)
     {
         final CellSignalStrengthCdma signalStrengthCdma = cellInfoCdma.getCellSignalStrength();
         final CellIdentityCdma       identityCdma       = cellInfoCdma.getCellIdentity();
 
-        setCellId(identityCdma.getBasestationId());
-        setRssi(signalStrengthCdma.getDbm());
-
+        next.setCellId(identityCdma.getBasestationId());
+        next.setRssi(signalStrengthCdma.getDbm());
     }
 
 
-    private void getWcdmaData(@NonNull CellInfoWcdma cellInfoWcdma)
+    private static void applyWcdmaData(NetworkSnapshot.Builder next, @NonNull CellInfoWcdma cellInfoWcdma)
     {
         final CellSignalStrengthWcdma signalStrengthWcdma = cellInfoWcdma.getCellSignalStrength();
         final CellIdentityWcdma       identityWcdma       = cellInfoWcdma.getCellIdentity();
 
-
-        setCellId(identityWcdma.getCid());
-        setCellLac(identityWcdma.getLac());
-        setRssi(signalStrengthWcdma.getDbm());
-
+        next.setCellId(identityWcdma.getCid());
+        next.setCellLac(identityWcdma.getLac());
+        next.setRssi(signalStrengthWcdma.getDbm());
     }
 
     @RequiresApi(api = Build.VERSION_CODES.Q)
-    private void getTdscdmaData(@NonNull CellInfoTdscdma cellInfoTdscdma)
+    private static void applyTdscdmaData(NetworkSnapshot.Builder next, @NonNull CellInfoTdscdma cellInfoTdscdma)
     {
         final CellSignalStrengthTdscdma signalStrengthTdscdma = cellInfoTdscdma.getCellSignalStrength();
         final CellIdentityTdscdma       identityTdscdma       = cellInfoTdscdma.getCellIdentity();
 
-        setCellId(identityTdscdma.getCid());
-        setCellLac(identityTdscdma.getLac());
-        setRssi(signalStrengthTdscdma.getDbm());
-
+        next.setCellId(identityTdscdma.getCid());
+        next.setCellLac(identityTdscdma.getLac());
+        next.setRssi(signalStrengthTdscdma.getDbm());
     }
 
 
     @RequiresApi(api = Build.VERSION_CODES.Q)
-    private void getNrData(@NonNull CellInfoNr cellInfoNr)
+    private static void applyNrData(NetworkSnapshot.Builder next, @NonNull CellInfoNr cellInfoNr)
     {
 
         final CellSignalStrengthNr signalStrengthNr = (CellSignalStrengthNr) cellInfoNr.getCellSignalStrength();
         final CellIdentityNr       identityNr       = (CellIdentityNr) cellInfoNr.getCellIdentity();
 
-        setCellId(identityNr.getNci());
-        setCellLac(identityNr.getTac());
-        setRssi(signalStrengthNr.getDbm());
-        setRsrp(signalStrengthNr.getCsiRsrp());
-        setCellPci(identityNr.getPci());
+        next.setCellId(identityNr.getNci());
+        next.setCellLac(identityNr.getTac());
+        next.setRssi(signalStrengthNr.getDbm());
+        next.setRsrp(signalStrengthNr.getCsiRsrp());
+        next.setCellPci(identityNr.getPci());
     }
 
     public void setNetworkIdChanged(int networkId, AbstractMeasurementResult.TestCase testcase)
     {
-        if (testcase != null)
-        {
-            switch (testcase)
-            {
-                case DOWNLOAD:
-                {
-                    if (!dataNetworkDownloadChanged)
-                        setDataNetworkDownloadChanged(dataNetworkDownloadStart != networkId);
-                    break;
-                }
-                case UPLOAD:
-                {
-                    if (!dataNetworkUploadChanged)
-                        setDataNetworkUploadChanged(dataNetworkUploadStart != networkId);
-                    break;
-                }
-                case RTT_UDP:
-                {
-                    if (!dataNetworkRttChanged)
-                        setDataNetworkRttChanged(dataNetworkRttStart != networkId);
-                    break;
-                }
-            }
-        }
+        update(next -> applyNetworkIdChanged(next, networkId, testcase));
     }
 
     public void setConnectionTypeChanged(String connectionType, AbstractMeasurementResult.TestCase testcase)
     {
-        if (testcase != null)
-        {
-            switch (testcase)
-            {
-                case DOWNLOAD:
-                {
-                    if (!connectionTypeDownloadChanged)
-                        setConnectionTypeDownloadChanged(!connectionTypeDownloadStart.equals(connectionType));
-                    break;
-                }
-                case UPLOAD:
-                {
-                    if (!connectionTypeUploadChanged)
-                        setConnectionTypeUploadChanged(!connectionTypeUploadStart.equals(connectionType));
-                    break;
-                }
-                case RTT_UDP:
-                {
-                    if (!connectionTypeRttChanged)
-                        setConnectionTypeRttChanged(!connectionTypeRttStart.equals(connectionType));
-                    break;
-                }
-            }
-        }
+        update(next -> applyConnectionTypeChanged(next, connectionType, testcase));
     }
 
     public int getSimState()
     {
-        return simState;
+        return state.get().simState;
     }
 
     public void setSimState(int simState)
     {
-        this.simState = simState;
+        update(next -> next.setSimState(simState));
     }
 
     public String getSimCountryIso()
     {
-        return simCountryIso;
+        return state.get().simCountryIso;
     }
 
     public void setSimCountryIso(String simCountryIso)
     {
-        this.simCountryIso = simCountryIso;
+        update(next -> next.setSimCountryIso(simCountryIso));
     }
 
     public int getCallState()
     {
-        return callState;
+        return state.get().callState;
     }
 
     public void setCallState(int callState)
     {
-        this.callState = callState;
+        update(next -> next.setCallState(callState));
     }
 
     public int getDataNetworkState()
     {
-        return dataNetworkState;
+        return state.get().dataNetworkState;
     }
 
     public void setDataNetworkState(int dataNetworkState)
     {
-        this.dataNetworkState = dataNetworkState;
+        update(next -> next.setDataNetworkState(dataNetworkState));
     }
 
     public int getPhoneType()
     {
-        return phoneType;
+        return state.get().phoneType;
     }
 
     public void setPhoneType(int phoneType)
     {
-        this.phoneType = phoneType;
+        update(next -> next.setPhoneType(phoneType));
     }
 
     public String getNetworkCountryIso()
     {
-        return networkCountryIso;
+        return state.get().networkCountryIso;
     }
 
     public void setNetworkCountryIso(String networkCountryIso)
     {
-        this.networkCountryIso = networkCountryIso;
+        update(next -> next.setNetworkCountryIso(networkCountryIso));
     }
 
     public String getConnectionType()
     {
-        return connectionType;
+        return state.get().connectionType;
     }
 
     public void setConnectionType(String connectionType)
     {
-        if (connectionType != null)
-            this.connectionType = connectionType;
-
-        setConnectionTypeChanged(connectionType, testCase);
+        update(next -> applyConnectionType(next, connectionType));
     }
 
     public String getConnectionTypeDownloadStart()
     {
-        return connectionTypeDownloadStart;
+        return state.get().connectionTypeDownloadStart;
     }
 
     public void setConnectionTypeDownloadStart(String connectionTypeDownloadStart)
     {
-        this.connectionTypeDownloadStart = connectionTypeDownloadStart;
+        update(next -> next.setConnectionTypeDownloadStart(connectionTypeDownloadStart));
     }
 
     public boolean isConnectionTypeDownloadChanged()
     {
-        return connectionTypeDownloadChanged;
+        return state.get().connectionTypeDownloadChanged;
     }
 
     public void setConnectionTypeDownloadChanged(boolean connectionTypeDownloadChanged)
     {
-        this.connectionTypeDownloadChanged = connectionTypeDownloadChanged;
+        update(next -> next.setConnectionTypeDownloadChanged(connectionTypeDownloadChanged));
     }
 
     public String getConnectionTypeUploadStart()
     {
-        return connectionTypeUploadStart;
+        return state.get().connectionTypeUploadStart;
     }
 
     public void setConnectionTypeUploadStart(String connectionTypeUploadStart)
     {
-        this.connectionTypeUploadStart = connectionTypeUploadStart;
+        update(next -> next.setConnectionTypeUploadStart(connectionTypeUploadStart));
     }
 
     public boolean isConnectionTypeUploadChanged()
     {
-        return connectionTypeUploadChanged;
+        return state.get().connectionTypeUploadChanged;
     }
 
     public void setConnectionTypeUploadChanged(boolean connectionTypeUploadChanged)
     {
-        this.connectionTypeUploadChanged = connectionTypeUploadChanged;
+        update(next -> next.setConnectionTypeUploadChanged(connectionTypeUploadChanged));
     }
 
     public int getDataNetworkRttStart()
     {
-        return dataNetworkRttStart;
+        return state.get().dataNetworkRttStart;
     }
 
     public void setDataNetworkRttStart(int dataNetworkRttStart)
     {
-        this.dataNetworkRttStart = dataNetworkRttStart;
+        update(next -> next.setDataNetworkRttStart(dataNetworkRttStart));
     }
 
     public boolean isDataNetworkRttChanged()
     {
-        return dataNetworkRttChanged;
+        return state.get().dataNetworkRttChanged;
     }
 
     public void setDataNetworkRttChanged(boolean dataNetworkRttChanged)
     {
-        this.dataNetworkRttChanged = dataNetworkRttChanged;
+        update(next -> next.setDataNetworkRttChanged(dataNetworkRttChanged));
     }
 
     public String getConnectionTypeRttStart()
     {
-        return connectionTypeRttStart;
+        return state.get().connectionTypeRttStart;
     }
 
     public void setConnectionTypeRttStart(String connectionTypeRttStart)
     {
-        this.connectionTypeRttStart = connectionTypeRttStart;
+        update(next -> next.setConnectionTypeRttStart(connectionTypeRttStart));
     }
 
     public boolean isConnectionTypeRttChanged()
     {
-        return connectionTypeRttChanged;
+        return state.get().connectionTypeRttChanged;
     }
 
     public void setConnectionTypeRttChanged(boolean connectionTypeRttChanged)
     {
-        this.connectionTypeRttChanged = connectionTypeRttChanged;
+        update(next -> next.setConnectionTypeRttChanged(connectionTypeRttChanged));
     }
 
     public void setCurrentTestCase(AbstractMeasurementResult.TestCase testCase)
     {
-        this.testCase = testCase;
+        // publish first so samples recorded for the new test case already carry it
+        update(next -> applyTestCase(next, testCase));
+        signalSeries.beginTestCase(testCase);
+    }
+
+    public NetworkSnapshot getSnapshot()
+    {
+        return state.get();
+    }
+
+    public SignalSeries getSignalSeries()
+    {
+        return signalSeries;
+    }
+
+    private NetworkSnapshot update(Consumer<NetworkSnapshot.Builder> mutation)
+    {
+        while (true)
+        {
+            NetworkSnapshot         current = state.get();
+            NetworkSnapshot.Builder next    = current.toBuilder();
+
+            mutation.accept(next);
+
+            NetworkSnapshot published = next.build();
+            if (state.compareAndSet(current, published))
+                return published;
+        }
+    }
+
+    private void recordSignal(NetworkSnapshot snapshot)
+    {
+        long now = System.currentTimeMillis();
+
+        synchronized (signalSeries)
+        {
+            if (lastSample != null && now - lastSampleAt < SIGNAL_SAMPLE_INTERVAL_MS && !signalChanged(lastSample, snapshot))
+                return;
+
+            lastSample   = snapshot;
+            lastSampleAt = now;
+
+            signalSeries.add(now, snapshot.testCase, snapshot.rssi, snapshot.rsrp, snapshot.rsrq, snapshot.sinr, snapshot.arfcn, snapshot.cellId);
+        }
+    }
+
+    private static boolean signalChanged(NetworkSnapshot previous, NetworkSnapshot current)
+    {
+        return previous.testCase != current.testCase
+                || previous.rssi != current.rssi
+                || previous.rsrp != current.rsrp
+                || previous.rsrq != current.rsrq
+                || previous.sinr != current.sinr
+                || previous.arfcn != current.arfcn
+                || previous.cellId != current.cellId;
+    }
+
+    private static void applyOperatorNetId(NetworkSnapshot.Builder next, String operatorNetId)
+    {
+        next.setOperatorNetId(operatorNetId);
+        if (operatorNetId != null && !operatorNetId.isEmpty())
+        {
+            next.setOperatorNetMcc(Integer.parseInt(operatorNetId.substring(0, 3)));
+            next.setOperatorNetMnc(Integer.parseInt(operatorNetId.substring(3, 5)));
+        }
+    }
+
+    private static void applyOperatorNetAll(NetworkSnapshot.Builder next, String operatorNet, int operatorNetMcc, int operatorNetMnc)
+    {
+        if (!operatorNet.equals(next.operatorNet) || operatorNetMcc != next.operatorNetMcc || operatorNetMnc != next.operatorNetMnc)
+        {
+            next.setOperatorNetChanged(true);
+        }
+        next.setOperatorNet(operatorNet);
+        next.setOperatorNetMnc(operatorNetMnc);
+        next.setOperatorNetMcc(operatorNetMcc);
+    }
+
+    private static void applyOperatorSimId(NetworkSnapshot.Builder next, String operatorSimId)
+    {
+        next.setOperatorSimId(operatorSimId);
+        try
+        {
+            next.setOperatorSimMcc(Integer.parseInt(operatorSimId.substring(0, 3)));
+            next.setOperatorSimMnc(Integer.parseInt(operatorSimId.substring(3, 5)));
+        } catch (Exception ignored)
+        {
+        }
+    }
+
+    private static void applyDataNetworkId(NetworkSnapshot.Builder next, int dataNetworkId)
+    {
+        next.setDataNetworkId(dataNetworkId);
+        applyNetworkIdChanged(next, dataNetworkId, next.testCase);
+    }
+
+    private static void applyConnectionType(NetworkSnapshot.Builder next, String connectionType)
+    {
+        if (connectionType != null)
+            next.setConnectionType(connectionType);
+
+        applyConnectionTypeChanged(next, connectionType, next.testCase);
+    }
+
+    private static void applyNetworkIdChanged(NetworkSnapshot.Builder next, int networkId, AbstractMeasurementResult.TestCase testcase)
+    {
+        if (testcase != null)
+        {
+            switch (testcase)
+            {
+                case DOWNLOAD:
+                {
+                    if (!next.dataNetworkDownloadChanged)
+                        next.setDataNetworkDownloadChanged(next.dataNetworkDownloadStart != networkId);
+                    break;
+                }
+                case UPLOAD:
+                {
+                    if (!next.dataNetworkUploadChanged)
+                        next.setDataNetworkUploadChanged(next.dataNetworkUploadStart != networkId);
+                    break;
+                }
+                case RTT_UDP:
+                {
+                    if (!next.dataNetworkRttChanged)
+                        next.setDataNetworkRttChanged(next.dataNetworkRttStart != networkId);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void applyConnectionTypeChanged(NetworkSnapshot.Builder next, String connectionType, AbstractMeasurementResult.TestCase testcase)
+    {
+        if (testcase != null)
+        {
+            switch (testcase)
+            {
+                case DOWNLOAD:
+                {
+                    if (!next.connectionTypeDownloadChanged)
+                        next.setConnectionTypeDownloadChanged(!Objects.equals(next.connectionTypeDownloadStart, connectionType));
+                    break;
+                }
+                case UPLOAD:
+                {
+                    if (!next.connectionTypeUploadChanged)
+                        next.setConnectionTypeUploadChanged(!Objects.equals(next.connectionTypeUploadStart, connectionType));
+                    break;
+                }
+                case RTT_UDP:
+                {
+                    if (!next.connectionTypeRttChanged)
+                        next.setConnectionTypeRttChanged(!Objects.equals(next.connectionTypeRttStart, connectionType));
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void applyTestCase(NetworkSnapshot.Builder next, AbstractMeasurementResult.TestCase testCase)
+    {
+        next.setTestCase(testCase);
 
         switch (testCase)
         {
             case DOWNLOAD:
             {
-                setDataNetworkDownloadStart(getDataNetworkId());
-                setConnectionTypeDownloadStart(getConnectionType());
+                next.setDataNetworkDownloadStart(next.dataNetworkId);
+                next.setConnectionTypeDownloadStart(next.connectionType);
                 break;
             }
 
             case UPLOAD:
             {
-                setDataNetworkUploadStart(getDataNetworkId());
-                setConnectionTypeUploadStart(getConnectionType());
+                next.setDataNetworkUploadStart(next.dataNetworkId);
+                next.setConnectionTypeUploadStart(next.connectionType);
                 break;
             }
 
             case RTT_UDP:
             {
-                setDataNetworkRttStart(getDataNetworkId());
-                setConnectionTypeRttStart(getConnectionType());
+                next.setDataNetworkRttStart(next.dataNetworkId);
+                next.setConnectionTypeRttStart(next.connectionType);
                 break;
             }
 
@@ -985,11 +1050,13 @@ public class NetworkInfo implements ResultInfo
     @RequiresApi(api = Build.VERSION_CODES.S)
     private class MyTelephonyCallback extends TelephonyCallback implements TelephonyCallback.DataConnectionStateListener
     {
-        private final TelephonyManager tm;
+        private final TelephonyManager                tm;
+        private final TelephonyEventLoop.Subscription subscription;
 
-        public MyTelephonyCallback(TelephonyManager tm)
+        public MyTelephonyCallback(TelephonyManager tm, TelephonyEventLoop.Subscription subscription)
         {
-            this.tm = tm;
+            this.tm           = tm;
+            this.subscription = subscription;
         }
 
         @Override
@@ -999,11 +1066,13 @@ public class NetworkInfo implements ResultInfo
             setDataNetworkId(networkType);
             setDataNetwork(new Tool().getNetType(getDataNetworkId()));
             tm.unregisterTelephonyCallback(this);
+            subscription.release();
         }
     }
 
     public void startNetworkListener(Context ctx)
     {
+        stopNetworkListener();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S)
         {
@@ -1020,41 +1089,44 @@ public class NetworkInfo implements ResultInfo
                 {
                     try
                     {
+                        final int     dataNetworkId = message.getInt("app_access_id");
+                        final String  dataNetwork   = message.getString("app_access");
+                        final boolean tethering     = getTetheringState() != 1 && new Tool().isWifiTethering(ctx);
+                        final boolean roaming       = getRoamingState() != 1 && new Tool().isRoaming(ctx);
 
-                        setDataNetworkId(message.getInt("app_access_id"));
-                        setDataNetwork(message.getString("app_access"));
-
-                        setOperatorNetMcc(message.optInt("app_operator_net_mcc"));
-                        setOperatorNetMnc(message.optInt("app_operator_net_mnc"));
-                        setOperatorNet(message.optString("app_operator_net"));
-
-                        setOperatorSimMcc(message.optInt("app_operator_sim_mcc"));
-                        setOperatorSimMnc(message.optInt("app_operator_sim_mnc"));
-                        setOperatorSim(message.optString("app_operator_sim"));
+                        NetworkSnapshot snapshot = update(next ->
+                        {
+                            applyDataNetworkId(next, dataNetworkId);
+                            next.setDataNetwork(dataNetwork);
 
-                        setCallState(message.optInt("app_call_state", -1));
-                        setConnectionType(message.optString("app_mode"));
+                            next.setOperatorNetMcc(message.optInt("app_operator_net_mcc"));
+                            next.setOperatorNetMnc(message.optInt("app_operator_net_mnc"));
+                            next.setOperatorNet(message.optString("app_operator_net"));
 
+                            next.setOperatorSimMcc(message.optInt("app_operator_sim_mcc"));
+                            next.setOperatorSimMnc(message.optInt("app_operator_sim_mnc"));
+                            next.setOperatorSim(message.optString("app_operator_sim"));
 
-                        if (getTetheringState() != 1)
-                        {
-                            setTetheringState(new Tool().isWifiTethering(ctx) ? 1 : 0);
-                        }
+                            next.setCallState(message.optInt("app_call_state", -1));
+                            applyConnectionType(next, message.optString("app_mode"));
 
+                            if (next.tetheringState != 1)
+                                next.setTetheringState(tethering ? 1 : 0);
 
-                        if (getRoamingState() != 1)
-                        {
-                            setRoamingState(new Tool().isRoaming(ctx) ? 1 : 0);
-                        }
+                            if (next.roamingState != 1)
+                                next.setRoamingState(roaming ? 1 : 0);
 
-                        setArfcn(message.optInt("app_arfcn"));
-                        setRssi(message.optInt("app_rssi"));
-                        setCellId(message.optLong("app_cellid"));
-                        setCellLac(message.optInt("app_celllac"));
-                        setCellPci(message.optInt("app_cellpci"));
-                        setRsrp(message.optInt("app_rsrp"));
-                        setRsrq(message.optInt("app_rsrq"));
+                            next.setArfcn(message.optInt("app_arfcn"));
+                            next.setRssi(message.optInt("app_rssi"));
+                            next.setCellId(message.optLong("app_cellid"));
+                            next.setCellLac(message.optInt("app_celllac"));
+                            next.setCellPci(message.optInt("app_cellpci"));
+                            next.setRsrp(message.optInt("app_rsrp"));
+                            next.setRsrq(message.optInt("app_rsrq"));
+                            next.setSinr(message.optInt("app_sinr"));
+                        });
 
+                        recordSignal(snapshot);
                     } catch (Exception ex)
                     {
                         Log.warning(TAG, "network listener failed", ex);
@@ -1065,9 +1137,9 @@ public class NetworkInfo implements ResultInfo
             listenerTelephony.startUpdates();
         } else
         {
-            new Thread(() ->
+            networkSubscription = TelephonyEventLoop.getShared().acquire();
+            networkSubscription.post(() ->
             {
-                Looper.prepare();
                 listenerNetwork = new ListenerNetwork(ctx, new ModulesInterface()
                 {
                     @Override
@@ -1081,38 +1153,39 @@ public class NetworkInfo implements ResultInfo
                     {
                         try
                         {
+                            final boolean tethering = getTetheringState() != 1 && new Tool().isWifiTethering(ctx);
+                            final boolean roaming   = getRoamingState() != 1 && new Tool().isRoaming(ctx);
 
-                            setDataNetworkId(message.optInt("app_access_id"));
-                            setDataNetwork(message.optString("app_access"));
-
-                            setOperatorNetAll(message.optString("app_operator_net"), message.optInt("app_operator_net_mcc"), message.optInt("app_operator_net_mnc"));
-
-                            setOperatorSimMcc(message.optInt("app_operator_sim_mcc"));
-                            setOperatorSimMnc(message.optInt("app_operator_sim_mnc"));
-                            setOperatorSim(message.optString("app_operator_sim"));
+                            NetworkSnapshot snapshot = update(next ->
+                            {
+                                applyDataNetworkId(next, message.optInt("app_access_id"));
+                                next.setDataNetwork(message.optString("app_access"));
 
-                            setCallState(message.optInt("app_call_state"));
-                            setConnectionType(message.optString("app_mode"));
+                                applyOperatorNetAll(next, message.optString("app_operator_net"), message.optInt("app_operator_net_mcc"), message.optInt("app_operator_net_mnc"));
 
-                            setArfcn(message.optInt("app_arfcn"));
-                            setCellId(message.optLong("app_cellid"));
-                            setCellLac(message.optInt("app_celllac"));
-                            setRssi(message.optInt("app_rssi"));
-                            setRsrp(message.optInt("app_rsrp"));
-                            setRsrq(message.optInt("app_rsrq"));
+                                next.setOperatorSimMcc(message.optInt("app_operator_sim_mcc"));
+                                next.setOperatorSimMnc(message.optInt("app_operator_sim_mnc"));
+                                next.setOperatorSim(message.optString("app_operator_sim"));
 
+                                next.setCallState(message.optInt("app_call_state"));
+                                applyConnectionType(next, message.optString("app_mode"));
 
-                            if (getTetheringState() != 1)
-                            {
-                                setTetheringState(new Tool().isWifiTethering(ctx) ? 1 : 0);
-                            }
+                                next.setArfcn(message.optInt("app_arfcn"));
+                                next.setCellId(message.optLong("app_cellid"));
+                                next.setCellLac(message.optInt("app_celllac"));
+                                next.setRssi(message.optInt("app_rssi"));
+                                next.setRsrp(message.optInt("app_rsrp"));
+                                next.setRsrq(message.optInt("app_rsrq"));
+                                next.setSinr(message.optInt("app_sinr"));
 
+                                if (next.tetheringState != 1)
+                                    next.setTetheringState(tethering ? 1 : 0);
 
-                            if (getRoamingState() != 1)
-                            {
-                                setRoamingState(new Tool().isRoaming(ctx) ? 1 : 0);
-                            }
+                                if (next.roamingState != 1)
+                                    next.setRoamingState(roaming ? 1 : 0);
+                            });
 
+                            recordSignal(snapshot);
                         } catch (Exception ex)
                         {
                             Log.warning(TAG, "network listener failed", ex);
@@ -1121,9 +1194,7 @@ public class NetworkInfo implements ResultInfo
                 });
 
                 listenerNetwork.startUpdates();
-
-                Looper.loop();
-            }).start();
+            });
         }
     }
 
@@ -1132,11 +1203,309 @@ public class NetworkInfo implements ResultInfo
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S)
         {
             if (listenerTelephony != null)
+            {
                 listenerTelephony.stopUpdates();
-        } else
+                listenerTelephony = null;
+            }
+        } else if (networkSubscription != null)
+        {
+            final TelephonyEventLoop.Subscription subscription = networkSubscription;
+
+            networkSubscription = null;
+            subscription.post(() ->
+            {
+                if (listenerNetwork != null)
+                    listenerNetwork.stopUpdates();
+
+                subscription.release();
+            });
+        }
+    }
+
+    public static final class GsonAdapter extends TypeAdapter<NetworkInfo>
+    {
+        @Override
+        public void write(JsonWriter out, NetworkInfo value) throws IOException
+        {
+            if (value == null)
+            {
+                out.nullValue();
+                return;
+            }
+
+            NetworkSnapshot snapshot = value.getSnapshot();
+
+            out.beginObject();
+            out.name("rssi").value(snapshot.rssi);
+            out.name("rsrp").value(snapshot.rsrp);
+            out.name("rsrq").value(snapshot.rsrq);
+            out.name("sinr").value(snapshot.sinr);
+            out.name("arfcn").value(snapshot.arfcn);
+
+            out.name("operatorNetId").value(snapshot.operatorNetId);
+            out.name("operatorNet").value(snapshot.operatorNet);
+            out.name("operatorNetMcc").value(snapshot.operatorNetMcc);
+            out.name("operatorNetMnc").value(snapshot.operatorNetMnc);
+            out.name("operatorNetChanged").value(snapshot.operatorNetChanged);
+            out.name("operatorSimMcc").value(snapshot.operatorSimMcc);
+            out.name("operatorSimMnc").value(snapshot.operatorSimMnc);
+            out.name("operatorSimId").value(snapshot.operatorSimId);
+            out.name("operatorSim").value(snapshot.operatorSim);
+            out.name("carrierSimId").value(snapshot.carrierSimId);
+            out.name("carrierSim").value(snapshot.carrierSim);
+
+            out.name("simState").value(snapshot.simState);
+            out.name("simsActive").value(snapshot.simsActive);
+
+            out.name("callState").value(snapshot.callState);
+            out.name("dataNetworkState").value(snapshot.dataNetworkState);
+
+            out.name("simCountryIso").value(snapshot.simCountryIso);
+            out.name("networkCountryIso").value(snapshot.networkCountryIso);
+
+            out.name("phoneType").value(snapshot.phoneType);
+            out.name("connectionType").value(snapshot.connectionType);
+            out.name("connectionTypeDownloadStart").value(snapshot.connectionTypeDownloadStart);
+            out.name("connectionTypeDownloadChanged").value(snapshot.connectionTypeDownloadChanged);
+            out.name("connectionTypeUploadStart").value(snapshot.connectionTypeUploadStart);
+            out.name("connectionTypeUploadChanged").value(snapshot.connectionTypeUploadChanged);
+            out.name("connectionTypeRttStart").value(snapshot.connectionTypeRttStart);
+            out.name("connectionTypeRttChanged").value(snapshot.connectionTypeRttChanged);
+            out.name("dataNetworkId").value(snapshot.dataNetworkId);
+            out.name("dataNetwork").value(snapshot.dataNetwork);
+
+            out.name("dataNetworkDownloadStart").value(snapshot.dataNetworkDownloadStart);
+            out.name("dataNetworkDownloadChanged").value(snapshot.dataNetworkDownloadChanged);
+            out.name("dataNetworkUploadStart").value(snapshot.dataNetworkUploadStart);
+            out.name("dataNetworkUploadChanged").value(snapshot.dataNetworkUploadChanged);
+            out.name("dataNetworkRttStart").value(snapshot.dataNetworkRttStart);
+            out.name("dataNetworkRttChanged").value(snapshot.dataNetworkRttChanged);
+            out.name("cellId").value(snapshot.cellId);
+            out.name("cellLac").value(snapshot.cellLac);
+            out.name("cellPci").value(snapshot.cellPci);
+
+            out.name("tetheringState").value(snapshot.tetheringState);
+            out.name("roamingState").value(snapshot.roamingState);
+
+            out.name("testCase").value((snapshot.testCase != null) ? snapshot.testCase.name() : null);
+            out.endObject();
+        }
+
+        @Override
+        public NetworkInfo read(JsonReader in) throws IOException
         {
-            if (listenerNetwork != null)
-                listenerNetwork.stopUpdates();
+            if (in.peek() == JsonToken.NULL)
+            {
+                in.nextNull();
+                return null;
+            }
+
+            NetworkInfo             value    = new NetworkInfo();
+            NetworkSnapshot.Builder snapshot = new NetworkSnapshot.Builder();
+
+            in.beginObject();
+            while (in.hasNext())
+            {
+                String name = in.nextName();
+
+                if (in.peek() == JsonToken.NULL)
+                {
+                    in.skipValue();
+                    continue;
+                }
+
+                switch (name)
+                {
+                    case "operator_net_id":
+                    case "operatorNetId":
+                        snapshot.operatorNetId = in.nextString();
+                        break;
+                    case "operator_net_mcc":
+                    case "operatorNetMcc":
+                        snapshot.operatorNetMcc = in.nextInt();
+                        break;
+                    case "operator_net_mnc":
+                    case "operatorNetMnc":
+                        snapshot.operatorNetMnc = in.nextInt();
+                        break;
+                    case "operator_net":
+                    case "operatorNet":
+                        snapshot.operatorNet = in.nextString();
+                        break;
+                    case "operator_net_changed":
+                    case "operatorNetChanged":
+                        snapshot.operatorNetChanged = in.nextBoolean();
+                        break;
+                    case "operator_sim_id":
+                    case "operatorSimId":
+                        snapshot.operatorSimId = in.nextString();
+                        break;
+                    case "operator_sim_mcc":
+                    case "operatorSimMcc":
+                        snapshot.operatorSimMcc = in.nextInt();
+                        break;
+                    case "operator_sim_mnc":
+                    case "operatorSimMnc":
+                        snapshot.operatorSimMnc = in.nextInt();
+                        break;
+                    case "operator_sim":
+                    case "operatorSim":
+                        snapshot.operatorSim = in.nextString();
+                        break;
+                    case "carrier_sim_id":
+                    case "carrierSimId":
+                        snapshot.carrierSimId = in.nextInt();
+                        break;
+                    case "carrier_sim":
+                    case "carrierSim":
+                        snapshot.carrierSim = in.nextString();
+                        break;
+                    case "cell_lac":
+                    case "cellLac":
+                        snapshot.cellLac = in.nextInt();
+                        break;
+                    case "cell_id":
+                    case "cellId":
+                        snapshot.cellId = in.nextLong();
+                        break;
+                    case "cell_rssi":
+                    case "rssi":
+                        snapshot.rssi = in.nextInt();
+                        break;
+                    case "cell_rsrp":
+                    case "rsrp":
+                        snapshot.rsrp = in.nextInt();
+                        break;
+                    case "cell_rsrq":
+                    case "rsrq":
+                        snapshot.rsrq = in.nextInt();
+                        break;
+                    case "cell_pci":
+                    case "cellPci":
+                        snapshot.cellPci = in.nextInt();
+                        break;
+                    case "cell_arfcn":
+                    case "arfcn":
+                        snapshot.arfcn = in.nextInt();
+                        break;
+                    case "call_state":
+                    case "callState":
+                        snapshot.callState = in.nextInt();
+                        break;
+                    case "sim_state":
+                    case "simState":
+                        snapshot.simState = in.nextInt();
+                        break;
+                    case "sims_active":
+                    case "simsActive":
+                        snapshot.simsActive = in.nextInt();
+                        break;
+                    case "data_state":
+                    case "dataNetworkState":
+                        snapshot.dataNetworkState = in.nextInt();
+                        break;
+                    case "roaming_state":
+                    case "roamingState":
+                        snapshot.roamingState = in.nextInt();
+                        break;
+                    case "tethering_state":
+                    case "tetheringState":
+                        snapshot.tetheringState = in.nextInt();
+                        break;
+                    case "sim_country_iso":
+                    case "simCountryIso":
+                        snapshot.simCountryIso = in.nextString();
+                        break;
+                    case "network_country_iso":
+                    case "networkCountryIso":
+                        snapshot.networkCountryIso = in.nextString();
+                        break;
+                    case "phone_type":
+                    case "phoneType":
+                        snapshot.phoneType = in.nextInt();
+                        break;
+                    case "connection_type":
+                    case "connectionType":
+                        snapshot.connectionType = in.nextString();
+                        break;
+                    case "connection_type_download_start":
+                    case "connectionTypeDownloadStart":
+                        snapshot.connectionTypeDownloadStart = in.nextString();
+                        break;
+                    case "connection_type_download_changed":
+                    case "connectionTypeDownloadChanged":
+                        snapshot.connectionTypeDownloadChanged = in.nextBoolean();
+                        break;
+                    case "connection_type_upload_start":
+                    case "connectionTypeUploadStart":
+                        snapshot.connectionTypeUploadStart = in.nextString();
+                        break;
+                    case "connection_type_upload_changed":
+                    case "connectionTypeUploadChanged":
+                        snapshot.connectionTypeUploadChanged = in.nextBoolean();
+                        break;
+                    case "connection_type_rtt_start":
+                    case "connectionTypeRttStart":
+                        snapshot.connectionTypeRttStart = in.nextString();
+                        break;
+                    case "connection_type_rtt_changed":
+                    case "connectionTypeRttChanged":
+                        snapshot.connectionTypeRttChanged = in.nextBoolean();
+                        break;
+                    case "network":
+                    case "dataNetwork":
+                        snapshot.dataNetwork = in.nextString();
+                        break;
+                    case "network_id_download_changed":
+                    case "dataNetworkDownloadChanged":
+                        snapshot.dataNetworkDownloadChanged = in.nextBoolean();
+                        break;
+                    case "network_id_download_start":
+                    case "dataNetworkDownloadStart":
+                        snapshot.dataNetworkDownloadStart = in.nextInt();
+                        break;
+                    case "network_id_upload_changed":
+                    case "dataNetworkUploadChanged":
+                        snapshot.dataNetworkUploadChanged = in.nextBoolean();
+                        break;
+                    case "network_id_upload_start":
+                    case "dataNetworkUploadStart":
+                        snapshot.dataNetworkUploadStart = in.nextInt();
+                        break;
+                    case "network_id_rtt_changed":
+                    case "dataNetworkRttChanged":
+                        snapshot.dataNetworkRttChanged = in.nextBoolean();
+                        break;
+                    case "network_id_rtt_start":
+                    case "dataNetworkRttStart":
+                        snapshot.dataNetworkRttStart = in.nextInt();
+                        break;
+                    case "network_id":
+                    case "dataNetworkId":
+                        snapshot.dataNetworkId = in.nextInt();
+                        break;
+                    case "sinr":
+                        snapshot.sinr = in.nextInt();
+                        break;
+                    case "testCase":
+                        try
+                        {
+                            snapshot.testCase = AbstractMeasurementResult.TestCase.valueOf(in.nextString());
+                        } catch (IllegalArgumentException ex)
+                        {
+                            Log.warning(TAG, "read: unknown testCase", ex);
+                        }
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+
+            value.state.set(snapshot.build());
+
+            return value;
         }
     }
 }
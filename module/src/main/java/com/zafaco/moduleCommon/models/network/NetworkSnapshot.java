@@ -0,0 +1,711 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon.models.network;
+
+import com.zafaco.moduleCommon.models.measurement.AbstractMeasurementResult;
+
+public final class NetworkSnapshot
+{
+    public static final NetworkSnapshot EMPTY = new Builder().build();
+
+    final int                                rssi;
+    final int                                rsrp;
+    final int                                rsrq;
+    final int                                sinr;
+    final int                                arfcn;
+    final String                             operatorNetId;
+    final String                             operatorNet;
+    final int                                operatorNetMcc;
+    final int                                operatorNetMnc;
+    final boolean                            operatorNetChanged;
+    final int                                operatorSimMcc;
+    final int                                operatorSimMnc;
+    final String                             operatorSimId;
+    final String                             operatorSim;
+    final int                                carrierSimId;
+    final String                             carrierSim;
+    final int                                simState;
+    final int                                simsActive;
+    final int                                callState;
+    final int                                dataNetworkState;
+    final String                             simCountryIso;
+    final String                             networkCountryIso;
+    final int                                phoneType;
+    final String                             connectionType;
+    final String                             connectionTypeDownloadStart;
+    final boolean                            connectionTypeDownloadChanged;
+    final String                             connectionTypeUploadStart;
+    final boolean                            connectionTypeUploadChanged;
+    final String                             connectionTypeRttStart;
+    final boolean                            connectionTypeRttChanged;
+    final int                                dataNetworkId;
+    final String                             dataNetwork;
+    final int                                dataNetworkDownloadStart;
+    final boolean                            dataNetworkDownloadChanged;
+    final int                                dataNetworkUploadStart;
+    final boolean                            dataNetworkUploadChanged;
+    final int                                dataNetworkRttStart;
+    final boolean                            dataNetworkRttChanged;
+    final long                               cellId;
+    final int                                cellLac;
+    final int                                cellPci;
+    final int                                tetheringState;
+    final int                                roamingState;
+    final AbstractMeasurementResult.TestCase testCase;
+
+    private NetworkSnapshot(Builder builder)
+    {
+        rssi                          = builder.rssi;
+        rsrp                          = builder.rsrp;
+        rsrq                          = builder.rsrq;
+        sinr                          = builder.sinr;
+        arfcn                         = builder.arfcn;
+        operatorNetId                 = builder.operatorNetId;
+        operatorNet                   = builder.operatorNet;
+        operatorNetMcc                = builder.operatorNetMcc;
+        operatorNetMnc                = builder.operatorNetMnc;
+        operatorNetChanged            = builder.operatorNetChanged;
+        operatorSimMcc                = builder.operatorSimMcc;
+        operatorSimMnc                = builder.operatorSimMnc;
+        operatorSimId                 = builder.operatorSimId;
+        operatorSim                   = builder.operatorSim;
+        carrierSimId                  = builder.carrierSimId;
+        carrierSim                    = builder.carrierSim;
+        simState                      = builder.simState;
+        simsActive                    = builder.simsActive;
+        callState                     = builder.callState;
+        dataNetworkState              = builder.dataNetworkState;
+        simCountryIso                 = builder.simCountryIso;
+        networkCountryIso             = builder.networkCountryIso;
+        phoneType                     = builder.phoneType;
+        connectionType                = builder.connectionType;
+        connectionTypeDownloadStart   = builder.connectionTypeDownloadStart;
+        connectionTypeDownloadChanged = builder.connectionTypeDownloadChanged;
+        connectionTypeUploadStart     = builder.connectionTypeUploadStart;
+        connectionTypeUploadChanged   = builder.connectionTypeUploadChanged;
+        connectionTypeRttStart        = builder.connectionTypeRttStart;
+        connectionTypeRttChanged      = builder.connectionTypeRttChanged;
+        dataNetworkId                 = builder.dataNetworkId;
+        dataNetwork                   = builder.dataNetwork;
+        dataNetworkDownloadStart      = builder.dataNetworkDownloadStart;
+        dataNetworkDownloadChanged    = builder.dataNetworkDownloadChanged;
+        dataNetworkUploadStart        = builder.dataNetworkUploadStart;
+        dataNetworkUploadChanged      = builder.dataNetworkUploadChanged;
+        dataNetworkRttStart           = builder.dataNetworkRttStart;
+        dataNetworkRttChanged         = builder.dataNetworkRttChanged;
+        cellId                        = builder.cellId;
+        cellLac                       = builder.cellLac;
+        cellPci                       = builder.cellPci;
+        tetheringState                = builder.tetheringState;
+        roamingState                  = builder.roamingState;
+        testCase                      = builder.testCase;
+    }
+
+    public Builder toBuilder()
+    {
+        return new Builder(this);
+    }
+
+    public int getRssi()
+    {
+        return rssi;
+    }
+
+    public int getRsrp()
+    {
+        return rsrp;
+    }
+
+    public int getRsrq()
+    {
+        return rsrq;
+    }
+
+    public int getSinr()
+    {
+        return sinr;
+    }
+
+    public int getArfcn()
+    {
+        return arfcn;
+    }
+
+    public String getOperatorNetId()
+    {
+        return operatorNetId;
+    }
+
+    public String getOperatorNet()
+    {
+        return operatorNet;
+    }
+
+    public int getOperatorNetMcc()
+    {
+        return operatorNetMcc;
+    }
+
+    public int getOperatorNetMnc()
+    {
+        return operatorNetMnc;
+    }
+
+    public boolean isOperatorNetChanged()
+    {
+        return operatorNetChanged;
+    }
+
+    public int getOperatorSimMcc()
+    {
+        return operatorSimMcc;
+    }
+
+    public int getOperatorSimMnc()
+    {
+        return operatorSimMnc;
+    }
+
+    public String getOperatorSimId()
+    {
+        return operatorSimId;
+    }
+
+    public String getOperatorSim()
+    {
+        return operatorSim;
+    }
+
+    public int getCarrierSimId()
+    {
+        return carrierSimId;
+    }
+
+    public String getCarrierSim()
+    {
+        return carrierSim;
+    }
+
+    public int getSimState()
+    {
+        return simState;
+    }
+
+    public int getSimsActive()
+    {
+        return simsActive;
+    }
+
+    public int getCallState()
+    {
+        return callState;
+    }
+
+    public int getDataNetworkState()
+    {
+        return dataNetworkState;
+    }
+
+    public String getSimCountryIso()
+    {
+        return simCountryIso;
+    }
+
+    public String getNetworkCountryIso()
+    {
+        return networkCountryIso;
+    }
+
+    public int getPhoneType()
+    {
+        return phoneType;
+    }
+
+    public String getConnectionType()
+    {
+        return connectionType;
+    }
+
+    public String getConnectionTypeDownloadStart()
+    {
+        return connectionTypeDownloadStart;
+    }
+
+    public boolean isConnectionTypeDownloadChanged()
+    {
+        return connectionTypeDownloadChanged;
+    }
+
+    public String getConnectionTypeUploadStart()
+    {
+        return connectionTypeUploadStart;
+    }
+
+    public boolean isConnectionTypeUploadChanged()
+    {
+        return connectionTypeUploadChanged;
+    }
+
+    public String getConnectionTypeRttStart()
+    {
+        return connectionTypeRttStart;
+    }
+
+    public boolean isConnectionTypeRttChanged()
+    {
+        return connectionTypeRttChanged;
+    }
+
+    public int getDataNetworkId()
+    {
+        return dataNetworkId;
+    }
+
+    public String getDataNetwork()
+    {
+        return dataNetwork;
+    }
+
+    public int getDataNetworkDownloadStart()
+    {
+        return dataNetworkDownloadStart;
+    }
+
+    public boolean isDataNetworkDownloadChanged()
+    {
+        return dataNetworkDownloadChanged;
+    }
+
+    public int getDataNetworkUploadStart()
+    {
+        return dataNetworkUploadStart;
+    }
+
+    public boolean isDataNetworkUploadChanged()
+    {
+        return dataNetworkUploadChanged;
+    }
+
+    public int getDataNetworkRttStart()
+    {
+        return dataNetworkRttStart;
+    }
+
+    public boolean isDataNetworkRttChanged()
+    {
+        return dataNetworkRttChanged;
+    }
+
+    public long getCellId()
+    {
+        return cellId;
+    }
+
+    public int getCellLac()
+    {
+        return cellLac;
+    }
+
+    public int getCellPci()
+    {
+        return cellPci;
+    }
+
+    public int getTetheringState()
+    {
+        return tetheringState;
+    }
+
+    public int getRoamingState()
+    {
+        return roamingState;
+    }
+
+    public AbstractMeasurementResult.TestCase getTestCase()
+    {
+        return testCase;
+    }
+
+    public static final class Builder
+    {
+        int                                rssi;
+        int                                rsrp;
+        int                                rsrq;
+        int                                sinr;
+        int                                arfcn;
+        String                             operatorNetId                 = "-1";
+        String                             operatorNet;
+        int                                operatorNetMcc;
+        int                                operatorNetMnc;
+        boolean                            operatorNetChanged;
+        int                                operatorSimMcc;
+        int                                operatorSimMnc;
+        String                             operatorSimId                 = "-1";
+        String                             operatorSim;
+        int                                carrierSimId                  = -1;
+        String                             carrierSim;
+        int                                simState;
+        int                                simsActive;
+        int                                callState;
+        int                                dataNetworkState;
+        String                             simCountryIso;
+        String                             networkCountryIso;
+        int                                phoneType;
+        String                             connectionType;
+        String                             connectionTypeDownloadStart;
+        boolean                            connectionTypeDownloadChanged;
+        String                             connectionTypeUploadStart;
+        boolean                            connectionTypeUploadChanged;
+        String                             connectionTypeRttStart;
+        boolean                            connectionTypeRttChanged;
+        int                                dataNetworkId                 = 0;
+        String                             dataNetwork                   = "unknown";
+        int                                dataNetworkDownloadStart      = -1;
+        boolean                            dataNetworkDownloadChanged;
+        int                                dataNetworkUploadStart        = -1;
+        boolean                            dataNetworkUploadChanged;
+        int                                dataNetworkRttStart           = -1;
+        boolean                            dataNetworkRttChanged;
+        long                               cellId;
+        int                                cellLac;
+        int                                cellPci;
+        int                                tetheringState;
+        int                                roamingState;
+        AbstractMeasurementResult.TestCase testCase;
+
+        public Builder()
+        {
+        }
+
+        Builder(NetworkSnapshot snapshot)
+        {
+            rssi                          = snapshot.rssi;
+            rsrp                          = snapshot.rsrp;
+            rsrq                          = snapshot.rsrq;
+            sinr                          = snapshot.sinr;
+            arfcn                         = snapshot.arfcn;
+            operatorNetId                 = snapshot.operatorNetId;
+            operatorNet                   = snapshot.operatorNet;
+            operatorNetMcc                = snapshot.operatorNetMcc;
+            operatorNetMnc                = snapshot.operatorNetMnc;
+            operatorNetChanged            = snapshot.operatorNetChanged;
+            operatorSimMcc                = snapshot.operatorSimMcc;
+            operatorSimMnc                = snapshot.operatorSimMnc;
+            operatorSimId                 = snapshot.operatorSimId;
+            operatorSim                   = snapshot.operatorSim;
+            carrierSimId                  = snapshot.carrierSimId;
+            carrierSim                    = snapshot.carrierSim;
+            simState                      = snapshot.simState;
+            simsActive                    = snapshot.simsActive;
+            callState                     = snapshot.callState;
+            dataNetworkState              = snapshot.dataNetworkState;
+            simCountryIso                 = snapshot.simCountryIso;
+            networkCountryIso             = snapshot.networkCountryIso;
+            phoneType                     = snapshot.phoneType;
+            connectionType                = snapshot.connectionType;
+            connectionTypeDownloadStart   = snapshot.connectionTypeDownloadStart;
+            connectionTypeDownloadChanged = snapshot.connectionTypeDownloadChanged;
+            connectionTypeUploadStart     = snapshot.connectionTypeUploadStart;
+            connectionTypeUploadChanged   = snapshot.connectionTypeUploadChanged;
+            connectionTypeRttStart        = snapshot.connectionTypeRttStart;
+            connectionTypeRttChanged      = snapshot.connectionTypeRttChanged;
+            dataNetworkId                 = snapshot.dataNetworkId;
+            dataNetwork                   = snapshot.dataNetwork;
+            dataNetworkDownloadStart      = snapshot.dataNetworkDownloadStart;
+            dataNetworkDownloadChanged    = snapshot.dataNetworkDownloadChanged;
+            dataNetworkUploadStart        = snapshot.dataNetworkUploadStart;
+            dataNetworkUploadChanged      = snapshot.dataNetworkUploadChanged;
+            dataNetworkRttStart           = snapshot.dataNetworkRttStart;
+            dataNetworkRttChanged         = snapshot.dataNetworkRttChanged;
+            cellId                        = snapshot.cellId;
+            cellLac                       = snapshot.cellLac;
+            cellPci                       = snapshot.cellPci;
+            tetheringState                = snapshot.tetheringState;
+            roamingState                  = snapshot.roamingState;
+            testCase                      = snapshot.testCase;
+        }
+
+        public Builder setRssi(int rssi)
+        {
+            this.rssi = rssi;
+            return this;
+        }
+
+        public Builder setRsrp(int rsrp)
+        {
+            this.rsrp = rsrp;
+            return this;
+        }
+
+        public Builder setRsrq(int rsrq)
+        {
+            this.rsrq = rsrq;
+            return this;
+        }
+
+        public Builder setSinr(int sinr)
+        {
+            this.sinr = sinr;
+            return this;
+        }
+
+        public Builder setArfcn(int arfcn)
+        {
+            this.arfcn = arfcn;
+            return this;
+        }
+
+        public Builder setOperatorNetId(String operatorNetId)
+        {
+            this.operatorNetId = operatorNetId;
+            return this;
+        }
+
+        public Builder setOperatorNet(String operatorNet)
+        {
+            this.operatorNet = operatorNet;
+            return this;
+        }
+
+        public Builder setOperatorNetMcc(int operatorNetMcc)
+        {
+            this.operatorNetMcc = operatorNetMcc;
+            return this;
+        }
+
+        public Builder setOperatorNetMnc(int operatorNetMnc)
+        {
+            this.operatorNetMnc = operatorNetMnc;
+            return this;
+        }
+
+        public Builder setOperatorNetChanged(boolean operatorNetChanged)
+        {
+            this.operatorNetChanged = operatorNetChanged;
+            return this;
+        }
+
+        public Builder setOperatorSimMcc(int operatorSimMcc)
+        {
+            this.operatorSimMcc = operatorSimMcc;
+            return this;
+        }
+
+        public Builder setOperatorSimMnc(int operatorSimMnc)
+        {
+            this.operatorSimMnc = operatorSimMnc;
+            return this;
+        }
+
+        public Builder setOperatorSimId(String operatorSimId)
+        {
+            this.operatorSimId = operatorSimId;
+            return this;
+        }
+
+        public Builder setOperatorSim(String operatorSim)
+        {
+            this.operatorSim = operatorSim;
+            return this;
+        }
+
+        public Builder setCarrierSimId(int carrierSimId)
+        {
+            this.carrierSimId = carrierSimId;
+            return this;
+        }
+
+        public Builder setCarrierSim(String carrierSim)
+        {
+            this.carrierSim = carrierSim;
+            return this;
+        }
+
+        public Builder setSimState(int simState)
+        {
+            this.simState = simState;
+            return this;
+        }
+
+        public Builder setSimsActive(int simsActive)
+        {
+            this.simsActive = simsActive;
+            return this;
+        }
+
+        public Builder setCallState(int callState)
+        {
+            this.callState = callState;
+            return this;
+        }
+
+        public Builder setDataNetworkState(int dataNetworkState)
+        {
+            this.dataNetworkState = dataNetworkState;
+            return this;
+        }
+
+        public Builder setSimCountryIso(String simCountryIso)
+        {
+            this.simCountryIso = simCountryIso;
+            return this;
+        }
+
+        public Builder setNetworkCountryIso(String networkCountryIso)
+        {
+            this.networkCountryIso = networkCountryIso;
+            return this;
+        }
+
+        public Builder setPhoneType(int phoneType)
+        {
+            this.phoneType = phoneType;
+            return this;
+        }
+
+        public Builder setConnectionType(String connectionType)
+        {
+            this.connectionType = connectionType;
+            return this;
+        }
+
+        public Builder setConnectionTypeDownloadStart(String connectionTypeDownloadStart)
+        {
+            this.connectionTypeDownloadStart = connectionTypeDownloadStart;
+            return this;
+        }
+
+        public Builder setConnectionTypeDownloadChanged(boolean connectionTypeDownloadChanged)
+        {
+            this.connectionTypeDownloadChanged = connectionTypeDownloadChanged;
+            return this;
+        }
+
+        public Builder setConnectionTypeUploadStart(String connectionTypeUploadStart)
+        {
+            this.connectionTypeUploadStart = connectionTypeUploadStart;
+            return this;
+        }
+
+        public Builder setConnectionTypeUploadChanged(boolean connectionTypeUploadChanged)
+        {
+            this.connectionTypeUploadChanged = connectionTypeUploadChanged;
+            return this;
+        }
+
+        public Builder setConnectionTypeRttStart(String connectionTypeRttStart)
+        {
+            this.connectionTypeRttStart = connectionTypeRttStart;
+            return this;
+        }
+
+        public Builder setConnectionTypeRttChanged(boolean connectionTypeRttChanged)
+        {
+            this.connectionTypeRttChanged = connectionTypeRttChanged;
+            return this;
+        }
+
+        public Builder setDataNetworkId(int dataNetworkId)
+        {
+            this.dataNetworkId = dataNetworkId;
+            return this;
+        }
+
+        public Builder setDataNetwork(String dataNetwork)
+        {
+            this.dataNetwork = dataNetwork;
+            return this;
+        }
+
+        public Builder setDataNetworkDownloadStart(int dataNetworkDownloadStart)
+        {
+            this.dataNetworkDownloadStart = dataNetworkDownloadStart;
+            return this;
+        }
+
+        public Builder setDataNetworkDownloadChanged(boolean dataNetworkDownloadChanged)
+        {
+            this.dataNetworkDownloadChanged = dataNetworkDownloadChanged;
+            return this;
+        }
+
+        public Builder setDataNetworkUploadStart(int dataNetworkUploadStart)
+        {
+            this.dataNetworkUploadStart = dataNetworkUploadStart;
+            return this;
+        }
+
+        public Builder setDataNetworkUploadChanged(boolean dataNetworkUploadChanged)
+        {
+            this.dataNetworkUploadChanged = dataNetworkUploadChanged;
+            return this;
+        }
+
+        public Builder setDataNetworkRttStart(int dataNetworkRttStart)
+        {
+            this.dataNetworkRttStart = dataNetworkRttStart;
+            return this;
+        }
+
+        public Builder setDataNetworkRttChanged(boolean dataNetworkRttChanged)
+        {
+            this.dataNetworkRttChanged = dataNetworkRttChanged;
+            return this;
+        }
+
+        public Builder setCellId(long cellId)
+        {
+            this.cellId = cellId;
+            return this;
+        }
+
+        public Builder setCellLac(int cellLac)
+        {
+            this.cellLac = cellLac;
+            return this;
+        }
+
+        public Builder setCellPci(int cellPci)
+        {
+            this.cellPci = cellPci;
+            return this;
+        }
+
+        public Builder setTetheringState(int tetheringState)
+        {
+            this.tetheringState = tetheringState;
+            return this;
+        }
+
+        public Builder setRoamingState(int roamingState)
+        {
+            this.roamingState = roamingState;
+            return this;
+        }
+
+        public Builder setTestCase(AbstractMeasurementResult.TestCase testCase)
+        {
+            this.testCase = testCase;
+            return this;
+        }
+
+        public NetworkSnapshot build()
+        {
+            return new NetworkSnapshot(this);
+        }
+    }
+}
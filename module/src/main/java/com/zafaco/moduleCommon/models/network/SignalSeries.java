@@ -0,0 +1,217 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.moduleCommon.models.network;
+
+import com.zafaco.moduleCommon.models.measurement.AbstractMeasurementResult;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public class SignalSeries
+{
+    public static final int DEFAULT_CAPACITY = 2048;
+
+    public static final int RSSI  = 0;
+    public static final int RSRP  = 1;
+    public static final int RSRQ  = 2;
+    public static final int SINR  = 3;
+    public static final int ARFCN = 4;
+
+    private static final String[] COLUMN_NAMES = {"rssi", "rsrp", "rsrq", "sinr"};
+
+    private static final int[] PERCENTILES = {10, 50, 90};
+
+    private final int     capacity;
+    private final long[]  timestamps;
+    private final int[][] columns;
+    private final long[]  cellIds;
+    private final byte[]  testCases;
+    private final long[]  testCaseStart;
+    private final int[]   scratch;
+    private       long    written = 0;
+
+    public SignalSeries()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SignalSeries(int capacity)
+    {
+        this.capacity = Math.max(1, capacity);
+
+        timestamps    = new long[this.capacity];
+        columns       = new int[ARFCN + 1][this.capacity];
+        cellIds       = new long[this.capacity];
+        testCases     = new byte[this.capacity];
+        testCaseStart = new long[AbstractMeasurementResult.TestCase.values().length];
+        scratch       = new int[this.capacity];
+    }
+
+    public synchronized void add(long timestamp, AbstractMeasurementResult.TestCase testCase, int rssi, int rsrp, int rsrq, int sinr, int arfcn, long cellId)
+    {
+        int slot = (int) (written % capacity);
+
+        timestamps[slot]     = timestamp;
+        columns[RSSI][slot]  = rssi;
+        columns[RSRP][slot]  = rsrp;
+        columns[RSRQ][slot]  = rsrq;
+        columns[SINR][slot]  = sinr;
+        columns[ARFCN][slot] = arfcn;
+        cellIds[slot]        = cellId;
+        testCases[slot]      = (byte) ((testCase != null) ? testCase.ordinal() : -1);
+
+        written++;
+    }
+
+    public synchronized void beginTestCase(AbstractMeasurementResult.TestCase testCase)
+    {
+        if (testCase != null)
+            testCaseStart[testCase.ordinal()] = written;
+    }
+
+    public synchronized int size()
+    {
+        return (int) Math.min(written, capacity);
+    }
+
+    public synchronized void clear()
+    {
+        written = 0;
+        Arrays.fill(testCaseStart, 0);
+    }
+
+    public synchronized JSONObject toJson()
+    {
+        JSONObject stats = new JSONObject();
+
+        try
+        {
+            for (AbstractMeasurementResult.TestCase testCase : AbstractMeasurementResult.TestCase.values())
+            {
+                JSONObject testCaseStats = aggregate(testCase);
+
+                if (testCaseStats != null)
+                    stats.put(testCase.name().toLowerCase(Locale.ROOT), testCaseStats);
+            }
+        } catch (JSONException ignored)
+        {
+        }
+
+        return stats;
+    }
+
+    private JSONObject aggregate(AbstractMeasurementResult.TestCase testCase) throws JSONException
+    {
+        long first = Math.max(testCaseStart[testCase.ordinal()], written - capacity);
+        byte id    = (byte) testCase.ordinal();
+
+        int  samples      = 0;
+        int  cellChanges  = 0;
+        int  arfcnChanges = 0;
+        long firstTime    = 0;
+        long lastTime     = 0;
+        long lastCellId   = 0;
+        int  lastArfcn    = 0;
+
+        for (long seq = first; seq < written; seq++)
+        {
+            int slot = (int) (seq % capacity);
+            if (testCases[slot] != id)
+                continue;
+
+            if (samples == 0)
+            {
+                firstTime = timestamps[slot];
+            } else
+            {
+                if (cellIds[slot] != 0 && lastCellId != 0 && cellIds[slot] != lastCellId)
+                    cellChanges++;
+                if (columns[ARFCN][slot] != 0 && lastArfcn != 0 && columns[ARFCN][slot] != lastArfcn)
+                    arfcnChanges++;
+            }
+
+            if (cellIds[slot] != 0)
+                lastCellId = cellIds[slot];
+            if (columns[ARFCN][slot] != 0)
+                lastArfcn = columns[ARFCN][slot];
+
+            lastTime = timestamps[slot];
+            samples++;
+        }
+
+        if (samples == 0)
+            return null;
+
+        JSONObject stats = new JSONObject();
+
+        stats.put("samples", samples);
+        stats.put("duration_ms", lastTime - firstTime);
+        stats.put("cell_changes", cellChanges);
+        stats.put("arfcn_changes", arfcnChanges);
+
+        for (int column = RSSI; column <= SINR; column++)
+        {
+            JSONObject columnStats = aggregateColumn(column, id, first);
+
+            if (columnStats != null)
+                stats.put(COLUMN_NAMES[column], columnStats);
+        }
+
+        return stats;
+    }
+
+    private JSONObject aggregateColumn(int column, byte id, long first) throws JSONException
+    {
+        int[] values = columns[column];
+        int   count  = 0;
+        long  sum    = 0;
+
+        for (long seq = first; seq < written; seq++)
+        {
+            int slot = (int) (seq % capacity);
+
+            if (testCases[slot] != id || values[slot] == 0)
+                continue;
+
+            scratch[count++] = values[slot];
+            sum += values[slot];
+        }
+
+        if (count == 0)
+            return null;
+
+        Arrays.sort(scratch, 0, count);
+
+        JSONObject stats = new JSONObject();
+
+        stats.put("min", scratch[0]);
+        stats.put("max", scratch[count - 1]);
+        stats.put("mean", (double) sum / count);
+
+        for (int percentile : PERCENTILES)
+        {
+            int rank = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            stats.put("p" + percentile, scratch[Math.max(0, rank)]);
+        }
+
+        return stats;
+    }
+}
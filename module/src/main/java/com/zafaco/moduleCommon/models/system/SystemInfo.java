@@ -26,12 +26,18 @@ import android.os.BatteryManager;
 import android.os.Build;
 import android.os.SystemClock;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.zafaco.moduleCommon.Storage;
 import com.zafaco.moduleCommon.interfaces.ResultInfo;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class SystemInfo implements ResultInfo
 {
 
@@ -238,4 +244,109 @@ public class SystemInfo implements ResultInfo
     {
         this.sdkVersion = sdkVersion;
     }
+
+    public static final class GsonAdapter extends TypeAdapter<SystemInfo>
+    {
+        @Override
+        public void write(JsonWriter out, SystemInfo value) throws IOException
+        {
+            if (value == null)
+            {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("osName").value(value.osName);
+            out.name("sdkVersion").value(value.sdkVersion);
+            out.name("osVersion").value(value.osVersion);
+            out.name("clientUptime").value(value.clientUptime);
+            out.name("internalStorageUsed").value(value.internalStorageUsed);
+            out.name("internalStorageAvailable").value(value.internalStorageAvailable);
+            out.name("externalStorageUsed").value(value.externalStorageUsed);
+            out.name("externalStorageAvailable").value(value.externalStorageAvailable);
+            out.name("ramUsed").value(value.ramUsed);
+            out.name("ramAvailable").value(value.ramAvailable);
+            out.name("batteryPercent").value(value.batteryPercent);
+            out.endObject();
+        }
+
+        @Override
+        public SystemInfo read(JsonReader in) throws IOException
+        {
+            if (in.peek() == JsonToken.NULL)
+            {
+                in.nextNull();
+                return null;
+            }
+
+            SystemInfo value = new SystemInfo();
+
+            in.beginObject();
+            while (in.hasNext())
+            {
+                String name = in.nextName();
+
+                if (in.peek() == JsonToken.NULL)
+                {
+                    in.skipValue();
+                    continue;
+                }
+
+                switch (name)
+                {
+                    case "os_name":
+                    case "osName":
+                        value.osName = in.nextString();
+                        break;
+                    case "os_version":
+                    case "osVersion":
+                        value.osVersion = in.nextString();
+                        break;
+                    case "sdk_version":
+                    case "sdkVersion":
+                        value.sdkVersion = in.nextInt();
+                        break;
+                    case "storage_internal_available":
+                    case "internalStorageAvailable":
+                        value.internalStorageAvailable = in.nextLong();
+                        break;
+                    case "storage_internal_used":
+                    case "internalStorageUsed":
+                        value.internalStorageUsed = in.nextLong();
+                        break;
+                    case "storage_external_available":
+                    case "externalStorageAvailable":
+                        value.externalStorageAvailable = in.nextLong();
+                        break;
+                    case "storage_external_used":
+                    case "externalStorageUsed":
+                        value.externalStorageUsed = in.nextLong();
+                        break;
+                    case "ram_used":
+                    case "ramUsed":
+                        value.ramUsed = in.nextLong();
+                        break;
+                    case "ram_available":
+                    case "ramAvailable":
+                        value.ramAvailable = in.nextLong();
+                        break;
+                    case "uptime":
+                    case "clientUptime":
+                        value.clientUptime = in.nextLong();
+                        break;
+                    case "battery_percentage":
+                    case "batteryPercent":
+                        value.batteryPercent = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+
+            return value;
+        }
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+public final class BenchmarkSupport
+{
+    private BenchmarkSupport()
+    {
+    }
+
+    public static void assumeEnabled()
+    {
+        Assume.assumeTrue("run with -Dbenchmark=true", Boolean.getBoolean("benchmark"));
+    }
+
+    public static long allocatedBytes()
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return 0;
+
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static void report(String name, int iterations, long elapsedNs, long allocatedBytes)
+    {
+        System.out.println(String.format(Locale.ROOT, "benchmark %s: %d ops, %.1f ns/op, %d B/op", name, iterations, (double) elapsedNs / iterations, allocatedBytes / iterations));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DatabaseRetentionPolicyTest
+{
+    @Test
+    public void scaledKeepsSmallLimitsBounded()
+    {
+        DatabaseRetentionPolicy policy = new DatabaseRetentionPolicy()
+                .setMaxRows(1)
+                .setMaxAgeMs(3)
+                .setMaxFileBytes(1);
+
+        DatabaseRetentionPolicy scaled = policy.scaled(0.25);
+
+        assertEquals(1, scaled.getMaxRows());
+        assertEquals(1, scaled.getMaxAgeMs());
+        assertEquals(1, scaled.getMaxFileBytes());
+    }
+
+    @Test
+    public void scaledLeavesUnlimitedUnlimited()
+    {
+        DatabaseRetentionPolicy scaled = new DatabaseRetentionPolicy()
+                .setMaxRows(0)
+                .setMaxAgeMs(0)
+                .setMaxFileBytes(0)
+                .scaled(0.5);
+
+        assertEquals(0, scaled.getMaxRows());
+        assertEquals(0, scaled.getMaxAgeMs());
+        assertEquals(0, scaled.getMaxFileBytes());
+    }
+
+    @Test
+    public void scaledCopiesTheRemainingSettings()
+    {
+        DatabaseRetentionPolicy policy = new DatabaseRetentionPolicy()
+                .setMaxRows(10000)
+                .setMaxAgeMs(86400000L)
+                .setMaxFileBytes(8L * 1024 * 1024)
+                .setBatchSize(250)
+                .setTimestampColumn("created")
+                .setSentColumn("uploaded", "1")
+                .setDeleteUnsent(false);
+
+        DatabaseRetentionPolicy scaled = policy.scaled(0.5);
+
+        assertEquals(5000, scaled.getMaxRows());
+        assertEquals(43200000L, scaled.getMaxAgeMs());
+        assertEquals(4L * 1024 * 1024, scaled.getMaxFileBytes());
+        assertEquals(250, scaled.getBatchSize());
+        assertEquals("created", scaled.getTimestampColumn());
+        assertEquals("uploaded", scaled.getSentColumn());
+        assertEquals("1", scaled.getSentValue());
+        assertEquals("false", scaled.toMap().get("deleteUnsent"));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import android.database.Cursor;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DatabaseRowTest
+{
+    @Test
+    public void readsEachColumnByStorageClass()
+    {
+        byte[]      blob = {0, 1, 2, (byte) 0xff};
+        DatabaseRow row  = new DatabaseRow(cursor(new String[]{"id", "rtt", "ratio", "name", "raw", "missing"}, new Object[]{42L, 12.0, 0.25, "text", blob, null}));
+
+        assertEquals("42", row.getString("id"));
+        assertEquals("12", row.getString("rtt"));
+        assertEquals("0.25", row.getString("ratio"));
+        assertEquals("text", row.getString("name"));
+        assertNull(row.getString("missing"));
+        assertNull(row.getString("unknown"));
+        assertArrayEquals(blob, row.getBlob("raw"));
+        assertNull(row.getBlob("missing"));
+        assertEquals(12.0, row.getDouble("rtt", -1), 0.0);
+        assertEquals(-1, row.getLong("missing", -1));
+
+        LinkedHashMap<String, String> map = row.toMap();
+        assertEquals("42", map.get("id"));
+        assertEquals("12", map.get("rtt"));
+        assertNull(map.get("missing"));
+    }
+
+    @Test
+    public void formatsRealValues()
+    {
+        assertEquals("12", DatabaseRow.formatReal(12.0));
+        assertEquals("-3", DatabaseRow.formatReal(-3.0));
+        assertEquals("12.5", DatabaseRow.formatReal(12.5));
+        assertEquals("1.0E20", DatabaseRow.formatReal(1e20));
+        assertEquals("NaN", DatabaseRow.formatReal(Double.NaN));
+    }
+
+    private static Cursor cursor(final String[] names, final Object[] values)
+    {
+        return (Cursor) Proxy.newProxyInstance(Cursor.class.getClassLoader(), new Class<?>[]{Cursor.class}, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                switch (method.getName())
+                {
+                    case "getColumnNames":
+                        return names;
+                    case "getColumnCount":
+                        return names.length;
+                    case "getType":
+                        return typeOf(values[(Integer) args[0]]);
+                    case "isNull":
+                        return values[(Integer) args[0]] == null;
+                    case "getLong":
+                        return ((Number) values[(Integer) args[0]]).longValue();
+                    case "getDouble":
+                        return ((Number) values[(Integer) args[0]]).doubleValue();
+                    case "getBlob":
+                        return values[(Integer) args[0]];
+                    case "getString":
+                        Object value = values[(Integer) args[0]];
+                        if (value instanceof byte[])
+                            throw new IllegalStateException("getString on BLOB");
+                        return (value != null) ? value.toString() : null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        });
+    }
+
+    private static int typeOf(Object value)
+    {
+        if (value == null)
+            return Cursor.FIELD_TYPE_NULL;
+        if (value instanceof Long)
+            return Cursor.FIELD_TYPE_INTEGER;
+        if (value instanceof Double)
+            return Cursor.FIELD_TYPE_FLOAT;
+        if (value instanceof byte[])
+            return Cursor.FIELD_TYPE_BLOB;
+        return Cursor.FIELD_TYPE_STRING;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DatabaseWriteQueueTest
+{
+    @Test(timeout = 5000)
+    public void enqueueCopiesTheRow()
+    {
+        RecordingDatabase  database = new RecordingDatabase(false);
+        DatabaseWriteQueue queue    = new DatabaseWriteQueue(database, 16, DatabaseWriteQueue.Policy.BLOCK);
+        queue.start();
+
+        LinkedHashMap<String, String> row = new LinkedHashMap<>();
+        row.put("timestamp", "1");
+        row.put("value", "before");
+
+        assertTrue(queue.enqueue(row));
+        row.put("value", "after");
+        row.put("extra", "x");
+
+        assertTrue(queue.flush());
+        queue.stop();
+
+        assertEquals(1, database.rows.size());
+        assertEquals("before", database.rows.get(0).get("value"));
+        assertFalse(database.rows.get(0).containsKey("extra"));
+    }
+
+    @Test(timeout = 5000)
+    public void flushFailsWhenWriterDies()
+    {
+        RecordingDatabase  database = new RecordingDatabase(true);
+        DatabaseWriteQueue queue    = new DatabaseWriteQueue(database, 16, DatabaseWriteQueue.Policy.BLOCK);
+        queue.start();
+
+        LinkedHashMap<String, String> row = new LinkedHashMap<>();
+        row.put("timestamp", "1");
+
+        assertTrue(queue.enqueue(row));
+        assertFalse(queue.flush());
+        assertFalse(queue.enqueue(row));
+        assertEquals("1", queue.getMetrics().get("failedRows"));
+    }
+
+    private static final class RecordingDatabase extends Database
+    {
+        final List<LinkedHashMap<String, String>> rows = new ArrayList<>();
+
+        private final boolean fatal;
+
+        RecordingDatabase(boolean fatal)
+        {
+            super(null, "test.db", "test");
+            this.fatal = fatal;
+        }
+
+        @Override
+        public int insertAll(List<LinkedHashMap<String, String>> batch)
+        {
+            if (fatal)
+                throw new WriterDeath();
+
+            synchronized (rows)
+            {
+                rows.addAll(batch);
+            }
+            return batch.size();
+        }
+    }
+
+    private static final class WriterDeath extends Error
+    {
+        WriterDeath()
+        {
+            super("writer died", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.zafaco.moduleCommon.models.client.ClientInfo;
+import com.zafaco.moduleCommon.models.location.LocationInfo;
+import com.zafaco.moduleCommon.models.measurement.AbstractMeasurementResult;
+import com.zafaco.moduleCommon.models.network.NetworkInfo;
+import com.zafaco.moduleCommon.models.system.SystemInfo;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GsonRegistryTest
+{
+    private static final Gson reflective = new GsonBuilder().setExclusionStrategies(new ExclusionStrategy()
+    {
+        @Override
+        public boolean shouldSkipField(FieldAttributes field)
+        {
+            return !field.getDeclaredClass().isPrimitive() && field.getDeclaredClass() != String.class;
+        }
+
+        @Override
+        public boolean shouldSkipClass(Class<?> type)
+        {
+            return false;
+        }
+    }).create();
+
+    @Test
+    public void clientInfoMatchesReflectiveFormat()
+    {
+        ClientInfo client = new ClientInfo(null, "1.2.3", "speed");
+        client.setTimezone(3600);
+        client.setManufacturer("zafaco");
+        client.setModel("Pixel");
+        client.setCommonVersion("4.0.0");
+        client.setConnectionType("WIFI");
+        client.setAppVersion("2.1");
+        client.setGitHash("abc1234");
+
+        assertMatchesReflective(client, ClientInfo.class);
+        assertEquals("abc1234", roundTrip(client, ClientInfo.class).getGitHash());
+    }
+
+    @Test
+    public void locationInfoKeepsZeroCoordinates()
+    {
+        LocationInfo location = new LocationInfo();
+        location.setLatitude(0.0);
+        location.setLongitude(13.4);
+        location.setAltitude(34.0);
+        location.setAltitudeMax(40.0);
+        location.setAccuracy(5.5);
+        location.setVelocity(1.0);
+        location.setVelocityAvg(0.5);
+        location.setVelocityMax(2.0);
+        location.setPrecisePermission(true);
+        location.setTimestampFix(1700000000000L);
+
+        assertMatchesReflective(location, LocationInfo.class);
+
+        JsonObject json = toTree(location);
+        assertTrue(json.has("latitude"));
+        assertEquals(13.4, roundTrip(location, LocationInfo.class).getLongitude(), 0.0);
+    }
+
+    @Test
+    public void systemInfoMatchesReflectiveFormat()
+    {
+        SystemInfo system = new SystemInfo();
+        system.setOsName("Android");
+        system.setOsVersion("14");
+        system.setSdkVersion(34);
+        system.setClientUptime(123456L);
+        system.setInternalStorageUsed(1L);
+        system.setInternalStorageAvailable(2L);
+        system.setExternalStorageUsed(3L);
+        system.setExternalStorageAvailable(4L);
+        system.setRamUsed(5L);
+        system.setRamAvailable(6L);
+        system.setBatteryPercent(77);
+
+        assertMatchesReflective(system, SystemInfo.class);
+        assertEquals(77, roundTrip(system, SystemInfo.class).getBatteryPercent());
+    }
+
+    @Test
+    public void networkInfoWritesBaselineFieldNames()
+    {
+        NetworkInfo network = new NetworkInfo();
+        network.setRssi(-70);
+        network.setRsrp(-100);
+        network.setSinr(12);
+        network.setOperatorNet("operator");
+        network.setCellId(4711L);
+        network.setDataNetwork("LTE");
+        network.setCurrentTestCase(AbstractMeasurementResult.TestCase.DOWNLOAD);
+
+        JsonObject json = toTree(network);
+
+        Set<String> expected = new HashSet<>(Arrays.asList(
+                "rssi", "rsrp", "rsrq", "sinr", "arfcn",
+                "operatorNetId", "operatorNet", "operatorNetMcc", "operatorNetMnc", "operatorNetChanged",
+                "operatorSimMcc", "operatorSimMnc", "operatorSimId", "carrierSimId",
+                "simState", "simsActive", "callState", "dataNetworkState", "phoneType",
+                "connectionTypeDownloadChanged", "connectionTypeUploadChanged", "connectionTypeRttChanged",
+                "dataNetworkId", "dataNetwork",
+                "dataNetworkDownloadStart", "dataNetworkDownloadChanged", "dataNetworkUploadStart", "dataNetworkUploadChanged",
+                "dataNetworkRttStart", "dataNetworkRttChanged",
+                "cellId", "cellLac", "cellPci", "tetheringState", "roamingState", "testCase"));
+        assertTrue(json.keySet() + " missing " + expected, json.keySet().containsAll(expected));
+        assertEquals("DOWNLOAD", json.get("testCase").getAsString());
+
+        NetworkInfo restored = roundTrip(network, NetworkInfo.class);
+        assertEquals(json, toTree(restored));
+    }
+
+    @Test
+    public void readsLegacySnakeCaseOutput()
+    {
+        SystemInfo system = GsonRegistry.get().fromJson("{\"os_name\":\"Android\",\"sdk_version\":30,\"battery_percentage\":50}", SystemInfo.class);
+        assertEquals(30, system.getSdkVersion());
+        assertEquals(50, system.getBatteryPercent());
+
+        ClientInfo client = GsonRegistry.get().fromJson("{\"speed_version\":\"1.0\",\"app_version\":\"3\"}", ClientInfo.class);
+        assertEquals("speed", client.getLibraryVersionName());
+        assertEquals("1.0", client.getLibraryVersion());
+        assertEquals("3", client.getAppVersion());
+    }
+
+    @Test
+    public void serializationCost()
+    {
+        BenchmarkSupport.assumeEnabled();
+
+        SystemInfo system = new SystemInfo();
+        system.setOsVersion("14");
+        system.setBatteryPercent(77);
+
+        for (int round = 0; round < 2; round++)
+        {
+            measure("new Gson per call", null, system);
+            measure("shared reflective Gson", reflective, system);
+            measure("GsonRegistry adapter", GsonRegistry.get(), system);
+        }
+    }
+
+    private static void measure(String name, Gson shared, SystemInfo system)
+    {
+        int iterations = 100_000;
+        for (int i = 0; i < iterations; i++)
+        {
+            Gson gson = (shared != null) ? shared : new Gson();
+            gson.fromJson(gson.toJson(system), SystemInfo.class);
+        }
+
+        long bytes = BenchmarkSupport.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+        {
+            Gson gson = (shared != null) ? shared : new Gson();
+            gson.fromJson(gson.toJson(system), SystemInfo.class);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        BenchmarkSupport.report(name, iterations, elapsed, BenchmarkSupport.allocatedBytes() - bytes);
+    }
+
+    private static void assertMatchesReflective(Object value, Class<?> type)
+    {
+        JsonElement expected = JsonParser.parseString(reflective.toJson(value));
+        JsonElement actual   = toTree(value);
+
+        assertEquals(expected, actual);
+        assertEquals(actual, toTree(GsonRegistry.get().fromJson(reflective.toJson(value), type)));
+    }
+
+    private static <T> T roundTrip(T value, Class<T> type)
+    {
+        return GsonRegistry.get().fromJson(GsonRegistry.get().toJson(value), type);
+    }
+
+    private static JsonObject toTree(Object value)
+    {
+        return JsonParser.parseString(GsonRegistry.get().toJson(value)).getAsJsonObject();
+    }
+}
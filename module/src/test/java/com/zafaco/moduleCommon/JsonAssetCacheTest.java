@@ -0,0 +1,99 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class JsonAssetCacheTest
+{
+    @Test
+    public void copyIsDeepAndDetached() throws JSONException
+    {
+        JSONObject source = sample(3);
+        JSONObject copy   = JsonAssetCache.copy(source);
+
+        assertTrue(source.similar(copy));
+        assertNotSame(source.getJSONObject("group0"), copy.getJSONObject("group0"));
+        assertNotSame(source.getJSONArray("list"), copy.getJSONArray("list"));
+
+        copy.getJSONObject("group0").put("key0", "changed");
+        copy.getJSONArray("list").put(99);
+        copy.remove("group1");
+
+        assertEquals("value0", source.getJSONObject("group0").getString("key0"));
+        assertEquals(3, source.getJSONArray("list").length());
+        assertTrue(source.has("group1"));
+        assertFalse(source.similar(copy));
+    }
+
+    @Test
+    public void copyCost() throws JSONException
+    {
+        BenchmarkSupport.assumeEnabled();
+
+        JSONObject source = sample(40);
+        String     text   = source.toString();
+
+        for (int round = 0; round < 2; round++)
+        {
+            int  iterations = 20_000;
+            long bytes      = BenchmarkSupport.allocatedBytes();
+            long start      = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+            {
+                JsonAssetCache.copy(source);
+            }
+            BenchmarkSupport.report("structural copy (" + text.length() + " chars)", iterations, System.nanoTime() - start, BenchmarkSupport.allocatedBytes() - bytes);
+
+            bytes = BenchmarkSupport.allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+            {
+                new JSONObject(text);
+            }
+            BenchmarkSupport.report("parse serialized form (" + text.length() + " chars)", iterations, System.nanoTime() - start, BenchmarkSupport.allocatedBytes() - bytes);
+        }
+    }
+
+    private static JSONObject sample(int groups) throws JSONException
+    {
+        JSONObject root = new JSONObject();
+
+        for (int g = 0; g < groups; g++)
+        {
+            JSONObject group = new JSONObject();
+            for (int k = 0; k < 10; k++)
+            {
+                group.put("key" + k, "value" + k);
+            }
+            group.put("count", g);
+            group.put("ratio", g / 3.0);
+            root.put("group" + g, group);
+        }
+
+        root.put("list", new JSONArray().put(1).put("two").put(new JSONObject().put("three", 3)));
+        return root;
+    }
+}
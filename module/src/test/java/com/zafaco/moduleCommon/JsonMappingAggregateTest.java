@@ -0,0 +1,225 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JsonMappingAggregateTest
+{
+    private static final String MAPPING = "{"
+            + "\"download\":{\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"max\",\"old_key\":\"rtt\",\"type\":\"max\"},"
+            + "{\"new_key\":\"min\",\"old_key\":\"rtt\",\"type\":\"min\"},"
+            + "{\"new_key\":\"mean\",\"old_key\":\"rtt\",\"type\":\"mean\"},"
+            + "{\"new_key\":\"median\",\"old_key\":\"rtt\",\"type\":\"median\"},"
+            + "{\"new_key\":\"p90\",\"old_key\":\"rtt\",\"type\":\"percentile\",\"percentile\":90},"
+            + "{\"new_key\":\"stddev\",\"old_key\":\"rtt\",\"type\":\"stddev\"}]}"
+            + "}";
+
+    @Test
+    public void statisticsMatchNaiveComputation()
+    {
+        double[] values = new double[]{7, 3, 9, 1, 5, 5, 2, 8};
+        double[] buffer = Arrays.copyOf(values, values.length + 4);
+
+        JsonMappingAggregate aggregate = new JsonMappingAggregate(buffer, values.length);
+
+        double sum = 0;
+        for (double value : values)
+        {
+            sum += value;
+        }
+        double mean = sum / values.length;
+
+        double squares = 0;
+        for (double value : values)
+        {
+            squares += (value - mean) * (value - mean);
+        }
+
+        assertEquals(values.length, aggregate.getCount());
+        assertEquals(1, aggregate.getMin(), 0);
+        assertEquals(9, aggregate.getMax(), 0);
+        assertEquals(mean, aggregate.getMean(), 1e-12);
+        assertEquals(Math.sqrt(squares / values.length), aggregate.getStandardDeviation(), 1e-12);
+    }
+
+    @Test
+    public void percentilesInterpolateBetweenRanks()
+    {
+        JsonMappingAggregate aggregate = new JsonMappingAggregate(new double[]{5, 1, 4, 2, 3}, 5);
+
+        assertEquals(1, aggregate.getPercentile(0), 0);
+        assertEquals(3, aggregate.getPercentile(50), 0);
+        assertEquals(4.6, aggregate.getPercentile(90), 1e-12);
+        assertEquals(5, aggregate.getPercentile(100), 0);
+        assertEquals(5, aggregate.getPercentile(150), 0);
+        assertEquals(1, aggregate.getPercentile(-10), 0);
+
+        assertEquals(2.5, new JsonMappingAggregate(new double[]{4, 1}, 2).getPercentile(50), 0);
+    }
+
+    @Test
+    public void percentilesIgnoreValuesBeyondCount()
+    {
+        double[]             values    = new double[]{3, 1, 2, 100, -100};
+        JsonMappingAggregate aggregate = new JsonMappingAggregate(values, 3);
+
+        assertEquals(2, aggregate.getPercentile(50), 0);
+        assertEquals(3, aggregate.getMax(), 0);
+        assertEquals(1, aggregate.getMin(), 0);
+        assertEquals(3, values[0], 0);
+    }
+
+    @Test
+    public void emptyAggregateIsNaN()
+    {
+        JsonMappingAggregate aggregate = new JsonMappingAggregate(new double[0], 0);
+
+        assertEquals(0, aggregate.getCount());
+        assertTrue(Double.isNaN(aggregate.getPercentile(50)));
+        assertTrue(Double.isNaN(aggregate.getStandardDeviation()));
+    }
+
+    @Test
+    public void statisticsOnOneColumnShareOneAggregate() throws JSONException
+    {
+        JsonMappingPlan plan = JsonMappingPlan.compile(new JSONObject(MAPPING));
+
+        assertEquals(1, plan.groups.get(0).columns.size());
+
+        JSONObject mapped = plan.apply(samples(101));
+        double[]   sorted = new double[101];
+        for (int i = 0; i < sorted.length; i++)
+        {
+            sorted[i] = value(i);
+        }
+        Arrays.sort(sorted);
+
+        assertEquals((long) sorted[100], mapped.getLong("max"));
+        assertEquals((long) sorted[0], mapped.getLong("min"));
+        assertEquals(sorted[50], mapped.getDouble("median"), 0);
+        assertEquals(sorted[90], mapped.getDouble("p90"), 0);
+    }
+
+    @Test
+    public void aggregationCost() throws JSONException
+    {
+        BenchmarkSupport.assumeEnabled();
+
+        JsonMappingPlan plan     = JsonMappingPlan.compile(new JSONObject(MAPPING));
+        JSONObject      original = samples(2000);
+        JSONArray       array    = original.getJSONArray("download");
+
+        for (int round = 0; round < 2; round++)
+        {
+            int  iterations = 500;
+            long bytes      = BenchmarkSupport.allocatedBytes();
+            long start      = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+            {
+                plan.apply(original);
+            }
+            BenchmarkSupport.report("fused column, 6 statistics x 2000 samples", iterations, System.nanoTime() - start, BenchmarkSupport.allocatedBytes() - bytes);
+
+            bytes = BenchmarkSupport.allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+            {
+                scanPerStatistic(array);
+            }
+            BenchmarkSupport.report("one scan per statistic, 6 statistics x 2000 samples", iterations, System.nanoTime() - start, BenchmarkSupport.allocatedBytes() - bytes);
+        }
+    }
+
+    // the shape of the original mapJSON: every statistic walks and re-reads the array on its own
+    private static JSONObject scanPerStatistic(JSONArray array) throws JSONException
+    {
+        JSONObject mapped = new JSONObject();
+        int        length = array.length();
+
+        double max = Double.NEGATIVE_INFINITY;
+        for (int j = 0; j < length; j++)
+        {
+            max = Math.max(max, array.getJSONObject(j).getDouble("rtt"));
+        }
+        mapped.put("max", (long) max);
+
+        double min = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < length; j++)
+        {
+            min = Math.min(min, array.getJSONObject(j).getDouble("rtt"));
+        }
+        mapped.put("min", (long) min);
+
+        double sum = 0;
+        for (int j = 0; j < length; j++)
+        {
+            sum += array.getJSONObject(j).getDouble("rtt");
+        }
+        double mean = sum / length;
+        mapped.put("mean", mean);
+
+        for (double percentile : new double[]{50, 90})
+        {
+            double[] values = new double[length];
+            for (int j = 0; j < length; j++)
+            {
+                values[j] = array.getJSONObject(j).getDouble("rtt");
+            }
+            Arrays.sort(values);
+            mapped.put("p" + (int) percentile, values[(int) (percentile / 100 * (length - 1))]);
+        }
+
+        double squares = 0;
+        for (int j = 0; j < length; j++)
+        {
+            double delta = array.getJSONObject(j).getDouble("rtt") - mean;
+            squares += delta * delta;
+        }
+        mapped.put("stddev", Math.sqrt(squares / length));
+
+        return mapped;
+    }
+
+    private static double value(int i)
+    {
+        return 5 + (i * 7919 % 1000) / 10.0;
+    }
+
+    private static JSONObject samples(int count) throws JSONException
+    {
+        JSONArray download = new JSONArray();
+        Random    random   = new Random(42);
+
+        for (int i = 0; i < count; i++)
+        {
+            download.put(new JSONObject().put("rtt", value(i)).put("seq", i).put("jitter", random.nextInt(10)));
+        }
+
+        return new JSONObject().put("download", download);
+    }
+}
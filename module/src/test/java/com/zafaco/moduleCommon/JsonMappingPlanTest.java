@@ -0,0 +1,159 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JsonMappingPlanTest
+{
+    // only the parameter types the original Tool.mapJSON understood, so it can serve as the reference
+    private static final String MAPPING = "{"
+            + "\"general\":{\"type\":\"object\",\"mappings\":["
+            + "{\"new_key\":\"test_id\",\"old_key\":\"id\"},"
+            + "{\"new_key\":\"duration\",\"old_key\":\"duration_ns\",\"type\":\"int\",\"convert\":1000000},"
+            + "{\"new_key\":\"duration_ms\",\"old_key\":\"duration_ns\",\"convert\":1000000},"
+            + "{\"new_key\":\"start_day\",\"old_key\":\"start_ms\",\"type\":\"int\",\"convert\":1,\"format\":\"yyyy-MM-dd\"},"
+            + "{\"new_key\":\"absent\",\"old_key\":\"nothing\"}]},"
+            + "\"server\":{\"type\":\"object\",\"mappings\":["
+            + "{\"new_key\":\"server_name\",\"old_key\":\"name\"},"
+            + "{\"new_key\":\"server_port\",\"old_key\":\"port\",\"convert\":2}]},"
+            + "\"download\":{\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"download_last\",\"old_key\":\"bytes\",\"type\":\"last\"},"
+            + "{\"new_key\":\"download_last_kb\",\"old_key\":\"bytes\",\"type\":\"last\",\"convert\":1000},"
+            + "{\"new_key\":\"download_max\",\"old_key\":\"bytes\",\"old_key_divider\":\"time\",\"type\":\"max\",\"convert\":1000,\"convert_multiplier\":8},"
+            + "{\"new_key\":\"download_min\",\"old_key\":\"bytes\",\"old_key_divider\":\"time\",\"type\":\"min\",\"convert\":1000,\"convert_multiplier\":8},"
+            + "{\"new_key\":\"download_throughput\",\"type\":\"throughput\",\"convert\":4},"
+            + "{\"new_key\":\"download_unknown\",\"type\":\"unknown\"},"
+            + "{\"new_key\":\"download_series\",\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"index\",\"type\":\"index\"},"
+            + "{\"new_key\":\"kbytes\",\"old_key\":\"bytes\",\"convert\":1000},"
+            + "{\"new_key\":\"at\",\"old_key\":\"time\"}]}]},"
+            + "\"ping\":{\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"ping_all\",\"type\":\"all\"},"
+            + "{\"new_key\":\"ping_last\",\"old_key\":\"rtt\",\"type\":\"last\"}]},"
+            + "\"idle\":{\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"idle_max\",\"old_key\":\"bytes\",\"old_key_divider\":\"time\",\"type\":\"max\",\"convert\":1,\"convert_multiplier\":1}]},"
+            + "\"missing\":{\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"missing_last\",\"old_key\":\"x\",\"type\":\"last\"}]},"
+            + "\"broken\":{\"type\":\"table\",\"mappings\":["
+            + "{\"new_key\":\"broken_value\",\"old_key\":\"x\"}]}"
+            + "}";
+
+    @Test
+    public void applyMatchesOriginalMapJson() throws JSONException
+    {
+        JSONObject      mappingJSON = new JSONObject(MAPPING);
+        JsonMappingPlan plan        = JsonMappingPlan.compile(mappingJSON);
+
+        for (int samples : new int[]{1, 2, 9, 250})
+        {
+            JSONObject original = result(samples);
+            JSONObject expected = Tool.mapJSON(original, mappingJSON);
+
+            assertTrue(samples + ": " + expected + " vs " + plan.apply(original), expected.similar(plan.apply(original)));
+            assertTrue(samples + ": streaming", expected.similar(plan.getStreamingMapper().map(original.toString())));
+        }
+    }
+
+    @Test
+    public void skippedGroupsProduceNoKeys() throws JSONException
+    {
+        JSONObject mapped = JsonMappingPlan.compile(new JSONObject(MAPPING)).apply(result(5));
+
+        assertFalse(mapped.has("idle_max"));
+        assertFalse(mapped.has("missing_last"));
+        assertFalse(mapped.has("broken_value"));
+        assertFalse(mapped.has("absent"));
+        assertEquals(5, new JSONArray(mapped.getString("download_series")).length());
+    }
+
+    @Test
+    public void nullOriginalMapsToEmptyObject() throws JSONException
+    {
+        assertEquals(0, JsonMappingPlan.compile(new JSONObject(MAPPING)).apply(null).length());
+    }
+
+    @Test
+    public void mappingCost() throws JSONException
+    {
+        BenchmarkSupport.assumeEnabled();
+
+        JSONObject      mappingJSON = new JSONObject(MAPPING);
+        JsonMappingPlan plan        = JsonMappingPlan.compile(mappingJSON);
+        JSONObject      original    = result(500);
+
+        for (int round = 0; round < 2; round++)
+        {
+            int  iterations = 500;
+            long bytes      = BenchmarkSupport.allocatedBytes();
+            long start      = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+            {
+                Tool.mapJSON(original, mappingJSON);
+            }
+            BenchmarkSupport.report("Tool.mapJSON, 500 samples", iterations, System.nanoTime() - start, BenchmarkSupport.allocatedBytes() - bytes);
+
+            bytes = BenchmarkSupport.allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+            {
+                plan.apply(original);
+            }
+            BenchmarkSupport.report("JsonMappingPlan.apply, 500 samples", iterations, System.nanoTime() - start, BenchmarkSupport.allocatedBytes() - bytes);
+
+            bytes = BenchmarkSupport.allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+            {
+                JsonMappingPlan.compile(mappingJSON);
+            }
+            BenchmarkSupport.report("JsonMappingPlan.compile", iterations, System.nanoTime() - start, BenchmarkSupport.allocatedBytes() - bytes);
+        }
+    }
+
+    private static JSONObject result(int samples) throws JSONException
+    {
+        JSONObject root = new JSONObject();
+
+        root.put("id", "abc-123");
+        root.put("duration_ns", 1234567890L);
+        root.put("start_ms", 1700000000000L);
+        root.put("server", new JSONObject().put("name", "peer").put("port", 8080).put("extra", true));
+
+        JSONArray download = new JSONArray();
+        JSONArray ping     = new JSONArray();
+        JSONArray idle     = new JSONArray();
+        for (int i = 0; i < samples; i++)
+        {
+            download.put(new JSONObject().put("bytes", (i + 1) * 1250L).put("time", i * 3).put("noise", "n" + i));
+            ping.put(new JSONObject().put("rtt", 10.5 + i).put("seq", i));
+            idle.put(new JSONObject().put("bytes", i).put("time", 0));
+        }
+        root.put("download", download);
+        root.put("ping", ping);
+        root.put("idle", idle);
+
+        return root;
+    }
+}
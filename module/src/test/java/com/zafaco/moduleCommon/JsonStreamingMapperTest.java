@@ -0,0 +1,164 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JsonStreamingMapperTest
+{
+    private static final String MAPPING = "{"
+            + "\"general\":{\"type\":\"object\",\"mappings\":["
+            + "{\"new_key\":\"test_id\",\"old_key\":\"id\"},"
+            + "{\"new_key\":\"duration\",\"old_key\":\"duration_ns\",\"type\":\"int\",\"convert\":1000000},"
+            + "{\"new_key\":\"upload_raw\",\"old_key\":\"upload\"}]},"
+            + "\"server\":{\"type\":\"object\",\"mappings\":["
+            + "{\"new_key\":\"server_name\",\"old_key\":\"name\"},"
+            + "{\"new_key\":\"server_port\",\"old_key\":\"port\",\"convert\":2}]},"
+            + "\"download\":{\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"download_last\",\"old_key\":\"bytes\",\"type\":\"last\"},"
+            + "{\"new_key\":\"download_max\",\"old_key\":\"bytes\",\"old_key_divider\":\"time\",\"type\":\"max\",\"convert\":1000,\"convert_multiplier\":8},"
+            + "{\"new_key\":\"download_min\",\"old_key\":\"bytes\",\"old_key_divider\":\"time\",\"type\":\"min\",\"convert\":1000,\"convert_multiplier\":8},"
+            + "{\"new_key\":\"download_mean\",\"old_key\":\"bytes\",\"type\":\"mean\"},"
+            + "{\"new_key\":\"download_median\",\"old_key\":\"bytes\",\"type\":\"median\"},"
+            + "{\"new_key\":\"download_p90\",\"old_key\":\"bytes\",\"type\":\"percentile\",\"percentile\":90},"
+            + "{\"new_key\":\"download_stddev\",\"old_key\":\"bytes\",\"type\":\"stddev\",\"convert_multiplier\":0.5},"
+            + "{\"new_key\":\"download_throughput\",\"type\":\"throughput\",\"convert\":4},"
+            + "{\"new_key\":\"download_series\",\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"index\",\"type\":\"index\"},"
+            + "{\"new_key\":\"kbytes\",\"old_key\":\"bytes\",\"convert\":1000},"
+            + "{\"new_key\":\"at\",\"old_key\":\"time\"}]}]},"
+            + "\"ping\":{\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"ping_all\",\"type\":\"all\"},"
+            + "{\"new_key\":\"ping_last\",\"old_key\":\"rtt\",\"type\":\"last\"}]},"
+            + "\"upload\":{\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"upload_max\",\"old_key\":\"bytes\",\"type\":\"max\"}]},"
+            + "\"missing\":{\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"missing_last\",\"old_key\":\"x\",\"type\":\"last\"}]}"
+            + "}";
+
+    private static final String AGGREGATES = "{"
+            + "\"download\":{\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"download_last\",\"old_key\":\"bytes\",\"type\":\"last\"},"
+            + "{\"new_key\":\"download_max\",\"old_key\":\"bytes\",\"old_key_divider\":\"time\",\"type\":\"max\",\"convert\":1000,\"convert_multiplier\":8},"
+            + "{\"new_key\":\"download_median\",\"old_key\":\"bytes\",\"type\":\"median\"}]},"
+            + "\"ping\":{\"type\":\"array\",\"mappings\":["
+            + "{\"new_key\":\"ping_p90\",\"old_key\":\"rtt\",\"type\":\"percentile\",\"percentile\":90}]}"
+            + "}";
+
+    @Test
+    public void streamingMatchesTreeMapping() throws JSONException
+    {
+        JsonMappingPlan plan = JsonMappingPlan.compile(new JSONObject(MAPPING));
+
+        for (int samples : new int[]{1, 7, 300})
+        {
+            String     text     = result(samples).toString();
+            JSONObject expected = plan.apply(new JSONObject(text));
+            JSONObject streamed = new JsonStreamingMapper(plan).map(text);
+
+            assertTrue(samples + ": " + expected + " vs " + streamed, expected.similar(streamed));
+        }
+    }
+
+    @Test
+    public void foldedAggregatesSkipZeroDivisors() throws JSONException
+    {
+        JsonMappingPlan plan   = JsonMappingPlan.compile(new JSONObject(MAPPING));
+        JSONObject      mapped = new JsonStreamingMapper(plan).map(result(3).toString());
+
+        // time 0 on the first sample is skipped by max/min but still counted by mean
+        assertEquals(2000 * 8 * 1000, mapped.getLong("download_max"));
+        assertEquals(3000 * 8 * 1000 / 2, mapped.getLong("download_min"));
+        assertEquals(2000.0, mapped.getDouble("download_mean"), 0);
+        assertEquals(3, new JSONArray(mapped.getString("download_series")).length());
+    }
+
+    @Test
+    public void malformedInputMapsToEmptyObject() throws JSONException
+    {
+        JsonMappingPlan plan = JsonMappingPlan.compile(new JSONObject(MAPPING));
+
+        assertEquals(0, new JsonStreamingMapper(plan).map("{\"download\":[1,2]}").length());
+        assertEquals(0, new JsonStreamingMapper(plan).map("{\"download\":[").length());
+    }
+
+    @Test
+    public void streamingCost() throws JSONException
+    {
+        BenchmarkSupport.assumeEnabled();
+
+        String text = result(2000).toString();
+
+        for (String mapping : new String[]{AGGREGATES, MAPPING})
+        {
+            JsonMappingPlan     plan   = JsonMappingPlan.compile(new JSONObject(mapping));
+            JsonStreamingMapper mapper = new JsonStreamingMapper(plan);
+            String              name   = (mapping == AGGREGATES) ? "aggregates" : "full mapping";
+
+            for (int round = 0; round < 2; round++)
+            {
+                int  iterations = 200;
+                long bytes      = BenchmarkSupport.allocatedBytes();
+                long start      = System.nanoTime();
+                for (int i = 0; i < iterations; i++)
+                {
+                    mapper.map(text);
+                }
+                BenchmarkSupport.report("streaming fold, " + name + " (" + text.length() + " chars)", iterations, System.nanoTime() - start, BenchmarkSupport.allocatedBytes() - bytes);
+
+                bytes = BenchmarkSupport.allocatedBytes();
+                start = System.nanoTime();
+                for (int i = 0; i < iterations; i++)
+                {
+                    plan.apply(new JSONObject(text));
+                }
+                BenchmarkSupport.report("parse and apply, " + name + " (" + text.length() + " chars)", iterations, System.nanoTime() - start, BenchmarkSupport.allocatedBytes() - bytes);
+            }
+        }
+    }
+
+    private static JSONObject result(int samples) throws JSONException
+    {
+        JSONObject root = new JSONObject();
+
+        root.put("id", "abc-123");
+        root.put("duration_ns", 1234567890L);
+        root.put("ignored", new JSONObject().put("deep", new JSONArray().put(1).put(2)));
+        root.put("server", new JSONObject().put("name", "peer").put("port", 8080).put("extra", true));
+
+        JSONArray download = new JSONArray();
+        JSONArray ping     = new JSONArray();
+        JSONArray upload   = new JSONArray();
+        for (int i = 0; i < samples; i++)
+        {
+            download.put(new JSONObject().put("bytes", (i + 1) * 1000L).put("time", i).put("noise", "n" + i));
+            ping.put(new JSONObject().put("rtt", 10.5 + i).put("seq", i));
+            upload.put(new JSONObject().put("bytes", i * 3));
+        }
+        root.put("download", download);
+        root.put("ping", ping);
+        root.put("upload", upload);
+
+        return root;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class LogRateLimiterTest
+{
+    @Test
+    public void disabledByDefault()
+    {
+        LogRateLimiter limiter = new LogRateLimiter();
+
+        for (int i = 0; i < 1000; i++)
+        {
+            assertSame(LogRateLimiter.UNLIMITED, limiter.acquire(LogLevel.DEBUG, "tag", "message", false));
+        }
+        assertEquals(0, new LogConfig().getRateLimitWindowMs());
+    }
+
+    @Test
+    public void concatenatedNumbersShareAWindow()
+    {
+        LogRateLimiter limiter = new LogRateLimiter();
+        limiter.configure(10000, 2, 100);
+
+        assertNotNull(limiter.acquire(LogLevel.DEBUG, "tag", "rtt 12 ms", false));
+        assertNotNull(limiter.acquire(LogLevel.DEBUG, "tag", "rtt 1375 ms", false));
+        assertNull(limiter.acquire(LogLevel.DEBUG, "tag", "rtt 7 ms", false));
+        assertNotNull(limiter.acquire(LogLevel.DEBUG, "tag", "jitter 7 ms", false));
+        assertNotNull(limiter.acquire(LogLevel.DEBUG, "other", "rtt 7 ms", false));
+
+        assertEquals(LogRateLimiter.fingerprint("tag", "a 1 b 22"), LogRateLimiter.fingerprint("tag", "a 9 b 3"));
+        assertNotEquals(LogRateLimiter.fingerprint("tag", "a 1 b"), LogRateLimiter.fingerprint("tag", "a b 1"));
+    }
+
+    @Test
+    public void formatStringsAreKeyedAsTemplates()
+    {
+        LogRateLimiter limiter = new LogRateLimiter();
+        limiter.configure(10000, 2, 100);
+
+        assertNotNull(limiter.acquire(LogLevel.DEBUG, "tag", "rtt {} ms", true));
+        assertNotNull(limiter.acquire(LogLevel.DEBUG, "tag", "rtt {} ms", true));
+        assertNull(limiter.acquire(LogLevel.DEBUG, "tag", "rtt {} ms", true));
+        assertNotNull(limiter.acquire(LogLevel.DEBUG, "tag", "jitter {} ms", true));
+    }
+
+    @Test
+    public void errorsAreNeverSuppressed()
+    {
+        LogRateLimiter limiter = new LogRateLimiter();
+        limiter.configure(10000, 1, 1);
+
+        for (int i = 0; i < 100; i++)
+        {
+            assertSame(LogRateLimiter.UNLIMITED, limiter.acquire(LogLevel.ERROR, "tag", "failed", false));
+        }
+    }
+
+    @Test
+    public void suppressedCountsAreReportedOnTheNextRecord()
+    {
+        LogRateLimiter limiter = new LogRateLimiter();
+        limiter.configure(10000, 1, 100);
+
+        LogRateLimiter.Window window = limiter.acquire(LogLevel.INFO, "tag", "message", false);
+        for (int i = 0; i < 5; i++)
+        {
+            assertNull(limiter.acquire(LogLevel.INFO, "tag", "message", false));
+        }
+
+        LogRecord record = new LogRecord();
+        LogRateLimiter.drain(window, record);
+
+        assertEquals(5, record.getSuppressedMessages());
+        assertEquals(5, limiter.getSuppressedTotal());
+    }
+
+    @Test
+    public void manyDistinctKeysStayBounded()
+    {
+        LogRateLimiter limiter = new LogRateLimiter();
+        limiter.configure(10000, 1, 1000000);
+
+        for (int i = 0; i < 100000; i++)
+        {
+            assertNotNull(limiter.acquire(LogLevel.DEBUG, "tag" + (i % 1000), "message " + (char) ('a' + i % 26) + i, false));
+        }
+    }
+
+    @Test
+    public void concurrentCallersShareOneBudget() throws InterruptedException
+    {
+        final LogRateLimiter limiter  = new LogRateLimiter();
+        final AtomicInteger  accepted = new AtomicInteger();
+        limiter.configure(60000, 10, 1000000);
+
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++)
+        {
+            threads[t] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for (int i = 0; i < 10000; i++)
+                    {
+                        if (limiter.acquire(LogLevel.DEBUG, "tag", "value " + i, false) != null)
+                            accepted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertEquals(10, accepted.get());
+        assertEquals(8 * 10000 - 10, limiter.getSuppressedTotal());
+    }
+
+    @Test
+    public void acquireCost() throws InterruptedException
+    {
+        BenchmarkSupport.assumeEnabled();
+
+        final LogRateLimiter limiter = new LogRateLimiter();
+        limiter.configure(10000, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+        for (final int threadCount : new int[]{1, 4})
+        {
+            final int iterations = 1_000_000;
+            Thread[]  threads    = new Thread[threadCount];
+            long      start      = System.nanoTime();
+
+            for (int t = 0; t < threadCount; t++)
+            {
+                final String tag = "tag" + t;
+                threads[t] = new Thread(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        for (int i = 0; i < iterations; i++)
+                        {
+                            limiter.acquire(LogLevel.DEBUG, tag, "measurement {} finished", true);
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads)
+            {
+                thread.join();
+            }
+
+            BenchmarkSupport.report("LogRateLimiter.acquire x" + threadCount + " threads", iterations * threadCount, System.nanoTime() - start, 0);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon;
+
+import com.zafaco.moduleCommon.interfaces.LogSink;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LogTest
+{
+    private CapturingSink capture;
+    private LogSink       previousSink;
+    private LogConfig     previousConfig;
+
+    @Before
+    public void setUp()
+    {
+        previousSink   = Log.getSink();
+        previousConfig = Log.getConfig();
+        capture        = new CapturingSink();
+
+        Log.setSink(capture);
+        Log.setConfig(new LogConfig().setLevel(LogLevel.DEBUG).setRateLimit(0, 0, 0));
+    }
+
+    @After
+    public void tearDown()
+    {
+        Log.disableAsync();
+        Log.setSink(previousSink);
+        Log.setConfig(previousConfig);
+    }
+
+    @Test
+    public void throwingArgumentReleasesThreadLocalRecord()
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            try
+            {
+                Log.debugf("LogTest", "value {} end", new Throwing());
+                fail("toString should have thrown");
+            } catch (IllegalStateException expected)
+            {
+                // expected
+            }
+        }
+
+        Log.debugf("LogTest", "after {}", 42L);
+
+        List<String> lines = capture.lines();
+        assertEquals(4, lines.size());
+        assertEquals("value {} end", lines.get(0));
+        assertEquals("after 42", lines.get(3));
+        assertFalse(capture.lastRecord.inUse);
+    }
+
+    @Test
+    public void throwingArgumentPublishesRingSlot() throws InterruptedException
+    {
+        Log.enableAsync(4);
+
+        for (int i = 0; i < 16; i++)
+        {
+            try
+            {
+                Log.warningf("LogTest", "value {} {}", new Throwing(), "unused");
+                fail("toString should have thrown");
+            } catch (IllegalStateException expected)
+            {
+                // expected
+            }
+            capture.await(i + 1);
+        }
+
+        Log.warningf("LogTest", "after {}", "throw");
+        capture.await(17);
+
+        List<String> lines = capture.lines();
+        assertEquals("value {} {}", lines.get(0));
+        assertEquals("after throw", lines.get(16));
+        assertEquals(0, Log.getDroppedRecords());
+    }
+
+    @Test
+    public void formatsArgumentsInOrder()
+    {
+        Log.infof("LogTest", "{} + {} = 3", 1L, 2L);
+        Log.infof("LogTest", "no placeholder", "ignored");
+        Log.errorf("LogTest", "{} trailing {}", "a", null);
+
+        List<String> lines = capture.lines();
+        assertEquals("1 + 2 = 3", lines.get(0));
+        assertEquals("no placeholder", lines.get(1));
+        assertEquals("a trailing null", lines.get(2));
+    }
+
+    @Test
+    public void allocationPerFormattedRecord()
+    {
+        BenchmarkSupport.assumeEnabled();
+
+        Log.setSink(new LogSink()
+        {
+            @Override
+            public void write(LogRecord record)
+            {
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+        });
+
+        int iterations = 200_000;
+        for (int i = 0; i < iterations; i++)
+        {
+            Log.debugf("LogTest", "sample {} of {}", i, iterations);
+        }
+
+        long bytes = BenchmarkSupport.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+        {
+            Log.debugf("LogTest", "sample {} of {}", i, iterations);
+        }
+        long elapsed = System.nanoTime() - start;
+        bytes = BenchmarkSupport.allocatedBytes() - bytes;
+
+        BenchmarkSupport.report("Log.debugf(long, long)", iterations, elapsed, bytes);
+        assertTrue(bytes / iterations < 64);
+    }
+
+    private static final class Throwing
+    {
+        @Override
+        public String toString()
+        {
+            throw new IllegalStateException("toString");
+        }
+    }
+
+    private static final class CapturingSink implements LogSink
+    {
+        private final List<String> lines = new ArrayList<>();
+
+        private volatile LogRecord lastRecord;
+
+        @Override
+        public synchronized void write(LogRecord record)
+        {
+            lines.add(record.getText().toString());
+            lastRecord = record;
+            notifyAll();
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        synchronized List<String> lines()
+        {
+            return new ArrayList<>(lines);
+        }
+
+        synchronized void await(int count) throws InterruptedException
+        {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (lines.size() < count)
+            {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0)
+                    fail("sink received " + lines.size() + " of " + count + " records");
+                wait(remaining);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zafaco.moduleCommon.models.network;
+
+import com.zafaco.moduleCommon.BenchmarkSupport;
+import com.zafaco.moduleCommon.models.measurement.AbstractMeasurementResult.TestCase;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SignalSeriesTest
+{
+    @Test
+    public void percentilesUseNearestRank() throws JSONException
+    {
+        SignalSeries series = new SignalSeries(64);
+
+        for (int i = 1; i <= 10; i++)
+        {
+            series.add(1000 + i, TestCase.DOWNLOAD, -i, -100 - i, 0, i, 0, 0);
+        }
+
+        JSONObject download = series.toJson().getJSONObject("download");
+        JSONObject rssi     = download.getJSONObject("rssi");
+        JSONObject sinr     = download.getJSONObject("sinr");
+
+        assertEquals(10, download.getInt("samples"));
+        assertEquals(9, download.getLong("duration_ms"));
+        assertEquals(-10, rssi.getInt("min"));
+        assertEquals(-1, rssi.getInt("max"));
+        assertEquals(-5.5, rssi.getDouble("mean"), 0);
+        assertEquals(-10, rssi.getInt("p10"));
+        assertEquals(-6, rssi.getInt("p50"));
+        assertEquals(-2, rssi.getInt("p90"));
+        assertEquals(1, sinr.getInt("p10"));
+        assertEquals(5, sinr.getInt("p50"));
+        assertEquals(9, sinr.getInt("p90"));
+
+        // zero means "not reported" and is left out of the column rather than counted as a value
+        assertFalse(download.has("rsrq"));
+    }
+
+    @Test
+    public void wraparoundKeepsOnlyTheNewestSamples() throws JSONException
+    {
+        SignalSeries series = new SignalSeries(4);
+
+        for (int i = 1; i <= 10; i++)
+        {
+            series.add(i, TestCase.UPLOAD, -i, 0, 0, 0, 0, 0);
+        }
+
+        assertEquals(4, series.size());
+
+        JSONObject upload = series.toJson().getJSONObject("upload");
+        JSONObject rssi   = upload.getJSONObject("rssi");
+
+        assertEquals(4, upload.getInt("samples"));
+        assertEquals(3, upload.getLong("duration_ms"));
+        assertEquals(-10, rssi.getInt("min"));
+        assertEquals(-7, rssi.getInt("max"));
+        assertEquals(-8.5, rssi.getDouble("mean"), 0);
+    }
+
+    @Test
+    public void wraparoundDropsOverwrittenTestCases() throws JSONException
+    {
+        SignalSeries series = new SignalSeries(3);
+
+        series.add(1, TestCase.RTT_UDP, -50, 0, 0, 0, 0, 0);
+        series.add(2, TestCase.DOWNLOAD, -60, 0, 0, 0, 0, 0);
+        series.add(3, TestCase.DOWNLOAD, -61, 0, 0, 0, 0, 0);
+        series.add(4, TestCase.DOWNLOAD, -62, 0, 0, 0, 0, 0);
+
+        JSONObject stats = series.toJson();
+
+        assertFalse(stats.has("rtt_udp"));
+        assertEquals(3, stats.getJSONObject("download").getInt("samples"));
+    }
+
+    @Test
+    public void beginTestCaseStartsANewWindow() throws JSONException
+    {
+        SignalSeries series = new SignalSeries(16);
+
+        series.add(1, TestCase.DOWNLOAD, -90, 0, 0, 0, 0, 0);
+        series.add(2, TestCase.DOWNLOAD, -91, 0, 0, 0, 0, 0);
+        series.beginTestCase(TestCase.DOWNLOAD);
+        series.add(3, TestCase.DOWNLOAD, -70, 0, 0, 0, 0, 0);
+
+        JSONObject download = series.toJson().getJSONObject("download");
+
+        assertEquals(1, download.getInt("samples"));
+        assertEquals(-70, download.getJSONObject("rssi").getInt("min"));
+    }
+
+    @Test
+    public void countsCellAndArfcnChanges() throws JSONException
+    {
+        SignalSeries series = new SignalSeries(16);
+
+        series.add(1, TestCase.DOWNLOAD, -80, 0, 0, 0, 100, 11);
+        series.add(2, TestCase.DOWNLOAD, -80, 0, 0, 0, 0, 0);
+        series.add(3, TestCase.DOWNLOAD, -80, 0, 0, 0, 100, 12);
+        series.add(4, TestCase.DOWNLOAD, -80, 0, 0, 0, 200, 12);
+        series.add(5, TestCase.UPLOAD, -80, 0, 0, 0, 300, 13);
+        series.add(6, TestCase.DOWNLOAD, -80, 0, 0, 0, 200, 11);
+
+        JSONObject download = series.toJson().getJSONObject("download");
+
+        assertEquals(2, download.getInt("cell_changes"));
+        assertEquals(1, download.getInt("arfcn_changes"));
+    }
+
+    @Test
+    public void clearEmptiesTheSeries() throws JSONException
+    {
+        SignalSeries series = new SignalSeries(8);
+
+        series.add(1, TestCase.DOWNLOAD, -80, 0, 0, 0, 0, 0);
+        series.add(2, null, -80, 0, 0, 0, 0, 0);
+        series.clear();
+
+        assertEquals(0, series.size());
+        assertEquals(0, series.toJson().length());
+        assertNull(series.toJson().optJSONObject("download"));
+    }
+
+    @Test
+    public void seriesCost()
+    {
+        BenchmarkSupport.assumeEnabled();
+
+        SignalSeries series = new SignalSeries();
+
+        for (int round = 0; round < 2; round++)
+        {
+            int  iterations = 1_000_000;
+            long bytes      = BenchmarkSupport.allocatedBytes();
+            long start      = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+            {
+                series.add(i, (i % 2 == 0) ? TestCase.DOWNLOAD : TestCase.UPLOAD, -80 - (i & 15), -100 - (i & 7), -10, i & 31, 1300, 42 + (i >> 10));
+            }
+            BenchmarkSupport.report("SignalSeries.add", iterations, System.nanoTime() - start, BenchmarkSupport.allocatedBytes() - bytes);
+
+            iterations = 2_000;
+            bytes      = BenchmarkSupport.allocatedBytes();
+            start      = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+            {
+                assertTrue(series.toJson().has("download"));
+            }
+            BenchmarkSupport.report("SignalSeries.toJson, " + series.size() + " samples", iterations, System.nanoTime() - start, BenchmarkSupport.allocatedBytes() - bytes);
+        }
+    }
+}
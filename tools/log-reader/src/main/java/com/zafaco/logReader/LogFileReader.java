@@ -0,0 +1,204 @@
+/*
+ *     Copyright (C) 2016-2025 zafaco GmbH
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Affero General Public License version 3
+ *     as published by the Free Software Foundation.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Affero General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Affero General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zafaco.logReader;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+public final class LogFileReader
+{
+    static final int    MAGIC          = 0x5A4C4F47;
+    static final byte   VERSION        = 1;
+    static final int    HEADER_SIZE    = 8;
+    static final int    RECORD_FIXED   = 4 + 8 + 8 + 1 + 2;
+    static final String SEGMENT_PREFIX = "log-";
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String GZIP_SUFFIX    = ".gz";
+
+    static final int DEBUG = 3;
+    static final int INFO  = 4;
+    static final int WARN  = 5;
+    static final int ERROR = 6;
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.ROOT);
+
+    public static void main(String[] args) throws IOException
+    {
+        PrintWriter   out    = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        LogFileReader reader = new LogFileReader();
+
+        for (String path : args)
+        {
+            File file = new File(path);
+
+            if (file.isDirectory())
+            {
+                for (File segment : listSegments(file))
+                {
+                    reader.decode(segment, out);
+                }
+            } else
+            {
+                reader.decode(file, out);
+            }
+        }
+
+        out.flush();
+    }
+
+    public int decode(File segment, Appendable out) throws IOException
+    {
+        try (InputStream in = open(segment))
+        {
+            return decode(in, out);
+        }
+    }
+
+    public int decode(InputStream in, Appendable out) throws IOException
+    {
+        DataInputStream data = new DataInputStream(in);
+
+        if (data.readInt() != MAGIC)
+            throw new IOException("decode: not a log segment");
+
+        byte version = data.readByte();
+        if (version != VERSION)
+            throw new IOException("decode: unsupported version " + version);
+
+        data.skipBytes(HEADER_SIZE - 5);
+
+        int    records = 0;
+        byte[] bytes   = new byte[1024];
+
+        while (true)
+        {
+            int length;
+            try
+            {
+                length = data.readInt();
+            } catch (EOFException ex)
+            {
+                break;
+            }
+
+            if (length <= 0)
+                break;
+
+            long timestamp  = data.readLong();
+            long threadId   = data.readLong();
+            int  priority   = data.readByte();
+            int  tagLength  = data.readUnsignedShort();
+            int  textLength = length - (RECORD_FIXED - 4) - tagLength;
+
+            if (bytes.length < Math.max(tagLength, textLength))
+                bytes = new byte[Math.max(tagLength, textLength)];
+
+            data.readFully(bytes, 0, tagLength);
+            String tag = new String(bytes, 0, tagLength, StandardCharsets.UTF_8);
+
+            data.readFully(bytes, 0, textLength);
+            String text = new String(bytes, 0, textLength, StandardCharsets.UTF_8);
+
+            out.append(dateFormat.format(new Date(timestamp))).append(' ')
+               .append(levelChar(priority)).append(' ')
+               .append(Long.toString(threadId)).append(' ')
+               .append(tag).append(": ")
+               .append(text).append('\n');
+
+            records++;
+        }
+
+        return records;
+    }
+
+    private static InputStream open(File segment) throws IOException
+    {
+        InputStream in = new BufferedInputStream(new FileInputStream(segment));
+
+        if (segment.getName().endsWith(GZIP_SUFFIX))
+            return new GZIPInputStream(in);
+
+        return in;
+    }
+
+    private static char levelChar(int priority)
+    {
+        switch (priority)
+        {
+            case DEBUG:
+                return 'D';
+            case INFO:
+                return 'I';
+            case WARN:
+                return 'W';
+            case ERROR:
+                return 'E';
+            default:
+                return '?';
+        }
+    }
+
+    static File[] listSegments(File directory)
+    {
+        File[] files = directory.listFiles();
+        if (files == null)
+            return new File[0];
+
+        int count = 0;
+        for (File file : files)
+        {
+            if (segmentIndexOf(file) >= 0)
+                files[count++] = file;
+        }
+
+        File[] segments = Arrays.copyOf(files, count);
+        Arrays.sort(segments, (a, b) -> Long.compare(segmentIndexOf(a), segmentIndexOf(b)));
+        return segments;
+    }
+
+    static long segmentIndexOf(File file)
+    {
+        String name = file.getName();
+        if (name.endsWith(GZIP_SUFFIX))
+            name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX))
+            return -1;
+
+        try
+        {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException ex)
+        {
+            return -1;
+        }
+    }
+}